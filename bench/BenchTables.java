@@ -0,0 +1,272 @@
+import bench.Table;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Creates the tables for the JMH benchmarks in the {@code bench} package. JMH only accepts benchmarks in a named
+ * package and the tables are in the default package, which a named package cannot import, so this class sits in
+ * between: the benchmarks look it up by name and get every table wrapped in a {@link Table}.
+ */
+public final class BenchTables {
+    /* the number of keys the cache of the CACHED engine holds */
+    private static final int CACHE_CAPACITY = 1 << 16;
+
+    private BenchTables() {
+    }
+
+    /**
+     * creates an empty table of an engine
+     * @param engine The name of one of the constants of {@code bench.Engine}
+     * @return the table, with rank and select forwarded to the engine's own methods
+     * @throws IllegalArgumentException if there is no engine of that name
+     */
+    public static Table<Integer, Integer> create(String engine) {
+        switch (engine) {
+            case "RED_BLACK": {
+                SymbolTable<Integer, Integer> t = new SymbolTable<>();
+                return new Adapter<>(t, t::rank, t::select);
+            }
+            case "PERSISTENT": {
+                PersistentSymbolTable<Integer, Integer> t = new PersistentSymbolTable<>();
+                return new Adapter<>(t, t::rank, t::select);
+            }
+            case "CONCURRENT": {
+                ConcurrentSymbolTable<Integer, Integer> t = new ConcurrentSymbolTable<>();
+                return new Adapter<>(t, t::rank, t::select);
+            }
+            case "POOLED": {
+                PooledSymbolTable<Integer, Integer> t = new PooledSymbolTable<>();
+                return new Adapter<>(t, t::rank, t::select);
+            }
+            case "INT": {
+                IntSymbolTable<Integer> t = new IntSymbolTable<>();
+                return new Adapter<>(t, k -> t.rank(k.intValue()), t::select);
+            }
+            case "LONG":
+                return new LongKeys();
+            case "BTREE": {
+                BTreeSymbolTable<Integer, Integer> t = new BTreeSymbolTable<>();
+                return new Adapter<>(t, t::rank, t::select);
+            }
+            case "HYBRID": {
+                HybridSymbolTable<Integer, Integer> t = new HybridSymbolTable<>();
+                return new Adapter<>(t, t::rank, t::select);
+            }
+            case "SPLAY": {
+                SplaySymbolTable<Integer, Integer> t = new SplaySymbolTable<>();
+                return new Adapter<>(t, t::rank, t::select);
+            }
+            case "SHARDED": {
+                ShardedSymbolTable<Integer, Integer> t = new ShardedSymbolTable<>();
+                return new Adapter<>(t, t::rank, t::select);
+            }
+            case "CACHED": {
+                SymbolTable<Integer, Integer> t = new SymbolTable<>();
+                CachedSymbolTable<Integer, Integer> cached = new CachedSymbolTable<>(t, CACHE_CAPACITY,
+                        CachedSymbolTable.Policy.W_TINY_LFU);
+                return new Adapter<>(cached, t::rank, t::select);
+            }
+            default:
+                throw new IllegalArgumentException("unknown engine: " + engine);
+        }
+    }
+
+    /**
+     * creates an empty table with long keys for the benchmarks that share one table between threads
+     * @param engine SHARDED or CONCURRENT, or RED_BLACK for a SymbolTable that the caller has to lock itself
+     * @return the table
+     * @throws IllegalArgumentException if engine names none of them
+     */
+    public static Table<Long, Long> shared(String engine) {
+        switch (engine) {
+            case "SHARDED": {
+                ShardedSymbolTable<Long, Long> t = new ShardedSymbolTable<>();
+                return new Adapter<>(t, t::rank, t::select);
+            }
+            case "CONCURRENT": {
+                ConcurrentSymbolTable<Long, Long> t = new ConcurrentSymbolTable<>();
+                return new Adapter<>(t, t::rank, t::select);
+            }
+            case "RED_BLACK": {
+                SymbolTable<Long, Long> t = new SymbolTable<>();
+                return new Adapter<>(t, t::rank, t::select);
+            }
+            default:
+                throw new IllegalArgumentException("unknown shared engine: " + engine);
+        }
+    }
+
+    /**
+     * opens a durable table with long keys and string values
+     * @param directory The directory to keep the snapshot and the log in
+     * @param policy The name of one of {@link DurableSymbolTable.SyncPolicy}
+     * @param checkpointInterval The number of log records after which a snapshot is taken
+     * @return the table, closing it closes the log
+     * @throws IOException if the directory can not be read or written
+     */
+    public static Table<Long, String> durable(Path directory, String policy, long checkpointInterval)
+            throws IOException {
+        DurableSymbolTable<Long, String> t = new DurableSymbolTable<>(directory, BinaryCodec.LONG,
+                BinaryCodec.STRING, DurableSymbolTable.SyncPolicy.valueOf(policy), checkpointInterval);
+        return new Adapter<>(t, t::rank, t::select);
+    }
+
+    // Forwards every call to an ISymbolTable, and rank and select to the functions of the concrete table
+    private static class Adapter<K, V> implements Table<K, V> {
+        final ISymbolTable<K, V> table;
+        private final ToIntFunction<K> rank;
+        private final IntFunction<K> select;
+
+        Adapter(ISymbolTable<K, V> table, ToIntFunction<K> rank, IntFunction<K> select) {
+            this.table = table;
+            this.rank = rank;
+            this.select = select;
+        }
+
+        public void put(K k, V v) {
+            table.put(k, v);
+        }
+
+        public V get(K k) {
+            return table.get(k);
+        }
+
+        public V find(K k) {
+            return table.find(k);
+        }
+
+        public boolean contains(K k) {
+            return table.contains(k);
+        }
+
+        public void del(K k) {
+            table.del(k);
+        }
+
+        public int rank(K k) {
+            return rank.applyAsInt(k);
+        }
+
+        public K select(int r) {
+            return select.apply(r);
+        }
+
+        public List<K> keys() {
+            return table.keys();
+        }
+
+        public List<V> getAll(List<K> keys) {
+            return table.getAll(keys);
+        }
+
+        public void putAll(List<K> keys, List<V> values) {
+            table.putAll(keys, values);
+        }
+
+        public int delAll(List<K> keys) {
+            return table.delAll(keys);
+        }
+
+        public Iterator<K> iterator() {
+            return table.iterator();
+        }
+
+        public void close() {
+            if (table instanceof Closeable) {
+                try {
+                    ((Closeable) table).close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    // Forwards the Integer keys of the benchmarks to the primitive long methods of a LongSymbolTable
+    private static class LongKeys implements Table<Integer, Integer> {
+        final LongSymbolTable<Integer> table = new LongSymbolTable<>();
+
+        public void put(Integer k, Integer v) {
+            table.put((long) k, v);
+        }
+
+        public Integer get(Integer k) {
+            return table.get((long) k);
+        }
+
+        public Integer find(Integer k) {
+            return table.find((long) k);
+        }
+
+        public boolean contains(Integer k) {
+            return table.contains((long) k);
+        }
+
+        public void del(Integer k) {
+            table.del((long) k);
+        }
+
+        public int rank(Integer k) {
+            return table.rank((long) k);
+        }
+
+        public Integer select(int r) {
+            return (int) table.select(r);
+        }
+
+        public List<Integer> keys() {
+            List<Integer> keys = new LinkedList<>();
+            for (PrimitiveIterator.OfLong it = table.iterator(); it.hasNext(); ) {
+                keys.add((int) it.nextLong());
+            }
+            return keys;
+        }
+
+        public List<Integer> getAll(List<Integer> keys) {
+            List<Integer> values = new ArrayList<>(keys.size());
+            for (Integer k : keys) {
+                values.add(table.find((long) k));
+            }
+            return values;
+        }
+
+        public void putAll(List<Integer> keys, List<Integer> values) {
+            table.putAll(widen(keys), values);
+        }
+
+        public int delAll(List<Integer> keys) {
+            return table.delAll(widen(keys));
+        }
+
+        private static List<Long> widen(List<Integer> keys) {
+            List<Long> wide = new ArrayList<>(keys.size());
+            for (Integer k : keys) {
+                wide.add((long) k);
+            }
+            return wide;
+        }
+
+        public Iterator<Integer> iterator() {
+            PrimitiveIterator.OfLong it = table.iterator();
+            return new Iterator<Integer>() {
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                public Integer next() {
+                    return (int) it.nextLong();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures filling an empty table with {@code size} keys and emptying a full one again, either one key at a time or
+ * with the batched putAll and delAll. Each invocation handles the whole table so these run as single shots and the
+ * time per key is the reported time divided by {@code size}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BulkBenchmark {
+    @Param
+    public Engine engine;
+
+    @Param
+    public KeyDistribution distribution;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private List<Integer> keys;     /* the keys in insertion order */
+
+    @Setup(Level.Trial)
+    public void setup() {
+        keys = new ArrayList<>(size);
+        for (int k : distribution.insertionOrder(size, 42)) {
+            keys.add(k);
+        }
+    }
+
+    // a table holding every key, rebuilt before each invocation of the delete benchmarks
+    @State(Scope.Thread)
+    public static class Filled {
+        Table<Integer, Integer> table;
+
+        @Setup(Level.Invocation)
+        public void fill(BulkBenchmark bench) {
+            table = bench.engine.create();
+            for (Integer k : bench.keys) {
+                table.put(k, k);
+            }
+        }
+    }
+
+    @Benchmark
+    public Table<Integer, Integer> putEach() {
+        Table<Integer, Integer> table = engine.create();
+        for (Integer k : keys) {
+            table.put(k, k);
+        }
+        return table;
+    }
+
+    @Benchmark
+    public Table<Integer, Integer> putAll() {
+        Table<Integer, Integer> table = engine.create();
+        table.putAll(keys, keys);
+        return table;
+    }
+
+    @Benchmark
+    public Table<Integer, Integer> delEach(Filled filled) {
+        for (Integer k : keys) {
+            filled.table.del(k);
+        }
+        return filled.table;
+    }
+
+    @Benchmark
+    public Table<Integer, Integer> delAll(Filled filled) {
+        filled.table.delAll(keys);
+        return filled.table;
+    }
+}
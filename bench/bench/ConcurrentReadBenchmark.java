@@ -0,0 +1,149 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how lookup throughput scales with the number of reader threads, optionally while one background thread
+ * keeps writing. {@code CONCURRENT} is the copy-on-write {@code ConcurrentSymbolTable}, whose readers never block.
+ * {@code SYNCHRONIZED} is a {@code SymbolTable} that every reader and the writer lock as a whole, the way the table had
+ * to be shared before. Run it with different thread counts, e.g. {@code -t 1} and {@code -t 8}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Threads(Threads.MAX)
+public class ConcurrentReadBenchmark {
+    public enum Kind { CONCURRENT, SYNCHRONIZED }
+
+    /* the number of precomputed lookups per reader, a power of two so that the next one can be picked with a mask */
+    private static final int LOOKUPS = 1 << 16;
+
+    @Param
+    public Kind table;
+
+    @Param({"1000000"})
+    public int size;
+
+    /* whether a background thread keeps inserting and removing keys during the measurement */
+    @Param({"false", "true"})
+    public boolean writing;
+
+    private Table<Long, Long> shared;
+    private Object lock;            /* the monitor taken around every call, null for CONCURRENT */
+    private volatile boolean stop;
+    private Thread writer;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        shared = Tables.shared(table == Kind.CONCURRENT ? "CONCURRENT" : "RED_BLACK");
+        lock = table == Kind.CONCURRENT ? null : shared;
+        // the table holds the even keys, so the writer's odd keys never collide with them
+        Random random = new Random(42);
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = 2L * i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long t = keys[i];
+            keys[i] = keys[j];
+            keys[j] = t;
+        }
+        for (long k : keys) {
+            shared.put(k, k);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void startWriter() {
+        if (!writing) return;
+        stop = false;
+        writer = new Thread(() -> {
+            long next = 0;
+            while (!stop) {
+                Long k = 2 * (next++ % size) + 1;
+                put(k);
+                del(k);
+            }
+        });
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopWriter() throws InterruptedException {
+        if (writer == null) return;
+        stop = true;
+        writer.join();
+        writer = null;
+    }
+
+    private void put(Long k) {
+        if (lock == null) {
+            shared.put(k, k);
+        } else {
+            synchronized (lock) {
+                shared.put(k, k);
+            }
+        }
+    }
+
+    private void del(Long k) {
+        if (lock == null) {
+            shared.del(k);
+        } else {
+            synchronized (lock) {
+                shared.del(k);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Reader {
+        Long[] lookups;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setup(ConcurrentReadBenchmark benchmark) {
+            Random random = new Random(Thread.currentThread().getId());
+            lookups = new Long[LOOKUPS];
+            for (int i = 0; i < LOOKUPS; i++) {
+                lookups[i] = 2L * random.nextInt(benchmark.size);
+            }
+        }
+
+        Long nextKey() {
+            return lookups[next++ & (LOOKUPS - 1)];
+        }
+    }
+
+    @Benchmark
+    public Long get(Reader r) {
+        Long k = r.nextKey();
+        if (lock == null) {
+            return shared.get(k);
+        }
+        synchronized (lock) {
+            return shared.get(k);
+        }
+    }
+}
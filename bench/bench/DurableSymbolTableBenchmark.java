@@ -0,0 +1,76 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures sustained put throughput of a {@code DurableSymbolTable} under each sync policy, including the automatic
+ * checkpoints that the log triggers. Every iteration starts from an empty table in a fresh directory, which is placed
+ * under the directory named by the {@code bench.dir} system property (the default temporary directory if unset) so
+ * that the benchmark can be pointed at the device being evaluated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class DurableSymbolTableBenchmark {
+    /* the constants of DurableSymbolTable.SyncPolicy, which can not be imported into this package */
+    public enum SyncPolicy { EVERY_WRITE, BATCHED, OS }
+
+    @Param
+    public SyncPolicy policy;
+
+    @Param({"100000"})
+    public long checkpointInterval;
+
+    private Path directory;
+    private Table<Long, String> table;
+    private long next;
+
+    @Setup(Level.Iteration)
+    public void open() throws IOException {
+        String parent = System.getProperty("bench.dir");
+        directory = parent == null
+                ? Files.createTempDirectory("durable")
+                : Files.createTempDirectory(Path.of(parent), "durable");
+        table = Tables.durable(directory, policy.name(), checkpointInterval);
+        next = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() throws IOException {
+        table.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    // keys are scrambled so that the tree sees a random insertion order
+    @Benchmark
+    public void put() {
+        long k = next++ * 0x9E3779B97F4A7C15L;
+        table.put(k, "value");
+    }
+}
@@ -0,0 +1,31 @@
+package bench;
+
+/**
+ * The symbol table implementations that the benchmarks can be run against. Each engine is created with
+ * {@code Integer} keys so that every implementation sees exactly the same key stream. The tables themselves are
+ * created by {@code BenchTables}, which matches these names.
+ *
+ * Three implementations are not engines. {@code DurableSymbolTable} is measured by {@link DurableSymbolTableBenchmark},
+ * since its cost depends on the sync policy rather than the key stream. {@code MappedSymbolTable} is read only, so the
+ * put and del benchmarks can not run against it. {@code InstrumentedSymbolTable} only wraps another engine.
+ */
+public enum Engine {
+    RED_BLACK,
+    PERSISTENT,
+    CONCURRENT,
+    POOLED,
+    INT,
+    /* LongSymbolTable, the Integer keys are widened and the primitive long methods called */
+    LONG,
+    BTREE,
+    HYBRID,
+    SPLAY,
+    SHARDED,
+    /* a RED_BLACK table behind a W-TinyLFU CachedSymbolTable of 65536 keys, rank and select go to the tree */
+    CACHED;
+
+    /* creates an empty table of this engine */
+    Table<Integer, Integer> create() {
+        return Tables.create(name());
+    }
+}
@@ -0,0 +1,113 @@
+package bench;
+
+import java.util.Random;
+
+/**
+ * The key streams the benchmarks are run with. A table of n entries always holds the even keys 0, 2, ..., 2n - 2 so
+ * that every odd key is a guaranteed miss, the distributions only differ in the order the keys are inserted in and in
+ * which keys are looked up afterwards.
+ */
+public enum KeyDistribution {
+    /* keys are inserted in a random order and looked up uniformly at random */
+    RANDOM,
+    /* keys are inserted and looked up in ascending order */
+    SORTED,
+    /* keys are inserted and looked up in descending order */
+    REVERSE,
+    /* keys are inserted in a random order and looked up with a Zipfian skew, a few hot keys get most lookups */
+    ZIPFIAN;
+
+    /* the skew of the Zipfian distribution, the value YCSB uses */
+    private static final double THETA = 0.99;
+
+    /**
+     * returns the n keys of a table in the order they should be inserted
+     * @param n The number of keys
+     * @param seed Seeds the random orders so that every engine sees the same stream
+     * @return the keys 0, 2, ..., 2n - 2 in insertion order
+     */
+    int[] insertionOrder(int n, long seed) {
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = 2 * (this == REVERSE ? n - 1 - i : i);
+        }
+        if (this == RANDOM || this == ZIPFIAN) {
+            shuffle(keys, new Random(seed));
+        }
+        return keys;
+    }
+
+    /**
+     * returns a sequence of lookups into a table built from {@link #insertionOrder(int, long)}
+     * @param inserted The keys of the table in insertion order
+     * @param count The number of lookups to generate
+     * @param seed Seeds the random orders
+     * @return count keys of the table, in the order they should be looked up
+     */
+    int[] lookupOrder(int[] inserted, int count, long seed) {
+        int n = inserted.length;
+        int[] lookups = new int[count];
+        Random random = new Random(seed);
+        switch (this) {
+            case SORTED:
+            case REVERSE:
+                for (int i = 0; i < count; i++) {
+                    lookups[i] = inserted[i % n];
+                }
+                break;
+            case RANDOM:
+                for (int i = 0; i < count; i++) {
+                    lookups[i] = inserted[random.nextInt(n)];
+                }
+                break;
+            case ZIPFIAN:
+                // inserted is shuffled, so the hot ranks land on keys scattered across the whole table
+                Zipf zipf = new Zipf(n);
+                for (int i = 0; i < count; i++) {
+                    lookups[i] = inserted[zipf.next(random)];
+                }
+                break;
+        }
+        return lookups;
+    }
+
+    private static void shuffle(int[] a, Random random) {
+        for (int i = a.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+    }
+
+    // Draws ranks in [0, n) with probability proportional to 1 / (rank + 1)^THETA using the constant time method of
+    // Gray et al., "Quickly Generating Billion-Record Synthetic Databases"
+    private static final class Zipf {
+        private final int n;
+        private final double alpha, zetan, eta;
+
+        Zipf(int n) {
+            this.n = n;
+            double zeta2 = zeta(2);
+            zetan = zeta(n);
+            alpha = 1.0 / (1.0 - THETA);
+            eta = (1 - Math.pow(2.0 / n, 1 - THETA)) / (1 - zeta2 / zetan);
+        }
+
+        private static double zeta(int n) {
+            double sum = 0;
+            for (int i = 1; i <= n; i++) {
+                sum += 1 / Math.pow(i, THETA);
+            }
+            return sum;
+        }
+
+        int next(Random random) {
+            double u = random.nextDouble();
+            double uz = u * zetan;
+            if (uz < 1.0) return 0;
+            if (uz < 1.0 + Math.pow(0.5, THETA)) return Math.min(1, n - 1);
+            return Math.min(n - 1, (int) (n * Math.pow(eta * u - eta + 1, alpha)));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures how put and del throughput of the thread safe tables scales with the number of writer threads. Every
+ * thread inserts and then removes its own stream of scrambled keys in one table shared by all threads, so the threads
+ * never touch the same key but do spread over the whole key space. Run it with different thread counts, e.g.
+ * {@code -t 1}, {@code -t 4} and {@code -t 16}, to compare the single lock of {@code ConcurrentSymbolTable} with the
+ * per-shard locks of {@code ShardedSymbolTable}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Threads(Threads.MAX)
+public class ShardedSymbolTableBenchmark {
+    public enum Kind { SHARDED, CONCURRENT }
+
+    @Param
+    public Kind table;
+
+    /* the number of keys each thread keeps in the table while it runs */
+    @Param({"100000"})
+    public int keysPerThread;
+
+    private Table<Long, Long> shared;
+    private final AtomicInteger threads = new AtomicInteger();
+
+    @Setup(Level.Iteration)
+    public void create() {
+        shared = Tables.shared(table.name());
+        threads.set(0);
+    }
+
+    @State(Scope.Thread)
+    public static class Writer {
+        long id;
+        long next;      /* the next key to insert */
+        long oldest;    /* the next key to remove */
+
+        @Setup(Level.Iteration)
+        public void start(ShardedSymbolTableBenchmark benchmark) {
+            id = benchmark.threads.getAndIncrement();
+            next = 0;
+            oldest = 0;
+        }
+
+        // the i-th key of this thread, the thread id in the high bits keeps the streams of the threads apart
+        long key(long i) {
+            return ((id << 40) | i) * 0x9E3779B97F4A7C15L;
+        }
+    }
+
+    @Benchmark
+    public void putThenDel(Writer w) {
+        shared.put(w.key(w.next), w.next);
+        w.next++;
+        if (w.next - w.oldest > keysPerThread) {
+            shared.del(w.key(w.oldest++));
+        }
+    }
+}
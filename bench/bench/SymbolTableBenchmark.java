@@ -0,0 +1,153 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the single key operations of every engine on a table that has already been filled with {@code size} keys
+ * from the chosen distribution. Each invocation works on the next key of a precomputed lookup sequence, so the cost of
+ * generating keys stays out of the measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SymbolTableBenchmark {
+    /* the number of precomputed lookups, a power of two so that the next one can be picked with a mask */
+    private static final int LOOKUPS = 1 << 16;
+    /* the number of keys handed to the batched operations at once */
+    static final int BATCH = 256;
+
+    @Param
+    public Engine engine;
+
+    @Param
+    public KeyDistribution distribution;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private Table<Integer, Integer> table;
+    private Integer[] hits;         /* keys of the table in lookup order */
+    private Integer[] misses;       /* keys that are not in the table, each one above the matching hit */
+    private List<List<Integer>> batches;
+    private int next;
+
+    @Setup
+    public void setup() {
+        int[] keys = distribution.insertionOrder(size, 42);
+        table = engine.create();
+        for (int k : keys) {
+            table.put(k, k);
+        }
+
+        int[] lookups = distribution.lookupOrder(keys, LOOKUPS, 7);
+        hits = new Integer[LOOKUPS];
+        misses = new Integer[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            hits[i] = lookups[i];
+            misses[i] = lookups[i] + 1;
+        }
+        batches = new ArrayList<>();
+        for (int i = 0; i < LOOKUPS; i += BATCH) {
+            batches.add(List.of(hits).subList(i, i + BATCH));
+        }
+    }
+
+    private int nextIndex() {
+        return next++ & (LOOKUPS - 1);
+    }
+
+    @Benchmark
+    public Integer getHit() {
+        return table.get(hits[nextIndex()]);
+    }
+
+    // a miss as reported by get, the cost of building the exception is part of what is measured
+    @Benchmark
+    public Object getMiss() {
+        try {
+            return table.get(misses[nextIndex()]);
+        } catch (NoSuchElementException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Integer findMiss() {
+        return table.find(misses[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean containsHit() {
+        return table.contains(hits[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean containsMiss() {
+        return table.contains(misses[nextIndex()]);
+    }
+
+    @Benchmark
+    public int rank() {
+        return table.rank(hits[nextIndex()]);
+    }
+
+    // the table holds the keys 0, 2, 4, ... so the rank of a key is half of it
+    @Benchmark
+    public Integer select() {
+        return table.select(hits[nextIndex()] / 2);
+    }
+
+    // a put and a del of a missing key, which leaves the table at its original size for the next invocation
+    @Benchmark
+    public void putThenDel() {
+        Integer k = misses[nextIndex()];
+        table.put(k, k);
+        table.del(k);
+    }
+
+    @Benchmark
+    public void iterate(Blackhole bh) {
+        for (Integer k : table) {
+            bh.consume(k);
+        }
+    }
+
+    @Benchmark
+    public Object keys() {
+        return table.keys();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void getPerKey(Blackhole bh) {
+        for (Integer k : batches.get(nextIndex() % batches.size())) {
+            bh.consume(table.get(k));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<Integer> getAllBatched() {
+        return table.getAll(batches.get(nextIndex() % batches.size()));
+    }
+}
@@ -0,0 +1,41 @@
+package bench;
+
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * The operations of a symbol table that the benchmarks call. JMH only accepts benchmarks in a named package, and a
+ * named package cannot refer to the tables in the default package, so every table is handed to the benchmarks wrapped
+ * in this interface by the {@code BenchTables} class next to this package (see {@link Tables}).
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ */
+public interface Table<K, V> extends Iterable<K>, Closeable {
+    void put(K k, V v);
+
+    V get(K k);
+
+    V find(K k);
+
+    boolean contains(K k);
+
+    void del(K k);
+
+    /* the number of keys strictly less than k */
+    int rank(K k);
+
+    /* the key of the given rank */
+    K select(int rank);
+
+    List<K> keys();
+
+    List<V> getAll(List<K> keys);
+
+    void putAll(List<K> keys, List<V> values);
+
+    int delAll(List<K> keys);
+
+    /* releases the files of a durable table, nothing to do for the others */
+    default void close() {
+    }
+}
@@ -0,0 +1,53 @@
+package bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+
+/**
+ * Creates the tables the benchmarks run against. The tables live in the default package, which cannot be imported
+ * from here, so they are created by the default package class {@code BenchTables} and reached through reflection. The
+ * lookup happens once per setup, the benchmarked calls go straight to the returned {@link Table}.
+ */
+final class Tables {
+    private static final String BRIDGE = "BenchTables";
+
+    private Tables() {
+    }
+
+    /* an empty table of the named engine, see Engine */
+    @SuppressWarnings("unchecked")
+    static Table<Integer, Integer> create(String engine) {
+        return (Table<Integer, Integer>) invoke("create", new Class<?>[] { String.class }, engine);
+    }
+
+    /* an empty table with long keys shared by several threads, see BenchTables.shared */
+    @SuppressWarnings("unchecked")
+    static Table<Long, Long> shared(String engine) {
+        return (Table<Long, Long>) invoke("shared", new Class<?>[] { String.class }, engine);
+    }
+
+    /* a durable table in directory, policy is the name of one of DurableSymbolTable.SyncPolicy */
+    @SuppressWarnings("unchecked")
+    static Table<Long, String> durable(Path directory, String policy, long checkpointInterval) {
+        return (Table<Long, String>) invoke("durable", new Class<?>[] { Path.class, String.class, long.class },
+                directory, policy, checkpointInterval);
+    }
+
+    private static Object invoke(String name, Class<?>[] types, Object... args) {
+        try {
+            Method m = Class.forName(BRIDGE).getMethod(name, types);
+            return m.invoke(null, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            if (cause instanceof IOException) throw new UncheckedIOException((IOException) cause);
+            throw new IllegalStateException(cause);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(BRIDGE + " was not compiled with the benchmarks", e);
+        }
+    }
+}
@@ -0,0 +1,633 @@
+import java.security.InvalidParameterException;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+
+/**
+ * A symbol table backed by a B+ tree. Every node holds up to {@code fanout} keys or children in arrays, so a search
+ * touches about log_fanout(n) nodes instead of the lg n nodes of a binary tree, which means far fewer cache misses per
+ * lookup on large tables. All keys and values live in the leaves, which are linked left to right so that
+ * {@link #keys()} and iteration are a sequential scan of the leaf level.
+ *
+ * Each inner node also keeps the number of keys below each of its children, which lets {@link #rank(Comparable)} and
+ * {@link #select(int)} run in O(fanout * log_fanout(n)) time without visiting the children they skip.
+ * @param <Key> The type that will be used as the key for the symbol table
+ * @param <Value> The type that will be stored by the symbol table
+ */
+public class BTreeSymbolTable<Key extends Comparable<Key>, Value> implements ISymbolTable<Key, Value>, TreeStructure {
+    private static final int DEFAULT_FANOUT = 64;
+
+    private abstract static class Node {
+        int n;              /* The number of entries (leaf) or children (inner node) in use */
+    }
+
+    private static final class LeafNode extends Node {
+        final Object[] keys;    /* The keys stored in this leaf in ascending order */
+        final Object[] vals;    /* vals[i] is the value associated with keys[i] */
+        LeafNode next;          /* The leaf holding the next larger keys, or null for the last leaf */
+
+        LeafNode(int fanout) {
+            // one extra slot so that a full leaf can hold the new entry before it is split
+            keys = new Object[fanout + 1];
+            vals = new Object[fanout + 1];
+        }
+    }
+
+    private static final class InnerNode extends Node {
+        final Object[] keys;    /* keys[i] separates children[i] (keys below it) from children[i + 1] (keys from it up) */
+        final Node[] children;  /* The subtrees of this node in key order */
+        final int[] counts;     /* counts[i] is the number of keys stored below children[i] */
+
+        InnerNode(int fanout) {
+            // one extra slot so that a full node can hold the new child before it is split
+            keys = new Object[fanout];
+            children = new Node[fanout + 1];
+            counts = new int[fanout + 1];
+        }
+    }
+
+    private final int fanout;       /* The maximum number of entries in a leaf and of children of an inner node */
+    private final int minFill;      /* The minimum number of entries or children in any node but the root */
+
+    /* the root of our tree */
+    private Node root;
+    /* the number of keys in the table */
+    private int size;
+    /* the separator to add to the parent when an insert splits a node */
+    private Key promoted;
+    /* the value an insert found already stored under its key, null if the key was new */
+    private Value found;
+
+    public BTreeSymbolTable() {
+        this(DEFAULT_FANOUT);
+    }
+
+    /**
+     * creates an empty table whose nodes hold up to fanout keys or children
+     * @param fanout The maximum number of keys in a leaf and children of an inner node
+     * @throws InvalidParameterException if fanout is less than 4
+     */
+    public BTreeSymbolTable(int fanout) throws InvalidParameterException {
+        if (fanout < 4) { throw new InvalidParameterException("fanout must be at least 4"); }
+        this.fanout = fanout;
+        this.minFill = fanout / 2;
+        this.root = new LeafNode(fanout);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(Key k, Object other) {
+        return k.compareTo((Key) other);
+    }
+
+    // the index of the first of the n keys that is not less than k
+    private int lowerBound(Object[] keys, int n, Key k) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(k, keys[mid]) > 0) lo = mid + 1;
+            else                           hi = mid;
+        }
+        return lo;
+    }
+
+    // the index of the child of x whose subtree may contain k, which is the number of separators <= k
+    private int childIndex(InnerNode x, Key k) {
+        int lo = 0, hi = x.n - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(k, x.keys[mid]) >= 0) lo = mid + 1;
+            else                              hi = mid;
+        }
+        return lo;
+    }
+
+    private int count(Node x) {
+        if (x instanceof LeafNode) {
+            return x.n;
+        }
+        InnerNode inner = (InnerNode) x;
+        int total = 0;
+        for (int i = 0; i < inner.n; i++) {
+            total += inner.counts[i];
+        }
+        return total;
+    }
+
+    public void put(Key k, Value v) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        if (v == null) { throw new InvalidParameterException("no val was passed"); }
+        if (insertIfAbsent(k, v) != null) {
+            throw new InvalidParameterException("node is a duplicate");
+        }
+    }
+
+    public Value putIfAbsent(Key k, Value v) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        if (v == null) { throw new InvalidParameterException("no val was passed"); }
+        return insertIfAbsent(k, v);
+    }
+
+    // inserts the pair unless the key is already present, returning the value already stored under the key or null if
+    // the pair was inserted
+    private Value insertIfAbsent(Key k, Value v) {
+        Node split = insert(root, k, v);
+        if (found != null) {
+            Value existing = found;
+            found = null;
+            return existing;
+        }
+        if (split != null) {
+            InnerNode newRoot = new InnerNode(fanout);
+            newRoot.children[0] = root;
+            newRoot.children[1] = split;
+            newRoot.counts[0] = count(root);
+            newRoot.counts[1] = count(split);
+            newRoot.keys[0] = promoted;
+            newRoot.n = 2;
+            root = newRoot;
+            promoted = null;
+        }
+        size++;
+        return null;
+    }
+
+    // Inserts the pair below x. If the key is a duplicate nothing is modified and its value is left in found. Returns
+    // the new right sibling of x if x had to be split, in which case the separator for it is left in promoted.
+    @SuppressWarnings("unchecked")
+    private Node insert(Node x, Key k, Value v) {
+        if (x instanceof LeafNode) {
+            LeafNode leaf = (LeafNode) x;
+            int pos = lowerBound(leaf.keys, leaf.n, k);
+            if (pos < leaf.n && compare(k, leaf.keys[pos]) == 0) {
+                found = (Value) leaf.vals[pos];
+                return null;
+            }
+            System.arraycopy(leaf.keys, pos, leaf.keys, pos + 1, leaf.n - pos);
+            System.arraycopy(leaf.vals, pos, leaf.vals, pos + 1, leaf.n - pos);
+            leaf.keys[pos] = k;
+            leaf.vals[pos] = v;
+            leaf.n++;
+            return leaf.n > fanout ? splitLeaf(leaf) : null;
+        }
+
+        InnerNode inner = (InnerNode) x;
+        int i = childIndex(inner, k);
+        Node split = insert(inner.children[i], k, v);
+        if (found != null) {
+            return null;
+        }
+        inner.counts[i]++;
+        if (split == null) {
+            return null;
+        }
+        System.arraycopy(inner.keys, i, inner.keys, i + 1, inner.n - 1 - i);
+        System.arraycopy(inner.children, i + 1, inner.children, i + 2, inner.n - 1 - i);
+        System.arraycopy(inner.counts, i + 1, inner.counts, i + 2, inner.n - 1 - i);
+        inner.keys[i] = promoted;
+        inner.children[i + 1] = split;
+        inner.counts[i] = count(inner.children[i]);
+        inner.counts[i + 1] = count(split);
+        inner.n++;
+        return inner.n > fanout ? splitInner(inner) : null;
+    }
+
+    private LeafNode splitLeaf(LeafNode leaf) {
+        LeafNode right = new LeafNode(fanout);
+        int mid = leaf.n / 2;
+        right.n = leaf.n - mid;
+        System.arraycopy(leaf.keys, mid, right.keys, 0, right.n);
+        System.arraycopy(leaf.vals, mid, right.vals, 0, right.n);
+        clear(leaf.keys, mid, leaf.n);
+        clear(leaf.vals, mid, leaf.n);
+        leaf.n = mid;
+        right.next = leaf.next;
+        leaf.next = right;
+        promoted = key(right.keys[0]);
+        return right;
+    }
+
+    private InnerNode splitInner(InnerNode inner) {
+        InnerNode right = new InnerNode(fanout);
+        int mid = inner.n / 2;      // the number of children that stay in inner
+        right.n = inner.n - mid;
+        promoted = key(inner.keys[mid - 1]);
+        System.arraycopy(inner.keys, mid, right.keys, 0, right.n - 1);
+        System.arraycopy(inner.children, mid, right.children, 0, right.n);
+        System.arraycopy(inner.counts, mid, right.counts, 0, right.n);
+        clear(inner.keys, mid - 1, inner.n - 1);
+        clear(inner.children, mid, inner.n);
+        inner.n = mid;
+        return right;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Key key(Object k) {
+        return (Key) k;
+    }
+
+    private void clear(Object[] a, int from, int to) {
+        for (int i = from; i < to; i++) {
+            a[i] = null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public Value get(Key k) throws NoSuchElementException, InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        LeafNode leaf = findLeaf(k);
+        int pos = lowerBound(leaf.keys, leaf.n, k);
+        if (pos == leaf.n || compare(k, leaf.keys[pos]) != 0) {
+            throw new NoSuchElementException("root was null so element can't exist");
+        }
+        return (Value) leaf.vals[pos];
+    }
+
+    @SuppressWarnings("unchecked")
+    public Value find(Key k) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        LeafNode leaf = findLeaf(k);
+        int pos = lowerBound(leaf.keys, leaf.n, k);
+        return pos < leaf.n && compare(k, leaf.keys[pos]) == 0 ? (Value) leaf.vals[pos] : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Value replace(Key k, Value v) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        if (v == null) { throw new InvalidParameterException("no val was passed"); }
+        LeafNode leaf = findLeaf(k);
+        int pos = lowerBound(leaf.keys, leaf.n, k);
+        if (pos == leaf.n || compare(k, leaf.keys[pos]) != 0) {
+            return null;
+        }
+        Value old = (Value) leaf.vals[pos];
+        leaf.vals[pos] = v;
+        return old;
+    }
+
+    private LeafNode findLeaf(Key k) {
+        Node x = root;
+        while (x instanceof InnerNode) {
+            InnerNode inner = (InnerNode) x;
+            x = inner.children[childIndex(inner, k)];
+        }
+        return (LeafNode) x;
+    }
+
+    public void del(Key k) throws NoSuchElementException, InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        if (!remove(root, k)) {
+            throw new NoSuchElementException("currentRoot is null");
+        }
+        size--;
+        if (root instanceof InnerNode && root.n == 1) {
+            root = ((InnerNode) root).children[0];
+        }
+    }
+
+    // Removes k from below x, refilling any child left with fewer than minFill entries. Returns false, without
+    // modifying anything, if k is not in the tree.
+    private boolean remove(Node x, Key k) {
+        if (x instanceof LeafNode) {
+            LeafNode leaf = (LeafNode) x;
+            int pos = lowerBound(leaf.keys, leaf.n, k);
+            if (pos == leaf.n || compare(k, leaf.keys[pos]) != 0) {
+                return false;
+            }
+            System.arraycopy(leaf.keys, pos + 1, leaf.keys, pos, leaf.n - pos - 1);
+            System.arraycopy(leaf.vals, pos + 1, leaf.vals, pos, leaf.n - pos - 1);
+            leaf.n--;
+            leaf.keys[leaf.n] = null;
+            leaf.vals[leaf.n] = null;
+            return true;
+        }
+
+        InnerNode inner = (InnerNode) x;
+        int i = childIndex(inner, k);
+        if (!remove(inner.children[i], k)) {
+            return false;
+        }
+        inner.counts[i]--;
+        if (inner.children[i].n < minFill) {
+            refill(inner, i);
+        }
+        return true;
+    }
+
+    // child i of parent is one entry short, borrow one from a sibling that can spare it or else merge with a sibling
+    private void refill(InnerNode parent, int i) {
+        if (i > 0 && parent.children[i - 1].n > minFill) {
+            borrowFromLeft(parent, i);
+        } else if (i < parent.n - 1 && parent.children[i + 1].n > minFill) {
+            borrowFromRight(parent, i);
+        } else if (i > 0) {
+            merge(parent, i - 1);
+        } else {
+            merge(parent, i);
+        }
+    }
+
+    private void borrowFromLeft(InnerNode parent, int i) {
+        Node child = parent.children[i];
+        if (child instanceof LeafNode) {
+            LeafNode leaf = (LeafNode) child;
+            LeafNode left = (LeafNode) parent.children[i - 1];
+            System.arraycopy(leaf.keys, 0, leaf.keys, 1, leaf.n);
+            System.arraycopy(leaf.vals, 0, leaf.vals, 1, leaf.n);
+            left.n--;
+            leaf.keys[0] = left.keys[left.n];
+            leaf.vals[0] = left.vals[left.n];
+            left.keys[left.n] = null;
+            left.vals[left.n] = null;
+            leaf.n++;
+            parent.keys[i - 1] = leaf.keys[0];
+            parent.counts[i - 1]--;
+            parent.counts[i]++;
+        } else {
+            InnerNode inner = (InnerNode) child;
+            InnerNode left = (InnerNode) parent.children[i - 1];
+            int moved = left.counts[left.n - 1];
+            System.arraycopy(inner.keys, 0, inner.keys, 1, inner.n - 1);
+            System.arraycopy(inner.children, 0, inner.children, 1, inner.n);
+            System.arraycopy(inner.counts, 0, inner.counts, 1, inner.n);
+            inner.keys[0] = parent.keys[i - 1];
+            inner.children[0] = left.children[left.n - 1];
+            inner.counts[0] = moved;
+            inner.n++;
+            parent.keys[i - 1] = left.keys[left.n - 2];
+            left.keys[left.n - 2] = null;
+            left.children[left.n - 1] = null;
+            left.n--;
+            parent.counts[i - 1] -= moved;
+            parent.counts[i] += moved;
+        }
+    }
+
+    private void borrowFromRight(InnerNode parent, int i) {
+        Node child = parent.children[i];
+        if (child instanceof LeafNode) {
+            LeafNode leaf = (LeafNode) child;
+            LeafNode right = (LeafNode) parent.children[i + 1];
+            leaf.keys[leaf.n] = right.keys[0];
+            leaf.vals[leaf.n] = right.vals[0];
+            leaf.n++;
+            right.n--;
+            System.arraycopy(right.keys, 1, right.keys, 0, right.n);
+            System.arraycopy(right.vals, 1, right.vals, 0, right.n);
+            right.keys[right.n] = null;
+            right.vals[right.n] = null;
+            parent.keys[i] = right.keys[0];
+            parent.counts[i]++;
+            parent.counts[i + 1]--;
+        } else {
+            InnerNode inner = (InnerNode) child;
+            InnerNode right = (InnerNode) parent.children[i + 1];
+            int moved = right.counts[0];
+            inner.keys[inner.n - 1] = parent.keys[i];
+            inner.children[inner.n] = right.children[0];
+            inner.counts[inner.n] = moved;
+            inner.n++;
+            parent.keys[i] = right.keys[0];
+            right.n--;
+            System.arraycopy(right.keys, 1, right.keys, 0, right.n - 1);
+            System.arraycopy(right.children, 1, right.children, 0, right.n);
+            System.arraycopy(right.counts, 1, right.counts, 0, right.n);
+            right.keys[right.n - 1] = null;
+            right.children[right.n] = null;
+            parent.counts[i] += moved;
+            parent.counts[i + 1] -= moved;
+        }
+    }
+
+    // moves everything in child i + 1 of parent into child i and removes child i + 1
+    private void merge(InnerNode parent, int i) {
+        Node left = parent.children[i];
+        Node right = parent.children[i + 1];
+        if (left instanceof LeafNode) {
+            LeafNode l = (LeafNode) left;
+            LeafNode r = (LeafNode) right;
+            System.arraycopy(r.keys, 0, l.keys, l.n, r.n);
+            System.arraycopy(r.vals, 0, l.vals, l.n, r.n);
+            l.n += r.n;
+            l.next = r.next;
+        } else {
+            InnerNode l = (InnerNode) left;
+            InnerNode r = (InnerNode) right;
+            l.keys[l.n - 1] = parent.keys[i];
+            System.arraycopy(r.keys, 0, l.keys, l.n, r.n - 1);
+            System.arraycopy(r.children, 0, l.children, l.n, r.n);
+            System.arraycopy(r.counts, 0, l.counts, l.n, r.n);
+            l.n += r.n;
+        }
+        parent.counts[i] += parent.counts[i + 1];
+        System.arraycopy(parent.keys, i + 1, parent.keys, i, parent.n - 2 - i);
+        System.arraycopy(parent.children, i + 2, parent.children, i + 1, parent.n - 2 - i);
+        System.arraycopy(parent.counts, i + 2, parent.counts, i + 1, parent.n - 2 - i);
+        parent.n--;
+        parent.keys[parent.n - 1] = null;
+        parent.children[parent.n] = null;
+    }
+
+    public boolean contains(Key k) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("key is null"); }
+        LeafNode leaf = findLeaf(k);
+        int pos = lowerBound(leaf.keys, leaf.n, k);
+        return pos < leaf.n && compare(k, leaf.keys[pos]) == 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return the number of keys in the symbol table strictly less than {@code key}.
+     * @param key the key
+     * @return the number of keys in the symbol table strictly less than {@code key}
+     * @throws InvalidParameterException if {@code key} is {@code null}
+     */
+    public int rank(Key key) throws InvalidParameterException {
+        if (key == null) { throw new InvalidParameterException("argument to rank() is null"); }
+        int r = 0;
+        Node x = root;
+        while (x instanceof InnerNode) {
+            InnerNode inner = (InnerNode) x;
+            int i = childIndex(inner, key);
+            for (int j = 0; j < i; j++) {
+                r += inner.counts[j];
+            }
+            x = inner.children[i];
+        }
+        LeafNode leaf = (LeafNode) x;
+        return r + lowerBound(leaf.keys, leaf.n, key);
+    }
+
+    /**
+     * Return the key in the symbol table of a given {@code rank}.
+     * @param rank the order statistic
+     * @return the key in the symbol table of given {@code rank}
+     * @throws IllegalArgumentException unless {@code rank} is between 0 and size() - 1
+     */
+    public Key select(int rank) {
+        if (rank < 0 || rank >= size) {
+            throw new IllegalArgumentException("argument to select() is invalid: " + rank);
+        }
+        Node x = root;
+        while (x instanceof InnerNode) {
+            InnerNode inner = (InnerNode) x;
+            int i = 0;
+            while (rank >= inner.counts[i]) {
+                rank -= inner.counts[i];
+                i++;
+            }
+            x = inner.children[i];
+        }
+        return key(((LeafNode) x).keys[rank]);
+    }
+
+    public LinkedList<Key> keys() {
+        LinkedList<Key> myList = new LinkedList<>();
+        for (Key k : this) {
+            myList.add(k);
+        }
+        return myList;
+    }
+
+    /**
+     * returns an iterator over the keys of the table in ascending order by walking the linked leaves. The table must
+     * not be modified while iterating
+     * @return An iterator that visits every key in the table in ascending order
+     */
+    public Iterator<Key> iterator() {
+        Node x = root;
+        while (x instanceof InnerNode) {
+            x = ((InnerNode) x).children[0];
+        }
+        LeafNode first = (LeafNode) x;
+        return new Iterator<Key>() {
+            private LeafNode leaf = first;
+            private int pos = 0;
+
+            public boolean hasNext() {
+                while (leaf != null && pos == leaf.n) {
+                    leaf = leaf.next;
+                    pos = 0;
+                }
+                return leaf != null;
+            }
+
+            public Key next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("no more keys in the table");
+                }
+                return key(leaf.keys[pos++]);
+            }
+        };
+    }
+
+    /*******************************************************************************************************************
+     * Structure metrics
+     ******************************************************************************************************************/
+
+    /**
+     * returns the height of the tree, the number of links from the root to the leaves
+     * @return the height of the tree, 0 if every key is in the root and -1 if the table is empty
+     * @requirements This method should execute in O(log n) time
+     */
+    public int height() {
+        if (size == 0) {
+            return -1;
+        }
+        int h = 0;
+        for (Node x = root; x instanceof InnerNode; x = ((InnerNode) x).children[0]) {
+            h++;
+        }
+        return h;
+    }
+
+    /**
+     * returns the average number of links from the root to the node holding a key. All keys are in the leaves, which
+     * are all at the same depth, so this is the height
+     * @return the average depth of the keys, 0 if the table is empty
+     * @requirements This method should execute in O(log n) time
+     */
+    public double averageDepth() {
+        return Math.max(height(), 0);
+    }
+
+    /*******************************************************************************************************************
+     * Tree integrity checking
+     ******************************************************************************************************************/
+
+    /**
+     * checks the structure of the tree: every node but the root is at least half full, keys are in order and
+     * separated correctly, all leaves are at the same depth, the per-child counts are correct, the leaf chain visits
+     * every key in order and rank and select agree
+     * @return true if the tree is correctly structured, otherwise false
+     */
+    public boolean check() {
+        if (!isBTree())          StdOut.println("Not a valid B+ tree");
+        if (!isLeafChainValid()) StdOut.println("Leaf chain not consistent");
+        if (!isRankConsistent()) StdOut.println("Ranks not consistent");
+        return isBTree() && isLeafChainValid() && isRankConsistent();
+    }
+
+    /* the depth of the first leaf reached by isBTree, every other leaf must be at the same depth */
+    private int leafDepth;
+
+    private boolean isBTree() {
+        leafDepth = -1;
+        return checkNode(root, null, null, 0) == size;
+    }
+
+    // returns the number of keys below x, or -1 if the subtree is not valid. All keys must be >= lo and < hi.
+    private int checkNode(Node x, Key lo, Key hi, int depth) {
+        if (x != root && (x.n < minFill || x.n > fanout)) return -1;
+        if (x instanceof LeafNode) {
+            LeafNode leaf = (LeafNode) x;
+            if (leafDepth == -1) leafDepth = depth;
+            if (leafDepth != depth) return -1;
+            for (int i = 0; i < leaf.n; i++) {
+                Key k = key(leaf.keys[i]);
+                if (leaf.vals[i] == null) return -1;
+                if (i > 0 && compare(k, leaf.keys[i - 1]) <= 0) return -1;
+                if (lo != null && compare(k, lo) < 0) return -1;
+                if (hi != null && compare(k, hi) >= 0) return -1;
+            }
+            return leaf.n;
+        }
+        InnerNode inner = (InnerNode) x;
+        if (inner.n < 2) return -1;
+        int total = 0;
+        for (int i = 0; i < inner.n; i++) {
+            Key childLo = i == 0 ? lo : key(inner.keys[i - 1]);
+            Key childHi = i == inner.n - 1 ? hi : key(inner.keys[i]);
+            if (childLo != null && childHi != null && compare(childLo, childHi) >= 0) return -1;
+            int count = checkNode(inner.children[i], childLo, childHi, depth + 1);
+            if (count < 0 || count != inner.counts[i]) return -1;
+            total += count;
+        }
+        return total;
+    }
+
+    private boolean isLeafChainValid() {
+        int seen = 0;
+        Key previous = null;
+        for (Key k : this) {
+            if (previous != null && previous.compareTo(k) >= 0) return false;
+            previous = k;
+            seen++;
+        }
+        return seen == size;
+    }
+
+    private boolean isRankConsistent() {
+        for (int i = 0; i < size(); i++)
+            if (i != rank(select(i))) return false;
+        for (Key key : keys())
+            if (key.compareTo(select(rank(key))) != 0) return false;
+        return true;
+    }
+}
@@ -0,0 +1,217 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts keys or values to and from the bytes stored in a snapshot file (see {@link SymbolTableSnapshot}). Codecs
+ * for strings, integers and longs are provided, other types can be stored by implementing this interface.
+ * @param <T> The type that is encoded
+ */
+public interface BinaryCodec<T> {
+
+    /**
+     * returns the number of bytes write will use for a value
+     * @param value The value to measure
+     * @return the encoded length of value in bytes
+     */
+    int size(T value);
+
+    /**
+     * encodes a value at the current position of a buffer, advancing the position by size(value) bytes
+     * @param value The value to encode
+     * @param out The buffer to write to, it has at least size(value) bytes remaining
+     */
+    void write(T value, ByteBuffer out);
+
+    /**
+     * decodes a value written by write from the current position of a buffer, advancing the position past it
+     * @param in The buffer to read from
+     * @return the decoded value
+     */
+    T read(ByteBuffer in);
+
+    /**
+     * decodes the value written at an absolute position of a buffer without moving the buffer's position, so several
+     * threads may read the same buffer
+     * @param in The buffer to read from
+     * @param position The index of the first byte of the value
+     * @return the decoded value
+     */
+    default T read(ByteBuffer in, int position) {
+        ByteBuffer view = in.duplicate();
+        view.position(position);
+        return read(view);
+    }
+
+    /**
+     * returns the number of bytes taken by the value written at an absolute position of a buffer
+     * @param in The buffer holding the value
+     * @param position The index of the first byte of the value
+     * @return the encoded length of the value in bytes
+     */
+    default int length(ByteBuffer in, int position) {
+        ByteBuffer view = in.duplicate();
+        view.position(position);
+        read(view);
+        return view.position() - position;
+    }
+
+    /**
+     * compares the value written at an absolute position of a buffer with a value, in the order of the type's
+     * compareTo. The implementations provided here compare the bytes in place without decoding or allocating anything
+     * @param in The buffer holding the encoded value
+     * @param position The index of the first byte of the encoded value
+     * @param value The value to compare with
+     * @return a negative number, zero or a positive number as the encoded value is less than, equal to or greater than
+     * value
+     */
+    @SuppressWarnings("unchecked")
+    default int compare(ByteBuffer in, int position, T value) {
+        return ((Comparable<T>) read(in, position)).compareTo(value);
+    }
+
+    /* a string as its length in bytes followed by its UTF-8 encoding */
+    BinaryCodec<String> STRING = new BinaryCodec<String>() {
+        public int size(String value) {
+            return Integer.BYTES + utf8Length(value);
+        }
+
+        public void write(String value, ByteBuffer out) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.putInt(bytes.length);
+            out.put(bytes);
+        }
+
+        public String read(ByteBuffer in) {
+            byte[] bytes = new byte[in.getInt()];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        public String read(ByteBuffer in, int position) {
+            byte[] bytes = new byte[in.getInt(position)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = in.get(position + Integer.BYTES + i);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        public int length(ByteBuffer in, int position) {
+            return Integer.BYTES + in.getInt(position);
+        }
+
+        // Decodes the UTF-8 bytes back into UTF-16 chars one at a time and compares them with the chars of value, which
+        // gives the same order as String.compareTo (comparing the raw bytes would order supplementary characters
+        // differently)
+        public int compare(ByteBuffer in, int position, String value) {
+            int end = position + Integer.BYTES + in.getInt(position);
+            int p = position + Integer.BYTES;
+            int j = 0;
+            while (p < end && j < value.length()) {
+                int b = in.get(p) & 0xFF;
+                int codePoint;
+                if (b < 0x80) {
+                    codePoint = b;
+                    p += 1;
+                } else if (b < 0xE0) {
+                    codePoint = (b & 0x1F) << 6 | (in.get(p + 1) & 0x3F);
+                    p += 2;
+                } else if (b < 0xF0) {
+                    codePoint = (b & 0x0F) << 12 | (in.get(p + 1) & 0x3F) << 6 | (in.get(p + 2) & 0x3F);
+                    p += 3;
+                } else {
+                    codePoint = (b & 0x07) << 18 | (in.get(p + 1) & 0x3F) << 12 | (in.get(p + 2) & 0x3F) << 6
+                            | (in.get(p + 3) & 0x3F);
+                    p += 4;
+                }
+                if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                    int diff = codePoint - value.charAt(j++);
+                    if (diff != 0) return diff;
+                } else {
+                    int diff = Character.highSurrogate(codePoint) - value.charAt(j++);
+                    if (diff != 0) return diff;
+                    if (j == value.length()) return 1;
+                    diff = Character.lowSurrogate(codePoint) - value.charAt(j++);
+                    if (diff != 0) return diff;
+                }
+            }
+            if (p < end) return 1;
+            return j < value.length() ? -1 : 0;
+        }
+
+        // the length of the UTF-8 encoding of s, counted without encoding it
+        private int utf8Length(String s) {
+            int length = 0;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    length += 1;
+                } else if (c < 0x800) {
+                    length += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                        && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    length += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    length += 1;    // an unpaired surrogate is encoded as '?'
+                } else {
+                    length += 3;
+                }
+            }
+            return length;
+        }
+    };
+
+    /* an int as 4 big-endian bytes */
+    BinaryCodec<Integer> INTEGER = new BinaryCodec<Integer>() {
+        public int size(Integer value) {
+            return Integer.BYTES;
+        }
+
+        public void write(Integer value, ByteBuffer out) {
+            out.putInt(value);
+        }
+
+        public Integer read(ByteBuffer in) {
+            return in.getInt();
+        }
+
+        public Integer read(ByteBuffer in, int position) {
+            return in.getInt(position);
+        }
+
+        public int length(ByteBuffer in, int position) {
+            return Integer.BYTES;
+        }
+
+        public int compare(ByteBuffer in, int position, Integer value) {
+            return Integer.compare(in.getInt(position), value);
+        }
+    };
+
+    /* a long as 8 big-endian bytes */
+    BinaryCodec<Long> LONG = new BinaryCodec<Long>() {
+        public int size(Long value) {
+            return Long.BYTES;
+        }
+
+        public void write(Long value, ByteBuffer out) {
+            out.putLong(value);
+        }
+
+        public Long read(ByteBuffer in) {
+            return in.getLong();
+        }
+
+        public Long read(ByteBuffer in, int position) {
+            return in.getLong(position);
+        }
+
+        public int length(ByteBuffer in, int position) {
+            return Long.BYTES;
+        }
+
+        public int compare(ByteBuffer in, int position, Long value) {
+            return Long.compare(in.getLong(position), value);
+        }
+    };
+}
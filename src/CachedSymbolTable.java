@@ -0,0 +1,401 @@
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A symbol table that keeps the values of recently used keys in a small hash based cache in front of another table,
+ * so that repeated get, find and contains calls for the same keys are answered without searching the tree. A lookup
+ * that misses the cache reads through to the table and, if the key exists, adds it to the cache. Every call that may
+ * change the value of a key (put, del, replace, ...) removes that key from the cache, so a lookup never returns a
+ * value the table no longer holds. All updates must therefore go through this table rather than the one it wraps.
+ *
+ * Two eviction policies are available. {@link Policy#LRU} evicts the key that was used least recently.
+ * {@link Policy#W_TINY_LFU} admits new keys into a small LRU window (1% of the capacity) and, when a key leaves the
+ * window, only lets it into the main cache if a {@link FrequencySketch} estimates that it has been used more often
+ * than the key it would evict. The main cache is a segmented LRU where keys used again move from a probation segment
+ * into a protected one (80% of the main cache). This keeps a burst of keys that are used once from flushing out the
+ * keys that are used all the time.
+ *
+ * The hit and miss counters can be used to size the cache. Like {@link SymbolTable}, this table may only be used by
+ * one thread at a time, lookups change the cache too.
+ * @param <Key> The type that will be used as the key for the symbol table
+ * @param <Value> The type that will be stored by the symbol table
+ */
+public class CachedSymbolTable<Key, Value> implements ISymbolTable<Key, Value> {
+    /**
+     * The ways the cache can choose which key to evict
+     */
+    public enum Policy { LRU, W_TINY_LFU }
+
+    private enum Segment { WINDOW, PROBATION, PROTECTED }
+
+    private final class Entry {
+        final Key key;
+        Value value;
+        Segment segment;
+        Entry prev, next;
+
+        Entry(Key key, Value value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    // A doubly linked list of entries, least recently used first
+    private final class Queue {
+        private final Entry head = new Entry(null, null);   /* sentinel, head.next is the first entry */
+        int size;
+
+        Queue() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        Entry first() {
+            return head.next == head ? null : head.next;
+        }
+
+        void addLast(Entry e) {
+            e.prev = head.prev;
+            e.next = head;
+            head.prev.next = e;
+            head.prev = e;
+            size++;
+        }
+
+        void remove(Entry e) {
+            e.prev.next = e.next;
+            e.next.prev = e.prev;
+            e.prev = null;
+            e.next = null;
+            size--;
+        }
+
+        void moveToLast(Entry e) {
+            remove(e);
+            addLast(e);
+        }
+    }
+
+    private final ISymbolTable<Key, Value> table;   /* the table every miss and update is forwarded to */
+    private final Policy policy;
+    private final int capacity;
+    private final int windowCapacity;               /* LRU keeps every entry in the window */
+    private final int protectedCapacity;
+    private final FrequencySketch sketch;           /* null for LRU */
+
+    private final HashMap<Key, Entry> cache;
+    private final Queue window = new Queue();
+    private final Queue probation = new Queue();
+    private final Queue protectedQueue = new Queue();
+
+    private long hits, misses, evictions;
+
+    /**
+     * creates a cache in front of a table
+     * @param table The table whose lookups should be cached
+     * @param capacity The largest number of keys the cache may hold
+     * @param policy How the cache chooses which key to evict when it is full
+     * @throws InvalidParameterException if table or policy is null or capacity is not positive
+     */
+    public CachedSymbolTable(ISymbolTable<Key, Value> table, int capacity, Policy policy)
+            throws InvalidParameterException {
+        if (table == null) { throw new InvalidParameterException("no table was passed"); }
+        if (policy == null) { throw new InvalidParameterException("no policy was passed"); }
+        if (capacity <= 0) { throw new InvalidParameterException("capacity must be positive"); }
+        this.table = table;
+        this.policy = policy;
+        this.capacity = capacity;
+        if (policy == Policy.LRU) {
+            windowCapacity = capacity;
+            sketch = null;
+        } else {
+            windowCapacity = Math.max(1, capacity / 100);
+            sketch = new FrequencySketch(capacity);
+        }
+        protectedCapacity = (int) ((capacity - windowCapacity) * 4L / 5);
+        cache = new HashMap<>();
+    }
+
+    public void put(Key k, Value v) throws InvalidParameterException {
+        try {
+            table.put(k, v);
+        } finally {
+            invalidate(k);
+        }
+    }
+
+    public Value get(Key k) throws NoSuchElementException, InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        Value v = cached(k);
+        if (v == null) {
+            v = table.get(k);
+            admit(k, v);
+        }
+        return v;
+    }
+
+    public Value find(Key k) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        Value v = cached(k);
+        if (v == null) {
+            v = table.find(k);
+            if (v != null) {
+                admit(k, v);
+            }
+        }
+        return v;
+    }
+
+    public void del(Key k) throws NoSuchElementException, InvalidParameterException {
+        try {
+            table.del(k);
+        } finally {
+            invalidate(k);
+        }
+    }
+
+    public boolean contains(Key k) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("key is null"); }
+        return find(k) != null;
+    }
+
+    public Value putIfAbsent(Key k, Value v) throws InvalidParameterException {
+        try {
+            return table.putIfAbsent(k, v);
+        } finally {
+            invalidate(k);
+        }
+    }
+
+    public Value computeIfAbsent(Key k, Function<? super Key, ? extends Value> mappingFunction)
+            throws InvalidParameterException {
+        try {
+            return table.computeIfAbsent(k, mappingFunction);
+        } finally {
+            invalidate(k);
+        }
+    }
+
+    public Value replace(Key k, Value v) throws InvalidParameterException {
+        try {
+            return table.replace(k, v);
+        } finally {
+            invalidate(k);
+        }
+    }
+
+    public List<Value> getAll(List<Key> keys) throws InvalidParameterException {
+        if (keys == null) { throw new InvalidParameterException("no keys were passed"); }
+        List<Value> values = new ArrayList<>(keys.size());
+        for (Key k : keys) {
+            values.add(find(k));
+        }
+        return values;
+    }
+
+    public void putAll(List<Key> keys, List<Value> values) throws InvalidParameterException {
+        try {
+            table.putAll(keys, values);
+        } finally {
+            invalidateAll(keys);
+        }
+    }
+
+    public int delAll(List<Key> keys) throws InvalidParameterException {
+        try {
+            return table.delAll(keys);
+        } finally {
+            invalidateAll(keys);
+        }
+    }
+
+    public boolean isEmpty() {
+        return table.isEmpty();
+    }
+
+    public int size() {
+        return table.size();
+    }
+
+    public LinkedList<Key> keys() {
+        return table.keys();
+    }
+
+    public Iterator<Key> iterator() {
+        return table.iterator();
+    }
+
+    public Iterable<Map.Entry<Key, Value>> entries() {
+        return table.entries();
+    }
+
+    public void forEach(BiConsumer<? super Key, ? super Value> action) throws InvalidParameterException {
+        table.forEach(action);
+    }
+
+    /*******************************************************************************************************************
+     * The cache
+     ******************************************************************************************************************/
+
+    // returns the cached value of k, or null on a miss
+    private Value cached(Key k) {
+        if (sketch != null) {
+            sketch.increment(k);
+        }
+        Entry e = cache.get(k);
+        if (e == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        switch (e.segment) {
+            case WINDOW:
+                window.moveToLast(e);
+                break;
+            case PROBATION:
+                // used again while on probation, it has earned a place in the protected segment
+                probation.remove(e);
+                e.segment = Segment.PROTECTED;
+                protectedQueue.addLast(e);
+                if (protectedQueue.size > protectedCapacity) {
+                    Entry demoted = protectedQueue.first();
+                    protectedQueue.remove(demoted);
+                    demoted.segment = Segment.PROBATION;
+                    probation.addLast(demoted);
+                }
+                break;
+            case PROTECTED:
+                protectedQueue.moveToLast(e);
+                break;
+        }
+        return e.value;
+    }
+
+    // adds a key that just missed to the window, the key that falls out of the window then competes with the next
+    // victim of the main cache for a place in it
+    private void admit(Key k, Value v) {
+        Entry e = new Entry(k, v);
+        e.segment = Segment.WINDOW;
+        cache.put(k, e);
+        window.addLast(e);
+        if (window.size <= windowCapacity) {
+            return;
+        }
+        Entry candidate = window.first();
+        window.remove(candidate);
+        if (probation.size + protectedQueue.size < capacity - windowCapacity) {
+            candidate.segment = Segment.PROBATION;
+            probation.addLast(candidate);
+            return;
+        }
+        Entry victim = probation.first() != null ? probation.first() : protectedQueue.first();
+        if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+            evict(victim);
+            candidate.segment = Segment.PROBATION;
+            probation.addLast(candidate);
+        } else {
+            cache.remove(candidate.key);
+            evictions++;
+        }
+    }
+
+    private Queue queue(Segment segment) {
+        switch (segment) {
+            case WINDOW:    return window;
+            case PROBATION: return probation;
+            default:        return protectedQueue;
+        }
+    }
+
+    private void evict(Entry e) {
+        queue(e.segment).remove(e);
+        cache.remove(e.key);
+        evictions++;
+    }
+
+    private void invalidate(Key k) {
+        if (k == null) return;
+        Entry e = cache.remove(k);
+        if (e != null) {
+            queue(e.segment).remove(e);
+        }
+    }
+
+    private void invalidateAll(List<Key> keys) {
+        if (keys == null) return;
+        for (Key k : keys) {
+            invalidate(k);
+        }
+    }
+
+    /*******************************************************************************************************************
+     * Metrics
+     ******************************************************************************************************************/
+
+    public Policy policy() {
+        return policy;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * returns the number of keys currently held by the cache
+     * @return the number of cached keys, at most {@link #capacity()}
+     */
+    public int cachedCount() {
+        return cache.size();
+    }
+
+    /**
+     * returns the number of lookups answered from the cache
+     * @return the number of get, find and contains calls that hit the cache
+     */
+    public long hits() {
+        return hits;
+    }
+
+    /**
+     * returns the number of lookups that had to search the table, whether or not the key was found there
+     * @return the number of get, find and contains calls that missed the cache
+     */
+    public long misses() {
+        return misses;
+    }
+
+    /**
+     * returns the number of keys removed from the cache to make room for others. Keys removed because they were
+     * updated are not counted
+     * @return the number of evictions
+     */
+    public long evictions() {
+        return evictions;
+    }
+
+    /**
+     * returns the fraction of lookups answered from the cache
+     * @return hits / (hits + misses), NaN if there has not been a lookup yet
+     */
+    public double hitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? Double.NaN : (double) hits / lookups;
+    }
+
+    /**
+     * resets the hit, miss and eviction counters, the cached keys are kept
+     */
+    public void resetStats() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+}
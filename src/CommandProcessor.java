@@ -0,0 +1,309 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidParameterException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+/**
+ * Runs the command language of {@link Main} (put, get, del, contains, size, keys, print and check) over a stream and
+ * produces exactly the same output, byte for byte, but at a much higher rate. Input is split into tokens straight
+ * from a byte buffer, commands are recognized without building a String for them and integers are parsed from the
+ * bytes, so the only objects made per command are the key and the output line. Lookups that miss and updates that
+ * fail are detected with find and putIfAbsent instead of by catching an exception, and their messages are written
+ * exactly as Main prints the exception. All output goes through a single buffered writer.
+ *
+ * Like Main, input that Main would die on (a missing argument at the end of the input, or a value that is not an
+ * int) ends the run with the same exception after everything before it has been written.
+ */
+public class CommandProcessor {
+    /* what Main prints when each command fails, taken from the exceptions SymbolTable actually throws */
+    private static final String DUPLICATE = failure(st -> { st.put("", 0); st.put("", 0); });
+    private static final String GET_MISSING = failure(st -> st.get(""));
+    private static final String DEL_MISSING = failure(st -> st.del(""));
+
+    private static final byte[] PUT = bytes("put");
+    private static final byte[] GET = bytes("get");
+    private static final byte[] DEL = bytes("del");
+    private static final byte[] CONTAINS = bytes("contains");
+    private static final byte[] SIZE = bytes("size");
+    private static final byte[] KEYS = bytes("keys");
+    private static final byte[] PRINT = bytes("print");
+    private static final byte[] CHECK = bytes("check");
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final SymbolTable<String, Integer> st;
+
+    public CommandProcessor() {
+        this(new SymbolTable<>());
+    }
+
+    /**
+     * @param st The table the commands operate on
+     * @throws InvalidParameterException if st is null
+     */
+    public CommandProcessor(SymbolTable<String, Integer> st) throws InvalidParameterException {
+        if (st == null) { throw new InvalidParameterException("no table was passed"); }
+        this.st = st;
+    }
+
+    public static void main(String[] args) throws IOException {
+        new CommandProcessor().run(System.in, System.out);
+    }
+
+    private interface Failing {
+        void run(SymbolTable<String, Integer> st);
+    }
+
+    private static String failure(Failing command) {
+        try {
+            command.run(new SymbolTable<>());
+        } catch (RuntimeException e) {
+            return e.toString();
+        }
+        throw new IllegalStateException("command did not fail");
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * reads and executes commands until the input is exhausted, writing their output as UTF-8. The output stream is
+     * flushed but not closed. The diagnostics printed by check() itself go through StdOut as they do for Main, the
+     * output is flushed before check runs so that they appear in the same place
+     * @param in The commands to run
+     * @param out Where the output of the commands is written
+     * @throws IOException if the input can not be read or the output can not be written
+     * @throws NoSuchElementException if the input ends in the middle of a command
+     * @throws InputMismatchException if the value of a put is not an int
+     */
+    public void run(InputStream in, OutputStream out) throws IOException {
+        Tokenizer tokens = new Tokenizer(in);
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_BYTES);
+        String newline = System.lineSeparator();
+        try {
+            while (tokens.next()) {
+                if (tokens.is(PUT)) {
+                    String key = tokens.nextString();
+                    int val = tokens.nextInt();
+                    if (st.putIfAbsent(key, val) != null) {
+                        w.write(DUPLICATE);
+                        w.write(newline);
+                    }
+                } else if (tokens.is(GET)) {
+                    String key = tokens.nextString();
+                    Integer val = st.find(key);
+                    if (val == null) {
+                        w.write(GET_MISSING);
+                    } else {
+                        w.write(key);
+                        w.write(" = ");
+                        w.write(Integer.toString(val));
+                    }
+                    w.write(newline);
+                } else if (tokens.is(DEL)) {
+                    String key = tokens.nextString();
+                    if (st.contains(key)) {
+                        st.del(key);
+                    } else {
+                        w.write(DEL_MISSING);
+                        w.write(newline);
+                    }
+                } else if (tokens.is(CONTAINS)) {
+                    w.write(Boolean.toString(st.contains(tokens.nextString())));
+                    w.write(newline);
+                } else if (tokens.is(SIZE)) {
+                    w.write(Integer.toString(st.size()));
+                    w.write(newline);
+                } else if (tokens.is(KEYS)) {
+                    for (String k : st) {
+                        w.write(k);
+                        w.write(newline);
+                    }
+                } else if (tokens.is(PRINT)) {
+                    for (Map.Entry<String, Integer> e : st.entries()) {
+                        w.write(e.getKey());
+                        w.write(" = ");
+                        w.write(Integer.toString(e.getValue()));
+                        w.write(newline);
+                    }
+                } else if (tokens.is(CHECK)) {
+                    w.flush();
+                    w.write(Boolean.toString(st.check()));
+                    w.write(newline);
+                } else {
+                    w.write("unknown command: ");
+                    w.write(tokens.string());
+                    w.write(newline);
+                }
+            }
+        } finally {
+            w.flush();
+        }
+    }
+
+    // Splits the input into the tokens StdIn would return, separating them on whitespace as Scanner does. Tokens are
+    // kept as UTF-8 bytes and only decoded when a String is needed. Whitespace outside ASCII can only be recognized
+    // once the bytes are decoded, so a token holding any non-ASCII byte is decoded and, if it turns out to contain
+    // whitespace, split up with the pieces queued as the following tokens.
+    private static final class Tokenizer {
+        private final InputStream in;
+        private final byte[] buffer = new byte[BUFFER_BYTES];
+        private int position, limit;
+        private byte[] token = new byte[64];
+        private int length;
+        private boolean nonAscii;               /* does the current token hold a byte outside ASCII? */
+        private final ArrayDeque<byte[]> pending = new ArrayDeque<>();
+
+        Tokenizer(InputStream in) {
+            this.in = in;
+        }
+
+        private static boolean isAsciiWhitespace(int b) {
+            return b == ' ' || (b >= '\t' && b <= '\r') || (b >= 0x1C && b <= 0x1F);
+        }
+
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        // moves to the next token, returns false if the input is exhausted
+        boolean next() throws IOException {
+            while (readToken()) {
+                if (length > 0) return true;   // a token that was only Unicode whitespace is no token at all
+            }
+            return false;
+        }
+
+        private boolean readToken() throws IOException {
+            if (!pending.isEmpty()) {
+                setToken(pending.poll());
+                return true;
+            }
+            int b = read();
+            while (b >= 0 && isAsciiWhitespace(b)) {
+                b = read();
+            }
+            if (b < 0) {
+                return false;
+            }
+            length = 0;
+            nonAscii = false;
+            while (b >= 0 && !isAsciiWhitespace(b)) {
+                nonAscii |= b >= 0x80;
+                append((byte) b);
+                b = read();
+            }
+            if (nonAscii) {
+                splitOnUnicodeWhitespace();
+            }
+            return true;
+        }
+
+        private void setToken(byte[] bytes) {
+            length = 0;
+            nonAscii = false;
+            for (byte b : bytes) {
+                nonAscii |= b < 0;
+                append(b);
+            }
+        }
+
+        private void append(byte b) {
+            if (length == token.length) {
+                token = Arrays.copyOf(token, length * 2);
+            }
+            token[length++] = b;
+        }
+
+        private void splitOnUnicodeWhitespace() {
+            String s = string();
+            int i = 0;
+            while (i < s.length() && !Character.isWhitespace(s.codePointAt(i))) {
+                i += Character.charCount(s.codePointAt(i));
+            }
+            if (i == s.length()) {
+                return;
+            }
+            ArrayDeque<byte[]> pieces = new ArrayDeque<>();
+            int start = -1;
+            for (int j = 0; j <= s.length(); ) {
+                int c = j < s.length() ? s.codePointAt(j) : ' ';
+                if (Character.isWhitespace(c)) {
+                    if (start >= 0) {
+                        pieces.add(s.substring(start, j).getBytes(StandardCharsets.UTF_8));
+                        start = -1;
+                    }
+                } else if (start < 0) {
+                    start = j;
+                }
+                j += j < s.length() ? Character.charCount(c) : 1;
+            }
+            // the pieces go in front of anything already queued
+            boolean empty = pieces.isEmpty();
+            while (!pieces.isEmpty()) {
+                pending.addFirst(pieces.pollLast());
+            }
+            if (empty) {
+                length = 0;
+            } else {
+                setToken(pending.poll());
+            }
+        }
+
+        boolean is(byte[] word) {
+            return !nonAscii && length == word.length && Arrays.equals(token, 0, length, word, 0, length);
+        }
+
+        String string() {
+            return new String(token, 0, length, StandardCharsets.UTF_8);
+        }
+
+        // the next token as a String, as StdIn.readString returns it
+        String nextString() throws IOException {
+            if (!next()) { throw new NoSuchElementException(); }
+            return string();
+        }
+
+        // the next token as an int, as StdIn.readInt returns it
+        int nextInt() throws IOException {
+            if (!next()) { throw new NoSuchElementException(); }
+            int i = 0;
+            boolean negative = token[0] == '-';
+            if (negative) i++;
+            if (length > i && length - i <= 10) {
+                long value = 0;
+                for (; i < length; i++) {
+                    int d = token[i] - '0';
+                    if (d < 0 || d > 9) break;
+                    value = value * 10 + d;
+                }
+                if (negative) value = -value;
+                if (i == length && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                    return (int) value;
+                }
+            }
+            // anything else (signs, grouping, other digits, overflow) is left to Scanner so it is treated identically
+            return new Scanner(string()).useLocale(Locale.US).nextInt();
+        }
+    }
+}
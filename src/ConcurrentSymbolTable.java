@@ -0,0 +1,225 @@
+import java.security.InvalidParameterException;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A thread safe symbol table backed by a copy-on-write left-leaning red-black tree. Writers update a
+ * {@link PersistentSymbolTable}, which copies only the O(log n) nodes on the path they touch, and then publish a
+ * snapshot of it through a volatile field. Readers simply take the latest snapshot and search it, so get, contains,
+ * rank, select and iteration never block and never see a half finished update, while writers are serialized by a
+ * single lock which makes every put and del linearizable at the moment the snapshot is published. The compound
+ * and batched operations are overridden so that every lookup, iteration and getAll reads a single snapshot, and every
+ * update (putIfAbsent, computeIfAbsent, replace, putAll, delAll) checks and changes the table under the lock and
+ * publishes once.
+ * @param <Key> The type that will be used as the key for the symbol table
+ * @param <Value> The type that will be stored by the symbol table
+ */
+public class ConcurrentSymbolTable<Key extends Comparable<Key>, Value> implements ISymbolTable<Key, Value>,
+        TreeStructure {
+    /* the table updated by writers, only touched while holding writeLock */
+    private final PersistentSymbolTable<Key, Value> table = new PersistentSymbolTable<>();
+
+    /* the most recently published version of the table, this is all readers ever look at */
+    private volatile PersistentSymbolTable<Key, Value> published = table.snapshot();
+
+    /* serializes writers, readers never take it */
+    final ReentrantLock writeLock = new ReentrantLock();
+
+
+    public void put(Key k, Value v) throws InvalidParameterException {
+        writeLock.lock();
+        try {
+            table.put(k, v);
+            published = table.snapshot();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public Value get(Key k) throws NoSuchElementException, InvalidParameterException {
+        return published.get(k);
+    }
+
+    public void del(Key k) throws NoSuchElementException, InvalidParameterException {
+        writeLock.lock();
+        try {
+            table.del(k);
+            published = table.snapshot();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean contains(Key k) throws InvalidParameterException {
+        return published.contains(k);
+    }
+
+    public Value find(Key k) throws InvalidParameterException {
+        return published.find(k);
+    }
+
+    public Value getOrDefault(Key k, Value defaultValue) throws InvalidParameterException {
+        return published.getOrDefault(k, defaultValue);
+    }
+
+    public Value putIfAbsent(Key k, Value v) throws InvalidParameterException {
+        writeLock.lock();
+        try {
+            Value existing = table.putIfAbsent(k, v);
+            if (existing == null) {
+                published = table.snapshot();
+            }
+            return existing;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * returns the value referenced by a key, first inserting the value computed from the key if it is missing. The
+     * function is called while holding the write lock, so it blocks other writers (but not readers) while it runs
+     * @param k The key for the value that should be returned
+     * @param mappingFunction Computes the value of k if it does not exist in the table. If it returns null nothing is
+     * inserted. It must not modify the table
+     * @return the existing or newly inserted value referenced by k, or null if mappingFunction returned null
+     * @throws InvalidParameterException if k or mappingFunction are null
+     */
+    public Value computeIfAbsent(Key k, Function<? super Key, ? extends Value> mappingFunction)
+            throws InvalidParameterException {
+        writeLock.lock();
+        try {
+            int before = table.size();
+            Value v = table.computeIfAbsent(k, mappingFunction);
+            if (table.size() != before) {
+                published = table.snapshot();
+            }
+            return v;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public Value replace(Key k, Value v) throws InvalidParameterException {
+        writeLock.lock();
+        try {
+            Value old = table.replace(k, v);
+            if (old != null) {
+                published = table.snapshot();
+            }
+            return old;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return published.isEmpty();
+    }
+
+    public int size() {
+        return published.size();
+    }
+
+    /**
+     * Return the number of keys in the symbol table strictly less than {@code key}.
+     * @param key the key
+     * @return the number of keys in the symbol table strictly less than {@code key}
+     * @throws InvalidParameterException if {@code key} is {@code null}
+     */
+    public int rank(Key key) throws InvalidParameterException {
+        return published.rank(key);
+    }
+
+    /**
+     * Return the key in the symbol table of a given {@code rank}.
+     * @param rank the order statistic
+     * @return the key in the symbol table of given {@code rank}
+     * @throws IllegalArgumentException unless {@code rank} is between 0 and size() - 1
+     */
+    public Key select(int rank) {
+        return published.select(rank);
+    }
+
+    public LinkedList<Key> keys() {
+        return published.keys();
+    }
+
+    /**
+     * returns an iterator over the keys of the table in ascending order. The iterator walks the version of the tree
+     * that was current when it was created and is not affected by later updates
+     * @return An iterator that visits every key in the table in ascending order
+     */
+    public Iterator<Key> iterator() {
+        return published.iterator();
+    }
+
+    /**
+     * returns the key/value pairs of the table in ascending key order, as of the version current when the iterator
+     * is created
+     * @return An iterable whose iterator visits every entry of one version of the table in ascending key order
+     */
+    public Iterable<Map.Entry<Key, Value>> entries() {
+        return () -> published.entries().iterator();
+    }
+
+    public void forEach(BiConsumer<? super Key, ? super Value> action) throws InvalidParameterException {
+        published.forEach(action);
+    }
+
+    public List<Value> getAll(List<Key> keys) throws InvalidParameterException {
+        return published.getAll(keys);
+    }
+
+    public void putAll(List<Key> keys, List<Value> values) throws InvalidParameterException {
+        writeLock.lock();
+        try {
+            // on failure the pairs already inserted are removed again and nothing is published
+            table.putAll(keys, values);
+            published = table.snapshot();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int delAll(List<Key> keys) throws InvalidParameterException {
+        writeLock.lock();
+        try {
+            int removed = table.delAll(keys);
+            if (removed > 0) {
+                published = table.snapshot();
+            }
+            return removed;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * returns a read only, point-in-time view of the table
+     * @return an immutable symbol table holding the keys and values of the latest completed update
+     * @requirements This method must execute in O(1) time
+     */
+    public PersistentSymbolTable<Key, Value> snapshot() {
+        return published;
+    }
+
+    // the shape of the latest version, which can be measured from any thread
+    public int height() {
+        return published.height();
+    }
+
+    public double averageDepth() {
+        return published.averageDepth();
+    }
+
+    // does the current version of the tree satisfy symmetric order, the size counts and the red-black invariants?
+    boolean check() {
+        return published.check();
+    }
+}
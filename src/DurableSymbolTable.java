@@ -0,0 +1,481 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.InvalidParameterException;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * A symbol table that survives a crash. The pairs are kept in a {@link SymbolTable} in memory, and every put and del is
+ * also appended to a write-ahead log in the table's directory before the call returns. Every so many updates (and
+ * whenever {@link #checkpoint()} is called) the whole table is written to a snapshot file and the log is emptied.
+ * Opening the directory again loads the latest snapshot and replays the log on top of it.
+ *
+ * How much of the log is forced to the storage device, and so what a power failure can lose, is chosen with a
+ * {@link SyncPolicy}. Records are always handed to the operating system before put or del returns, so a crash of the
+ * process alone never loses an update.
+ *
+ * Each log record is its length, a CRC32 of its contents and then the contents: the operation, the key and for a put
+ * the value. Recovery stops at the first record that is cut short or fails its checksum, which is where the log was
+ * being written when the crash happened, and truncates the log there. Replaying is idempotent (a put of a key that is
+ * present replaces its value, a del of a missing key is skipped), so a crash between writing a snapshot and emptying
+ * the log is harmless.
+ *
+ * Like {@link SymbolTable} this class is not thread safe. A {@link SyncPolicy#BATCHED} table registers with a shared
+ * timer thread that forces its log when updates stop, and must be closed to unregister.
+ * @param <Key> The type that will be used as the key for the symbol table
+ * @param <Value> The type that will be stored by the symbol table
+ */
+public class DurableSymbolTable<Key extends Comparable<Key>, Value> implements ISymbolTable<Key, Value>, Closeable,
+        TreeStructure {
+
+    /**
+     * When the log is forced to the storage device
+     */
+    public enum SyncPolicy {
+        /* after every update, nothing that returned is ever lost */
+        EVERY_WRITE,
+        /* once per group of updates (group commit), and by a timer that checks every 10 ms if no further update
+           arrives, so a power failure loses at most the updates of roughly the last 20 ms */
+        BATCHED,
+        /* never, the operating system writes the log back when it chooses */
+        OS
+    }
+
+    /* a BATCHED log is forced once this many records are waiting */
+    static final int GROUP_COMMIT_RECORDS = 1024;
+    /* or once the oldest waiting record is this old, which the timer enforces even if no further record arrives */
+    static final long GROUP_COMMIT_NANOS = 10_000_000L;
+    /* by default a snapshot is taken once the log holds this many records */
+    static final long DEFAULT_CHECKPOINT_INTERVAL = 1_000_000L;
+
+    private static final byte PUT = 1;
+    private static final byte DEL = 2;
+    private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+
+    /* forces the logs of BATCHED tables whose updates have stopped, shared by every table */
+    private static final ScheduledExecutorService GROUP_COMMIT_TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "durable-symbol-table-group-commit");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final SymbolTable<Key, Value> table;
+    private final BinaryCodec<Key> keyCodec;
+    private final BinaryCodec<Value> valueCodec;
+    private final SyncPolicy policy;
+    private final long checkpointInterval;
+
+    private final Path snapshotFile;
+    private final Path logFile;
+    private final FileChannel log;
+    private ByteBuffer record = ByteBuffer.allocate(256);   /* the record being written, reused between updates */
+    private final CRC32 crc = new CRC32();
+
+    private long logRecords;        /* the number of records in the log */
+    private int unsynced;           /* the number of records written since the log was last forced */
+    private long firstUnsynced;     /* System.nanoTime() when the oldest of them was written */
+    private volatile long written;  /* the number of records ever written, read by the group commit timer */
+    private final ScheduledFuture<?> groupCommit;   /* the timer task of a BATCHED table, null otherwise */
+
+    /**
+     * opens the durable table stored in a directory, creating it if it does not exist, and recovers its contents
+     * @param directory The directory holding the snapshot and the log
+     * @param keyCodec Encodes the keys in the log and snapshot
+     * @param valueCodec Encodes the values in the log and snapshot
+     * @param policy When the log is forced to the storage device
+     * @throws IOException if the directory can not be read or written or holds an invalid snapshot
+     * @throws InvalidParameterException if any argument is null
+     */
+    public DurableSymbolTable(Path directory, BinaryCodec<Key> keyCodec, BinaryCodec<Value> valueCodec,
+                              SyncPolicy policy) throws IOException, InvalidParameterException {
+        this(directory, keyCodec, valueCodec, policy, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * opens the durable table stored in a directory, creating it if it does not exist, and recovers its contents
+     * @param directory The directory holding the snapshot and the log
+     * @param keyCodec Encodes the keys in the log and snapshot
+     * @param valueCodec Encodes the values in the log and snapshot
+     * @param policy When the log is forced to the storage device
+     * @param checkpointInterval A snapshot is taken automatically once the log holds this many records, 0 to only
+     * take them when checkpoint is called
+     * @throws IOException if the directory can not be read or written or holds an invalid snapshot
+     * @throws InvalidParameterException if any argument is null or checkpointInterval is negative
+     */
+    public DurableSymbolTable(Path directory, BinaryCodec<Key> keyCodec, BinaryCodec<Value> valueCodec,
+                              SyncPolicy policy, long checkpointInterval)
+            throws IOException, InvalidParameterException {
+        if (directory == null || keyCodec == null || valueCodec == null || policy == null) {
+            throw new InvalidParameterException("no directory, codec or policy was passed");
+        }
+        if (checkpointInterval < 0) { throw new InvalidParameterException("checkpointInterval can not be negative"); }
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.policy = policy;
+        this.checkpointInterval = checkpointInterval;
+
+        Files.createDirectories(directory);
+        snapshotFile = directory.resolve("snapshot");
+        logFile = directory.resolve("wal");
+        table = Files.exists(snapshotFile)
+                ? SymbolTable.load(snapshotFile, keyCodec, valueCodec)
+                : new SymbolTable<>();
+        log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long end = replay();
+            log.truncate(end);
+            log.position(end);
+            log.force(true);
+            syncDirectory(directory);   /* the log may have just been created */
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+        groupCommit = policy == SyncPolicy.BATCHED
+                ? GROUP_COMMIT_TIMER.scheduleWithFixedDelay(new GroupCommit(),
+                        GROUP_COMMIT_NANOS, GROUP_COMMIT_NANOS, TimeUnit.NANOSECONDS)
+                : null;
+    }
+
+    // Runs on the timer thread and forces the log if records were written since it last did. FileChannel may be
+    // forced while another thread writes, and a record that is written during the force is simply covered by the next
+    // one. The writer keeps its own count of unsynced records, so a failure here is reported again by its next sync
+    private final class GroupCommit implements Runnable {
+        private long synced;
+
+        public void run() {
+            long w = written;
+            if (w == synced) {
+                return;
+            }
+            try {
+                log.force(false);
+                synced = w;
+            } catch (IOException e) {
+                // the log was closed or could not be forced, sync and close report it to the writer
+            }
+        }
+    }
+
+    // applies every intact record of the log to the table and returns the position just after the last one
+    private long replay() throws IOException {
+        long length = log.size();
+        if (length == 0) {
+            return 0;
+        }
+        if (length > Integer.MAX_VALUE) { throw new IOException("log is too large to replay: " + logFile); }
+        MappedByteBuffer in = log.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        int position = 0;
+        while (length - position >= RECORD_HEADER_BYTES) {
+            int size = in.getInt(position);
+            int checksum = in.getInt(position + Integer.BYTES);
+            int start = position + RECORD_HEADER_BYTES;
+            if (size <= 0 || size > length - start) {
+                break;
+            }
+            crc.reset();
+            ByteBuffer payload = in.duplicate();
+            payload.position(start).limit(start + size);
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            try {
+                payload.position(start);
+                byte op = payload.get();
+                Key k = keyCodec.read(payload);
+                if (op == PUT) {
+                    Value v = valueCodec.read(payload);
+                    if (table.replace(k, v) == null) {
+                        table.put(k, v);
+                    }
+                } else if (op == DEL) {
+                    if (table.contains(k)) {
+                        table.del(k);
+                    }
+                } else {
+                    break;
+                }
+            } catch (RuntimeException e) {
+                break;      // a record that passed its checksum but can not be decoded ends the log like a torn one
+            }
+            logRecords++;
+            position = start + size;
+        }
+        return position;
+    }
+
+    /*******************************************************************************************************************
+     * Updates, which are logged
+     ******************************************************************************************************************/
+
+    /**
+     * Inserts a new key/value pair into the symbol table and logs it
+     * @param k The key to use
+     * @param v The value that should be associated with key
+     * @throws InvalidParameterException if k or v are null or if a duplicate key is found
+     * @throws UncheckedIOException if the log can not be written, in which case the table is unchanged, or if the
+     * automatic checkpoint that followed the update failed, in which case the update was applied and logged
+     */
+    public void put(Key k, Value v) throws InvalidParameterException {
+        table.put(k, v);
+        try {
+            append(PUT, k, v);
+        } catch (UncheckedIOException e) {
+            table.del(k);
+            throw e;
+        }
+        checkpointIfDue();
+    }
+
+    /**
+     * Removes a key/value pair from the symbol table and logs it
+     * @param k The key which should be removed from the table
+     * @throws NoSuchElementException if k does not exist in the table
+     * @throws InvalidParameterException if k is null
+     * @throws UncheckedIOException if the log can not be written, in which case the table is unchanged, or if the
+     * automatic checkpoint that followed the update failed, in which case the update was applied and logged
+     */
+    public void del(Key k) throws NoSuchElementException, InvalidParameterException {
+        Value v = table.find(k);
+        table.del(k);
+        try {
+            append(DEL, k, null);
+        } catch (UncheckedIOException e) {
+            table.put(k, v);
+            throw e;
+        }
+        checkpointIfDue();
+    }
+
+    // logged only if the pair was inserted
+    public Value putIfAbsent(Key k, Value v) throws InvalidParameterException {
+        Value existing = table.putIfAbsent(k, v);
+        if (existing == null) {
+            try {
+                append(PUT, k, v);
+            } catch (UncheckedIOException e) {
+                table.del(k);
+                throw e;
+            }
+            checkpointIfDue();
+        }
+        return existing;
+    }
+
+    // logged as a single put, which replay applies as a replacement
+    public Value replace(Key k, Value v) throws InvalidParameterException {
+        Value old = table.replace(k, v);
+        if (old != null) {
+            try {
+                append(PUT, k, v);
+            } catch (UncheckedIOException e) {
+                table.replace(k, old);
+                throw e;
+            }
+            checkpointIfDue();
+        }
+        return old;
+    }
+
+    // encodes a record, writes it to the log and forces the log as the policy requires
+    private void append(byte op, Key k, Value v) {
+        int size = 1 + keyCodec.size(k) + (op == PUT ? valueCodec.size(v) : 0);
+        if (record.capacity() < RECORD_HEADER_BYTES + size) {
+            record = ByteBuffer.allocate(Math.max(2 * record.capacity(), RECORD_HEADER_BYTES + size));
+        }
+        record.clear();
+        record.position(RECORD_HEADER_BYTES);
+        record.put(op);
+        keyCodec.write(k, record);
+        if (op == PUT) {
+            valueCodec.write(v, record);
+        }
+        crc.reset();
+        crc.update(record.array(), RECORD_HEADER_BYTES, size);
+        record.putInt(0, size);
+        record.putInt(Integer.BYTES, (int) crc.getValue());
+        record.flip();
+
+        try {
+            long start = log.position();
+            try {
+                while (record.hasRemaining()) {
+                    log.write(record);
+                }
+            } catch (IOException e) {
+                log.truncate(start);    // do not leave half a record for later records to follow
+                log.position(start);
+                throw e;
+            }
+            logRecords++;
+            written++;
+            if (unsynced++ == 0) {
+                firstUnsynced = System.nanoTime();
+            }
+            if (policy == SyncPolicy.EVERY_WRITE
+                    || (policy == SyncPolicy.BATCHED && (unsynced >= GROUP_COMMIT_RECORDS
+                        || System.nanoTime() - firstUnsynced >= GROUP_COMMIT_NANOS))) {
+                sync();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not write to the log " + logFile, e);
+        }
+    }
+
+    private void checkpointIfDue() {
+        if (checkpointInterval > 0 && logRecords >= checkpointInterval) {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                throw new UncheckedIOException("could not checkpoint " + snapshotFile, e);
+            }
+        }
+    }
+
+    /**
+     * forces every record written so far to the storage device, whatever the sync policy
+     * @throws IOException if the log can not be forced
+     */
+    public void sync() throws IOException {
+        if (unsynced > 0) {
+            log.force(false);
+            unsynced = 0;
+        }
+    }
+
+    /**
+     * writes the whole table to a new snapshot, atomically replaces the previous snapshot with it and empties the log
+     * @throws IOException if the snapshot can not be written or the log can not be truncated
+     * @requirements This method should execute in O(n) time
+     */
+    public void checkpoint() throws IOException {
+        Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        table.save(temporary, keyCodec, valueCodec);
+        Files.move(temporary, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // the rename must reach the device before the log is emptied, or a power failure could bring back the old
+        // snapshot next to an empty log
+        syncDirectory(snapshotFile.getParent());
+        log.truncate(0);
+        log.position(0);
+        log.force(true);
+        logRecords = 0;
+        unsynced = 0;
+    }
+
+    // forces the entries of a directory to the storage device. Windows can not open a directory as a channel, its
+    // renames are made durable by the file system itself
+    private static void syncDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            if (!System.getProperty("os.name").startsWith("Windows")) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * stops the group commit timer, forces the log to the storage device and closes it. The table can not be used
+     * afterwards
+     * @throws IOException if the log can not be forced or closed
+     */
+    public void close() throws IOException {
+        if (groupCommit != null) {
+            groupCommit.cancel(false);
+        }
+        try {
+            sync();
+        } finally {
+            log.close();
+        }
+    }
+
+    /* the number of records in the log since the last checkpoint */
+    long logRecords() {
+        return logRecords;
+    }
+
+    /*******************************************************************************************************************
+     * Reads, which go straight to the table in memory
+     ******************************************************************************************************************/
+
+    public Value get(Key k) throws NoSuchElementException, InvalidParameterException {
+        return table.get(k);
+    }
+
+    public Value find(Key k) throws InvalidParameterException {
+        return table.find(k);
+    }
+
+    public boolean contains(Key k) throws InvalidParameterException {
+        return table.contains(k);
+    }
+
+    public boolean isEmpty() {
+        return table.isEmpty();
+    }
+
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * Return the number of keys in the symbol table strictly less than {@code key}.
+     * @param key the key
+     * @return the number of keys in the symbol table strictly less than {@code key}
+     */
+    public int rank(Key key) {
+        return table.rank(key);
+    }
+
+    /**
+     * Return the key in the symbol table of a given {@code rank}.
+     * @param rank the order statistic
+     * @return the key in the symbol table of given {@code rank}
+     * @throws IllegalArgumentException unless {@code rank} is between 0 and size() - 1
+     */
+    public Key select(int rank) {
+        return table.select(rank);
+    }
+
+    public LinkedList<Key> keys() {
+        return table.keys();
+    }
+
+    public int height() {
+        return table.height();
+    }
+
+    public double averageDepth() {
+        return table.averageDepth();
+    }
+
+    public Iterator<Key> iterator() {
+        return table.iterator();
+    }
+
+    public Iterable<Map.Entry<Key, Value>> entries() {
+        return table.entries();
+    }
+
+    public void forEach(BiConsumer<? super Key, ? super Value> action) throws InvalidParameterException {
+        table.forEach(action);
+    }
+}
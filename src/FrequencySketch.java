@@ -0,0 +1,83 @@
+/**
+ * An approximate count of how often each key has been seen recently, used by {@link CachedSymbolTable} to decide
+ * whether a new key is worth more than the key it would evict. It is a count-min sketch of 4 bit counters, 16 to a
+ * long: each key increments one counter in each of four rows and its frequency is the smallest of the four, so hash
+ * collisions can only make a key look more popular than it is. Once the number of increments reaches ten times the
+ * cache capacity every counter is halved, which lets the sketch forget keys that used to be popular.
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;    /* clears the bit shifted in from each neighbour */
+    static final int MAX_FREQUENCY = 15;
+
+    private final long[] table;
+    private final int sampleSize;       /* increments between two halvings */
+    private int additions;              /* increments since the last halving */
+
+    /**
+     * @param capacity The number of keys the cache holds, the sketch keeps at least as many longs
+     */
+    FrequencySketch(int capacity) {
+        int n = 8;
+        while (n < capacity && n < (1 << 30)) {
+            n <<= 1;
+        }
+        table = new long[n];
+        sampleSize = (int) Math.min(10L * Math.max(capacity, 1), Integer.MAX_VALUE);
+    }
+
+    // spreads the hash code so that the four rows see unrelated bits
+    private static int spread(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 17);
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return (int) h & (table.length - 1);
+    }
+
+    /**
+     * records one occurrence of key
+     */
+    void increment(Object key) {
+        int hash = spread(key);
+        int start = (hash & 3) << 2;    /* each row uses a different one of the 16 counters of its long */
+        boolean added = false;
+        for (int row = 0; row < 4; row++) {
+            int shift = (start + row) << 2;
+            int i = indexOf(hash, row);
+            if (((table[i] >>> shift) & 0xF) != MAX_FREQUENCY) {
+                table[i] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            halve();
+        }
+    }
+
+    /**
+     * returns the estimated number of recent occurrences of key
+     * @return a count between 0 and {@link #MAX_FREQUENCY}, never less than the true recent count up to that limit
+     */
+    int frequency(Object key) {
+        int hash = spread(key);
+        int start = (hash & 3) << 2;
+        int frequency = MAX_FREQUENCY;
+        for (int row = 0; row < 4; row++) {
+            int shift = (start + row) << 2;
+            frequency = Math.min(frequency, (int) ((table[indexOf(hash, row)] >>> shift) & 0xF));
+        }
+        return frequency;
+    }
+
+    private void halve() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+}
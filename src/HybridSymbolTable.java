@@ -0,0 +1,251 @@
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * A symbol table that pairs a {@link SymbolTable} with a hash index of the same pairs. Point operations (get, find,
+ * contains, and the duplicate and missing key checks of put and del) are answered by the index in expected O(1) time
+ * without a single compareTo, while the red-black tree answers everything that needs the keys in order: keys(),
+ * iteration, rank and select. put and del update both structures, so they always hold the same pairs.
+ *
+ * The index maps keys to values rather than to tree nodes, because deleting from the tree moves a key into the node of
+ * the key being deleted, which would leave a pointer to the moved key's old node stale. Keys must have hashCode and
+ * equals methods that agree with their compareTo, as String, Integer and the other standard keys do.
+ * @param <Key> The type that will be used as the key for the symbol table
+ * @param <Value> The type that will be stored by the symbol table
+ */
+public class HybridSymbolTable<Key extends Comparable<Key>, Value> implements ISymbolTable<Key, Value>, TreeStructure {
+    private final SymbolTable<Key, Value> tree = new SymbolTable<>();
+    private final HashIndex index = new HashIndex();
+
+    public void put(Key k, Value v) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        if (v == null) { throw new InvalidParameterException("no val was passed"); }
+        if (index.get(k) != null) { throw new InvalidParameterException("node is a duplicate"); }
+        tree.put(k, v);
+        index.put(k, v);
+    }
+
+    public Value get(Key k) throws NoSuchElementException, InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        Value v = index.get(k);
+        if (v == null) {
+            throw new NoSuchElementException("root was null so element can't exist");
+        }
+        return v;
+    }
+
+    public Value find(Key k) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        return index.get(k);
+    }
+
+    public void del(Key k) throws NoSuchElementException, InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        if (index.remove(k) == null) {
+            throw new NoSuchElementException("currentRoot is null");
+        }
+        tree.del(k);
+    }
+
+    public boolean contains(Key k) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("key is null"); }
+        return index.get(k) != null;
+    }
+
+    public Value putIfAbsent(Key k, Value v) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        if (v == null) { throw new InvalidParameterException("no val was passed"); }
+        Value existing = index.get(k);
+        if (existing == null) {
+            tree.put(k, v);
+            index.put(k, v);
+        }
+        return existing;
+    }
+
+    public Value replace(Key k, Value v) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        if (v == null) { throw new InvalidParameterException("no val was passed"); }
+        if (index.get(k) == null) {
+            return null;
+        }
+        tree.replace(k, v);
+        return index.put(k, v);
+    }
+
+    public List<Value> getAll(List<Key> keys) throws InvalidParameterException {
+        if (keys == null) { throw new InvalidParameterException("no keys were passed"); }
+        List<Value> values = new ArrayList<>(keys.size());
+        for (Key k : keys) {
+            values.add(find(k));
+        }
+        return values;
+    }
+
+    // the tree validates the whole batch and is left unchanged if it is rejected, so the index only follows on success
+    public void putAll(List<Key> keys, List<Value> values) throws InvalidParameterException {
+        tree.putAll(keys, values);
+        Iterator<Value> vs = values.iterator();
+        for (Key k : keys) {
+            index.put(k, vs.next());
+        }
+    }
+
+    public int delAll(List<Key> keys) throws InvalidParameterException {
+        int removed = tree.delAll(keys);
+        for (Key k : keys) {
+            index.remove(k);
+        }
+        return removed;
+    }
+
+    public boolean isEmpty() {
+        return index.size == 0;
+    }
+
+    public int size() {
+        return index.size;
+    }
+
+    /**
+     * Return the number of keys in the symbol table strictly less than {@code key}.
+     * @param key the key
+     * @return the number of keys in the symbol table strictly less than {@code key}
+     */
+    public int rank(Key key) {
+        return tree.rank(key);
+    }
+
+    /**
+     * Return the key in the symbol table of a given {@code rank}.
+     * @param rank the order statistic
+     * @return the key in the symbol table of given {@code rank}
+     * @throws IllegalArgumentException unless {@code rank} is between 0 and size() - 1
+     */
+    public Key select(int rank) {
+        return tree.select(rank);
+    }
+
+    public LinkedList<Key> keys() {
+        return tree.keys();
+    }
+
+    public Iterator<Key> iterator() {
+        return tree.iterator();
+    }
+
+    public Iterable<Map.Entry<Key, Value>> entries() {
+        return tree.entries();
+    }
+
+    public void forEach(BiConsumer<? super Key, ? super Value> action) throws InvalidParameterException {
+        tree.forEach(action);
+    }
+
+    // the shape of the tree that answers the ordered operations, lookups by key go through the index
+    public int height() {
+        return tree.height();
+    }
+
+    public double averageDepth() {
+        return tree.averageDepth();
+    }
+
+    // is the tree valid, and do the tree and the index hold exactly the same pairs?
+    boolean check() {
+        if (!tree.validate() || tree.size() != index.size) return false;
+        for (Map.Entry<Key, Value> e : tree.entries()) {
+            if (index.get(e.getKey()) != e.getValue()) return false;
+        }
+        return true;
+    }
+
+    // An open addressing hash table with linear probing. Deleting shifts the following entries of the probe run back
+    // instead of leaving a tombstone, so lookups never have to skip over deleted slots.
+    private final class HashIndex {
+        private Object[] keys = new Object[16];
+        private Object[] vals = new Object[16];
+        private int mask = 15;
+        int size = 0;
+
+        // spreads the bits of the hash code so that keys with similar hash codes do not land in one run
+        private int home(Object k) {
+            int h = k.hashCode() * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        // the slot holding k, or the empty slot where it would be inserted
+        private int slot(Object k) {
+            int i = home(k);
+            while (keys[i] != null && !keys[i].equals(k)) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        @SuppressWarnings("unchecked")
+        Value get(Key k) {
+            return (Value) vals[slot(k)];
+        }
+
+        // returns the value k had, or null if it was added
+        @SuppressWarnings("unchecked")
+        Value put(Key k, Value v) {
+            int i = slot(k);
+            Value old = (Value) vals[i];
+            vals[i] = v;
+            if (keys[i] == null) {
+                keys[i] = k;
+                if (++size > keys.length / 2) {
+                    resize(keys.length * 2);
+                }
+            }
+            return old;
+        }
+
+        // returns the value k had, or null if it was not in the index
+        @SuppressWarnings("unchecked")
+        Value remove(Key k) {
+            int i = slot(k);
+            if (keys[i] == null) {
+                return null;
+            }
+            Value old = (Value) vals[i];
+            // move back every later entry of the run that would no longer be reachable from its home slot
+            for (int j = (i + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+                int home = home(keys[j]);
+                boolean reachable = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+                if (!reachable) {
+                    keys[i] = keys[j];
+                    vals[i] = vals[j];
+                    i = j;
+                }
+            }
+            keys[i] = null;
+            vals[i] = null;
+            size--;
+            return old;
+        }
+
+        private void resize(int capacity) {
+            Object[] oldKeys = keys;
+            Object[] oldVals = vals;
+            keys = new Object[capacity];
+            vals = new Object[capacity];
+            mask = capacity - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != null) {
+                    int i = slot(oldKeys[j]);
+                    keys[i] = oldKeys[j];
+                    vals[i] = oldVals[j];
+                }
+            }
+        }
+    }
+}
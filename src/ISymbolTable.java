@@ -1,13 +1,20 @@
 import java.security.InvalidParameterException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 /**
  * This file describes the interface that will be exposed by any type that is implementing a symbol table.
  * @param <Key> The type that will be used as the key for the symbol table
  * @param <Value> The type that will be stored by the symbol table
  */
-public interface ISymbolTable<Key, Value> {
+public interface ISymbolTable<Key, Value> extends Iterable<Key> {
 
     /**
      * Inserts a new key/value pair into the symbol table
@@ -45,6 +52,88 @@ public interface ISymbolTable<Key, Value> {
      */
     boolean contains(Key k) throws InvalidParameterException;
 
+    /**
+     * retrieves a value from the symbol table without throwing when the key is missing
+     * @param k The key for the value that should be returned
+     * @return A reference to the value that is referenced by k, or null if k does not exist in the table
+     * @throws InvalidParameterException if k is null
+     * @requirements This method should execute in O(log n) or better time
+     */
+    default Value find(Key k) throws InvalidParameterException {
+        return contains(k) ? get(k) : null;
+    }
+
+    /**
+     * retrieves a value from the symbol table, falling back to a default when the key is missing
+     * @param k The key for the value that should be returned
+     * @param defaultValue The value to return if k does not exist in the table
+     * @return A reference to the value that is referenced by k, or defaultValue if k does not exist in the table
+     * @throws InvalidParameterException if k is null
+     * @requirements This method should execute in O(log n) or better time
+     */
+    default Value getOrDefault(Key k, Value defaultValue) throws InvalidParameterException {
+        Value v = find(k);
+        return v == null ? defaultValue : v;
+    }
+
+    /**
+     * Inserts a new key/value pair into the symbol table unless the key is already present
+     * @param k The key to use
+     * @param v The value that should be associated with key
+     * @return the value already referenced by k, in which case the table is unchanged, or null if the pair was inserted
+     * @throws InvalidParameterException if k or v are null
+     * @requirements This method should execute in O(log n) or better time
+     */
+    default Value putIfAbsent(Key k, Value v) throws InvalidParameterException {
+        if (v == null) { throw new InvalidParameterException("no val was passed"); }
+        Value existing = find(k);
+        if (existing == null) {
+            put(k, v);
+        }
+        return existing;
+    }
+
+    /**
+     * returns the value referenced by a key, first inserting the value computed from the key if it is missing
+     * @param k The key for the value that should be returned
+     * @param mappingFunction Computes the value of k if it does not exist in the table. If it returns null nothing is
+     * inserted. It must not modify the table
+     * @return the existing or newly inserted value referenced by k, or null if mappingFunction returned null
+     * @throws InvalidParameterException if k or mappingFunction are null
+     * @requirements This method should execute in O(log n) or better time
+     */
+    default Value computeIfAbsent(Key k, Function<? super Key, ? extends Value> mappingFunction)
+            throws InvalidParameterException {
+        if (mappingFunction == null) { throw new InvalidParameterException("no function was passed"); }
+        Value existing = find(k);
+        if (existing != null) {
+            return existing;
+        }
+        Value v = mappingFunction.apply(k);
+        if (v != null) {
+            put(k, v);
+        }
+        return v;
+    }
+
+    /**
+     * Replaces the value referenced by a key that is already in the symbol table. Missing keys are not inserted
+     * @param k The key whose value should be replaced
+     * @param v The new value that should be associated with key
+     * @return the value previously referenced by k, or null if k does not exist in the table
+     * @throws InvalidParameterException if k or v are null
+     * @requirements This method should execute in O(log n) or better time
+     */
+    default Value replace(Key k, Value v) throws InvalidParameterException {
+        if (v == null) { throw new InvalidParameterException("no val was passed"); }
+        Value existing = find(k);
+        if (existing != null) {
+            del(k);
+            put(k, v);
+        }
+        return existing;
+    }
+
     /**
      * checks to see if the symbol table currently has any data
      * @return true if the table has no data, otherwise false
@@ -64,4 +153,107 @@ public interface ISymbolTable<Key, Value> {
      * @return A linked list of keys that exist in the table. The list must be sorted in ascending order
      */
     LinkedList<Key> keys();
+
+    /**
+     * returns an iterator over the keys of the table in ascending order
+     * @return An iterator that visits every key in the table in ascending order
+     */
+    default Iterator<Key> iterator() {
+        return keys().iterator();
+    }
+
+    /**
+     * returns the key/value pairs of the table in ascending key order
+     * @return An iterable whose iterator visits every entry of the table in ascending key order. The entries are
+     * read only
+     */
+    default Iterable<Map.Entry<Key, Value>> entries() {
+        return () -> new Iterator<Map.Entry<Key, Value>>() {
+            private final Iterator<Key> keys = iterator();
+
+            public boolean hasNext() {
+                return keys.hasNext();
+            }
+
+            public Map.Entry<Key, Value> next() {
+                Key k = keys.next();
+                return new AbstractMap.SimpleImmutableEntry<>(k, get(k));
+            }
+        };
+    }
+
+    /**
+     * Performs the given action on every key/value pair in the table in ascending key order
+     * @param action The action to be performed for each key and its value
+     * @throws InvalidParameterException if action is null
+     */
+    default void forEach(BiConsumer<? super Key, ? super Value> action) throws InvalidParameterException {
+        if (action == null) { throw new InvalidParameterException("no action was passed"); }
+        for (Key k : this) {
+            action.accept(k, get(k));
+        }
+    }
+
+    /**
+     * retrieves the values of several keys at once
+     * @param keys The keys whose values should be returned
+     * @return A list holding, at each index, the value referenced by the key at the same index of keys, or null if
+     * that key does not exist in the table
+     * @throws InvalidParameterException if keys or any key in it is null
+     */
+    default List<Value> getAll(List<Key> keys) throws InvalidParameterException {
+        if (keys == null) { throw new InvalidParameterException("no keys were passed"); }
+        List<Value> values = new ArrayList<>(keys.size());
+        for (Key k : keys) {
+            values.add(contains(k) ? get(k) : null);
+        }
+        return values;
+    }
+
+    /**
+     * Inserts several key/value pairs into the symbol table. Either every pair is inserted or, if an exception is
+     * thrown, the table is left unchanged
+     * @param keys The keys to insert
+     * @param values values.get(i) is the value that should be associated with keys.get(i)
+     * @throws InvalidParameterException if either list or any key or value is null, if the lists have different
+     * lengths or if a duplicate key is found
+     */
+    default void putAll(List<Key> keys, List<Value> values) throws InvalidParameterException {
+        if (keys == null || values == null) { throw new InvalidParameterException("no keys or values were passed"); }
+        if (keys.size() != values.size()) { throw new InvalidParameterException("keys and values differ in length"); }
+        List<Key> inserted = new ArrayList<>(keys.size());
+        Iterator<Value> vs = values.iterator();
+        try {
+            for (Key k : keys) {
+                put(k, vs.next());
+                inserted.add(k);
+            }
+        } catch (RuntimeException e) {
+            for (Key k : inserted) {
+                del(k);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Removes several keys from the symbol table. Keys that do not exist in the table are skipped
+     * @param keys The keys which should be removed from the table
+     * @return the number of keys that were removed
+     * @throws InvalidParameterException if keys or any key in it is null
+     */
+    default int delAll(List<Key> keys) throws InvalidParameterException {
+        if (keys == null) { throw new InvalidParameterException("no keys were passed"); }
+        for (Key k : keys) {
+            if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        }
+        int removed = 0;
+        for (Key k : keys) {
+            if (contains(k)) {
+                del(k);
+                removed++;
+            }
+        }
+        return removed;
+    }
 }
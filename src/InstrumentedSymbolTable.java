@@ -0,0 +1,337 @@
+import java.security.InvalidParameterException;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A symbol table that forwards every call to another table while recording how the calls behave: how many of each
+ * operation ran, how long they took (a {@link LatencyHistogram} per operation), how many lookups hit or missed and how
+ * many calls failed. When instrumentation is turned off the only extra work per call is one read of a flag.
+ *
+ * The gauges are kept in volatile fields so that they can be read from another thread (for example through
+ * {@link SymbolTableMetrics}) without touching a table that may be in the middle of an update. The size is stored after
+ * every update. The structure of every tree based engine, which implements {@link TreeStructure}, is its height and
+ * average node depth. It is sampled on the thread that uses the table when {@link #sampleStructure()} is called, when
+ * the size has doubled or halved since the last sample, and otherwise once as many calls have been recorded as the
+ * table held keys, at least {@value #SAMPLE_CALLS}. Lookups count as well, since they reshape a splay tree. Each O(n)
+ * walk is thus paid for by at least n calls, and a tree that degenerates under steady churn still shows up.
+ * @param <Key> The type that will be used as the key for the symbol table
+ * @param <Value> The type that will be stored by the symbol table
+ */
+public class InstrumentedSymbolTable<Key, Value> implements ISymbolTable<Key, Value> {
+    /**
+     * The operations whose count and latency are recorded. find and getOrDefault are recorded as GET
+     */
+    public enum Operation { PUT, GET, DEL, CONTAINS }
+
+    private final ISymbolTable<Key, Value> table;   /* the table every call is forwarded to */
+    private volatile boolean enabled = true;
+
+    private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+    private final AtomicLong hits = new AtomicLong();       /* get, find and contains calls that found their key */
+    private final AtomicLong misses = new AtomicLong();     /* get, find and contains calls that did not */
+    private final AtomicLong failures = new AtomicLong();   /* calls that threw, including get misses */
+
+    /* the smallest number of recorded calls between two samples of the structure */
+    static final int SAMPLE_CALLS = 1024;
+
+    /* the number of keys after the last recorded update */
+    private volatile int sampledSize = 0;
+    /* the structural gauges, as of the last sample */
+    private volatile int height = -1;
+    private volatile double averageDepth = 0.0;
+    /* the size of the table when its structure was last sampled */
+    private int structureSize = 0;
+    /* the number of recorded calls left before the structure is sampled again. It is only a budget, so calls made
+     * from several threads at once may count down less than one each */
+    private int untilSample = SAMPLE_CALLS;
+
+    /**
+     * creates an instrumented view of a table
+     * @param table The table every call should be forwarded to
+     * @throws InvalidParameterException if table is null
+     */
+    public InstrumentedSymbolTable(ISymbolTable<Key, Value> table) throws InvalidParameterException {
+        if (table == null) { throw new InvalidParameterException("no table was passed"); }
+        this.table = table;
+        for (Operation op : Operation.values()) {
+            latencies.put(op, new LatencyHistogram());
+        }
+        sampleStructure();
+    }
+
+    public void put(Key k, Value v) throws InvalidParameterException {
+        if (!enabled) {
+            table.put(k, v);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            table.put(k, v);
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            throw e;
+        } finally {
+            latencies.get(Operation.PUT).record(System.nanoTime() - start);
+        }
+        afterUpdate();
+    }
+
+    public Value get(Key k) throws NoSuchElementException, InvalidParameterException {
+        if (!enabled) {
+            return table.get(k);
+        }
+        long start = System.nanoTime();
+        try {
+            Value v = table.get(k);
+            hits.incrementAndGet();
+            return v;
+        } catch (NoSuchElementException e) {
+            misses.incrementAndGet();
+            failures.incrementAndGet();
+            throw e;
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            throw e;
+        } finally {
+            latencies.get(Operation.GET).record(System.nanoTime() - start);
+            afterLookup();
+        }
+    }
+
+    public Value find(Key k) throws InvalidParameterException {
+        if (!enabled) {
+            return table.find(k);
+        }
+        long start = System.nanoTime();
+        try {
+            return countLookup(table.find(k));
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            throw e;
+        } finally {
+            latencies.get(Operation.GET).record(System.nanoTime() - start);
+            afterLookup();
+        }
+    }
+
+    public Value getOrDefault(Key k, Value defaultValue) throws InvalidParameterException {
+        Value v = find(k);
+        return v == null ? defaultValue : v;
+    }
+
+    public void del(Key k) throws NoSuchElementException, InvalidParameterException {
+        if (!enabled) {
+            table.del(k);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            table.del(k);
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            throw e;
+        } finally {
+            latencies.get(Operation.DEL).record(System.nanoTime() - start);
+        }
+        afterUpdate();
+    }
+
+    public boolean contains(Key k) throws InvalidParameterException {
+        if (!enabled) {
+            return table.contains(k);
+        }
+        long start = System.nanoTime();
+        try {
+            boolean found = table.contains(k);
+            (found ? hits : misses).incrementAndGet();
+            return found;
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            throw e;
+        } finally {
+            latencies.get(Operation.CONTAINS).record(System.nanoTime() - start);
+            afterLookup();
+        }
+    }
+
+    private Value countLookup(Value v) {
+        (v != null ? hits : misses).incrementAndGet();
+        return v;
+    }
+
+    // stores the size and resamples the structure once the size has drifted by a factor of two or the budget of calls
+    // has run out, either way the O(n) walk is amortized O(1)
+    private void afterUpdate() {
+        int n = table.size();
+        sampledSize = n;
+        if (n > 2 * structureSize || n < structureSize / 2 || --untilSample <= 0) {
+            sampleStructure();
+        }
+    }
+
+    private void afterLookup() {
+        if (--untilSample <= 0) {
+            sampleStructure();
+        }
+    }
+
+    /*******************************************************************************************************************
+     * Calls that are forwarded without being recorded
+     ******************************************************************************************************************/
+
+    public Value putIfAbsent(Key k, Value v) throws InvalidParameterException {
+        Value existing = table.putIfAbsent(k, v);
+        if (enabled) { afterUpdate(); }
+        return existing;
+    }
+
+    public Value computeIfAbsent(Key k, Function<? super Key, ? extends Value> mappingFunction)
+            throws InvalidParameterException {
+        Value v = table.computeIfAbsent(k, mappingFunction);
+        if (enabled) { afterUpdate(); }
+        return v;
+    }
+
+    public Value replace(Key k, Value v) throws InvalidParameterException {
+        return table.replace(k, v);
+    }
+
+    public List<Value> getAll(List<Key> keys) throws InvalidParameterException {
+        return table.getAll(keys);
+    }
+
+    public void putAll(List<Key> keys, List<Value> values) throws InvalidParameterException {
+        table.putAll(keys, values);
+        if (enabled) { afterUpdate(); }
+    }
+
+    public int delAll(List<Key> keys) throws InvalidParameterException {
+        int removed = table.delAll(keys);
+        if (enabled) { afterUpdate(); }
+        return removed;
+    }
+
+    public boolean isEmpty() {
+        return table.isEmpty();
+    }
+
+    public int size() {
+        return table.size();
+    }
+
+    public LinkedList<Key> keys() {
+        return table.keys();
+    }
+
+    public Iterator<Key> iterator() {
+        return table.iterator();
+    }
+
+    public Iterable<Map.Entry<Key, Value>> entries() {
+        return table.entries();
+    }
+
+    public void forEach(BiConsumer<? super Key, ? super Value> action) throws InvalidParameterException {
+        table.forEach(action);
+    }
+
+    /*******************************************************************************************************************
+     * Metrics
+     ******************************************************************************************************************/
+
+    /**
+     * turns recording on or off. May be called from any thread
+     * @param enabled true to record calls, false to only forward them
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * returns the latencies recorded for one operation
+     * @param op The operation
+     * @return the histogram of latencies in nanoseconds of op, its count is the number of times op ran
+     */
+    public LatencyHistogram latencies(Operation op) {
+        return latencies.get(op);
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long failures() {
+        return failures.get();
+    }
+
+    /**
+     * discards every recorded count and latency, the structural gauges are kept
+     */
+    public void reset() {
+        for (LatencyHistogram h : latencies.values()) {
+            h.reset();
+        }
+        hits.set(0);
+        misses.set(0);
+        failures.set(0);
+    }
+
+    /**
+     * recomputes the structural gauges. This walks the whole tree, so like any other call on the table it must be
+     * made from the thread that uses the table
+     * @requirements This method should execute in O(n) time
+     */
+    public void sampleStructure() {
+        structureSize = table.size();
+        sampledSize = structureSize;
+        untilSample = Math.max(structureSize, SAMPLE_CALLS);
+        if (table instanceof TreeStructure) {
+            TreeStructure tree = (TreeStructure) table;
+            height = tree.height();
+            averageDepth = tree.averageDepth();
+        } else {
+            height = -1;
+            averageDepth = Double.NaN;
+        }
+    }
+
+    /**
+     * returns the size of the table after the last recorded update, which unlike {@link #size()} may be called from
+     * any thread
+     * @return the number of keys as of the last update
+     */
+    public int sampledSize() {
+        return sampledSize;
+    }
+
+    /**
+     * returns the height of the tree when its structure was last sampled
+     * @return the sampled height, -1 if the table is empty or is not a {@link TreeStructure}
+     */
+    public int height() {
+        return height;
+    }
+
+    /**
+     * returns the average depth of the nodes of the tree when its structure was last sampled
+     * @return the sampled average depth, NaN if the table is not a {@link TreeStructure}
+     */
+    public double averageDepth() {
+        return averageDepth;
+    }
+}
@@ -0,0 +1,120 @@
+import java.security.InvalidParameterException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed size histogram of latencies in nanoseconds with log-linear buckets, in the style of HdrHistogram. Every
+ * power of two range is split into 16 equal buckets, so any recorded value is reported with a relative error below
+ * 1/16 while the whole range of a long fits in under a thousand counters. Recording is a couple of atomic increments
+ * and never allocates, and the histogram may be read from another thread while it is being recorded into.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 4;                      /* log2 of the number of buckets per power of two */
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * adds one measurement to the histogram
+     * @param nanos The measured latency, negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(v));
+        count.incrementAndGet();
+        total.addAndGet(v);
+        if (v > max.get()) {
+            max.accumulateAndGet(v, Math::max);
+        }
+    }
+
+    /**
+     * returns the number of measurements recorded since the histogram was created or last reset
+     * @return the number of measurements
+     */
+    public long count() {
+        return count.get();
+    }
+
+    /**
+     * returns the largest measurement recorded
+     * @return the largest latency in nanoseconds, 0 if nothing was recorded
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * returns the mean of the recorded measurements
+     * @return the mean latency in nanoseconds, 0 if nothing was recorded
+     */
+    public double mean() {
+        long n = count.get();
+        return n == 0 ? 0.0 : (double) total.get() / n;
+    }
+
+    /**
+     * returns the latency below or at which the given percentage of the measurements fall
+     * @param percentile The percentage of measurements, between 0 and 100
+     * @return the highest value in the bucket holding that percentile, capped at the largest measurement, or 0 if
+     * nothing was recorded
+     * @throws InvalidParameterException if percentile is not between 0 and 100
+     */
+    public long valueAtPercentile(double percentile) throws InvalidParameterException {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new InvalidParameterException("percentile must be between 0 and 100: " + percentile);
+        }
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            n += counts.get(i);
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestInBucket(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * discards every measurement. Measurements recorded concurrently with a reset may be partly lost
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    // values below SUB_BUCKETS get a bucket each, larger ones are bucketed by their exponent and next SUB_BITS bits
+    static int bucket(long v) {
+        if (v < SUB_BUCKETS) {
+            return (int) v;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long highestInBucket(int i) {
+        if (i < SUB_BUCKETS) {
+            return i;
+        }
+        int exponent = i / SUB_BUCKETS + SUB_BITS - 1;
+        int shift = exponent - SUB_BITS;
+        long lowest = (long) (SUB_BUCKETS + i % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,251 @@
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A symbol table keyed by {@code long} values. It is a left-leaning red-black tree like {@link SymbolTable}, but the
+ * nodes live in a {@link PooledRedBlackTree} and the keys in a plain {@code long[]}, so keys are never boxed and an
+ * entry costs a handful of array slots instead of a node object plus a {@code Long}. The primitive overloads
+ * ({@code put(long, Value)}, {@code get(long)}, ...) should be preferred, the {@link ISymbolTable} methods taking an
+ * {@code Integer} are provided so the table can be used anywhere a symbol table is expected.
+ * @param <Value> The type that will be stored by the symbol table
+ */
+public class LongSymbolTable<Value> extends PooledRedBlackTree implements ISymbolTable<Long, Value>, TreeStructure {
+    private long[] keys;    /* The key each node stores */
+    private long probe;     /* the key the current put or del is looking for, reads pass their key instead */
+
+    public LongSymbolTable() {
+        this(16);
+    }
+
+    /**
+     * creates an empty table with room for the given number of keys before its arrays need to grow
+     * @param capacity The number of keys to allocate space for
+     * @throws InvalidParameterException if capacity is negative
+     */
+    public LongSymbolTable(int capacity) throws InvalidParameterException {
+        super(capacity);
+        keys = new long[capacity + 1];
+    }
+
+    int compareProbe(int x) {
+        return Long.compare(probe, keys[x]);
+    }
+
+    int compareKeys(int a, int b) {
+        return Long.compare(keys[a], keys[b]);
+    }
+
+    void storeProbe(int x) {
+        keys[x] = probe;
+    }
+
+    void moveKey(int from, int to) {
+        keys[to] = keys[from];
+    }
+
+    void resizeKeys(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+    }
+
+    /**
+     * Inserts a new key/value pair into the symbol table
+     * @param k The key to use
+     * @param v The value that should be associated with key
+     * @throws InvalidParameterException if v is null or if a duplicate key is found
+     */
+    public void put(long k, Value v) throws InvalidParameterException {
+        if (v == null) { throw new InvalidParameterException("no val was passed"); }
+        probe = k;
+        insertProbe(v);
+    }
+
+    /**
+     * retrieves a value from the symbol table
+     * @param k The key for the value that should be returned
+     * @return A reference to the value that is referenced by k
+     * @throws NoSuchElementException if k does not exist in the table
+     */
+    @SuppressWarnings("unchecked")
+    public Value get(long k) throws NoSuchElementException {
+        int x = node(k);
+        if (x == NIL) {
+            throw new NoSuchElementException("root was null so element can't exist");
+        }
+        return (Value) vals[x];
+    }
+
+    /**
+     * retrieves a value from the symbol table without throwing when the key is missing
+     * @param k The key for the value that should be returned
+     * @return A reference to the value that is referenced by k, or null if k does not exist in the table
+     */
+    @SuppressWarnings("unchecked")
+    public Value find(long k) {
+        int x = node(k);
+        return x == NIL ? null : (Value) vals[x];
+    }
+
+    /**
+     * Inserts a new key/value pair into the symbol table unless the key is already present
+     * @param k The key to use
+     * @param v The value that should be associated with key
+     * @return the value already referenced by k, in which case the table is unchanged, or null if the pair was inserted
+     * @throws InvalidParameterException if v is null
+     */
+    @SuppressWarnings("unchecked")
+    public Value putIfAbsent(long k, Value v) throws InvalidParameterException {
+        if (v == null) { throw new InvalidParameterException("no val was passed"); }
+        probe = k;
+        int x = insertProbeIfAbsent(v);
+        return x == NIL ? null : (Value) vals[x];
+    }
+
+    /**
+     * Replaces the value referenced by a key that is already in the symbol table. Missing keys are not inserted
+     * @param k The key whose value should be replaced
+     * @param v The new value that should be associated with key
+     * @return the value previously referenced by k, or null if k does not exist in the table
+     * @throws InvalidParameterException if v is null
+     */
+    @SuppressWarnings("unchecked")
+    public Value replace(long k, Value v) throws InvalidParameterException {
+        if (v == null) { throw new InvalidParameterException("no val was passed"); }
+        return (Value) swapValue(node(k), v);
+    }
+
+    /**
+     * Removes a key/value pair from the symbol table
+     * @param k The key which should be removed from the table
+     * @throws NoSuchElementException if k does not exist in the table
+     */
+    public void del(long k) throws NoSuchElementException {
+        probe = k;
+        removeProbe();
+    }
+
+    /**
+     * Checks to see if a give key exists in the symbol table
+     * @param k The key which should be searched for
+     * @return true if the key is found, otherwise false
+     */
+    public boolean contains(long k) {
+        return node(k) != NIL;
+    }
+
+    /**
+     * Return the number of keys in the symbol table strictly less than {@code k}.
+     * @param k the key
+     * @return the number of keys in the symbol table strictly less than {@code k}
+     */
+    public int rank(long k) {
+        int r = 0;
+        int x = root;
+        while (x != NIL) {
+            int cmp = Long.compare(k, keys[x]);
+            if      (cmp < 0) x = left[x];
+            else if (cmp > 0) { r += 1 + size[left[x]]; x = right[x]; }
+            else              return r + size[left[x]];
+        }
+        return r;
+    }
+
+    // returns the node holding k, or NIL if it is not in the tree. Reads search with their own key rather than the
+    // probe, so that threads which only read can share the table
+    private int node(long k) {
+        int x = root;
+        while (x != NIL) {
+            int cmp = Long.compare(k, keys[x]);
+            if (cmp == 0) {
+                return x;
+            }
+            x = cmp < 0 ? left[x] : right[x];
+        }
+        return NIL;
+    }
+
+    /**
+     * Return the key in the symbol table of a given {@code rank}.
+     * @param rank the order statistic
+     * @return the key in the symbol table of given {@code rank}
+     * @throws IllegalArgumentException unless {@code rank} is between 0 and size() - 1
+     */
+    public long select(int rank) {
+        return keys[selectNode(rank)];
+    }
+
+    public void put(Long k, Value v) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        put(k.longValue(), v);
+    }
+
+    public Value get(Long k) throws NoSuchElementException, InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        return get(k.longValue());
+    }
+
+    public Value find(Long k) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        return find(k.longValue());
+    }
+
+    public Value putIfAbsent(Long k, Value v) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        return putIfAbsent(k.longValue(), v);
+    }
+
+    public Value replace(Long k, Value v) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        return replace(k.longValue(), v);
+    }
+
+        public void del(Long k) throws NoSuchElementException, InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        del(k.longValue());
+    }
+
+    public boolean contains(Long k) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("key is null"); }
+        return contains(k.longValue());
+    }
+
+    public boolean isEmpty() {
+        return root == NIL;
+    }
+
+    public int size() {
+        return size[root];
+    }
+
+    public LinkedList<Long> keys() {
+        LinkedList<Long> myList = new LinkedList<>();
+        for (PrimitiveIterator.OfLong it = iterator(); it.hasNext(); ) {
+            myList.add(it.nextLong());
+        }
+        return myList;
+    }
+
+    /**
+     * returns an iterator over the keys of the table in ascending order. Use {@code nextLong()} to read the keys
+     * without boxing them
+     * @return An iterator that visits every key in the table in ascending order
+     */
+    public PrimitiveIterator.OfLong iterator() {
+        Cursor cursor = new Cursor();
+        return new PrimitiveIterator.OfLong() {
+            public boolean hasNext() {
+                return cursor.hasNext();
+            }
+
+            public long nextLong() {
+                return keys[cursor.nextNode()];
+            }
+        };
+    }
+
+    public boolean check() {
+        return checkTree();
+    }
+}
@@ -0,0 +1,170 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.security.InvalidParameterException;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+
+/**
+ * A read only symbol table that searches a snapshot file (see {@link SymbolTableSnapshot}) in place instead of
+ * loading it into a tree. The file is memory mapped, so the table lives off the Java heap in the operating system's
+ * page cache, where it is shared by every process that maps the same file and costs the garbage collector nothing.
+ *
+ * Lookups binary search the offset table of the snapshot and compare the probe with the encoded keys through
+ * {@link BinaryCodec#compare(ByteBuffer, int, Object)}, so with the provided codecs contains and rank allocate nothing
+ * and get only allocates the value it returns. All reads use absolute positions, so one table may be searched by any
+ * number of threads at once.
+ * @param <Key> The type that will be used as the key for the symbol table
+ * @param <Value> The type that will be stored by the symbol table
+ */
+public class MappedSymbolTable<Key extends Comparable<Key>, Value> implements ISymbolTable<Key, Value> {
+    private final SymbolTableSnapshot.Mapping file; /* the mapped snapshot */
+    private final BinaryCodec<Key> keyCodec;
+    private final BinaryCodec<Value> valueCodec;
+    private final int n;                            /* The number of entries in the snapshot */
+
+    /**
+     * maps a snapshot written by {@link SymbolTable#save} or {@link SymbolTableSnapshot#save}
+     * @param file The snapshot to map
+     * @param keyCodec The codec the keys were written with
+     * @param valueCodec The codec the values were written with
+     * @throws IOException if the file can not be read or is not a valid snapshot
+     * @throws InvalidParameterException if any argument is null
+     */
+    public MappedSymbolTable(Path file, BinaryCodec<Key> keyCodec, BinaryCodec<Value> valueCodec)
+            throws IOException, InvalidParameterException {
+        this(file, keyCodec, valueCodec, -1);
+    }
+
+    // maps the file in chunks of 2^chunkBits bytes, or of the default size if chunkBits is negative. Small chunks are
+    // only used by the tests, to cover entries near chunk boundaries without writing gigabytes
+    MappedSymbolTable(Path file, BinaryCodec<Key> keyCodec, BinaryCodec<Value> valueCodec, int chunkBits)
+            throws IOException, InvalidParameterException {
+        if (file == null || keyCodec == null || valueCodec == null) {
+            throw new InvalidParameterException("no file or codec was passed");
+        }
+        this.file = chunkBits < 0 ? SymbolTableSnapshot.map(file) : SymbolTableSnapshot.map(file, chunkBits);
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.n = this.file.count();
+    }
+
+    /**
+     * @throws UnsupportedOperationException always, a mapped table is read only
+     */
+    public void put(Key k, Value v) {
+        throw new UnsupportedOperationException("a mapped table can not be modified");
+    }
+
+    public Value get(Key k) throws NoSuchElementException, InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        int i = search(k);
+        if (i < 0) {
+            throw new NoSuchElementException("root was null so element can't exist");
+        }
+        return value(i);
+    }
+
+    public Value find(Key k) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        int i = search(k);
+        return i < 0 ? null : value(i);
+    }
+
+    /**
+     * @throws UnsupportedOperationException always, a mapped table is read only
+     */
+    public void del(Key k) {
+        throw new UnsupportedOperationException("a mapped table can not be modified");
+    }
+
+    public boolean contains(Key k) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("key is null"); }
+        return search(k) >= 0;
+    }
+
+    // returns the rank of k if it is in the table, otherwise -(the rank it would have) - 1
+    private int search(Key k) {
+        int lo = 0, hi = n - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long offset = file.offset(mid);
+            int cmp = keyCodec.compare(file.chunk(offset), file.index(offset), k);
+            if      (cmp < 0) lo = mid + 1;
+            else if (cmp > 0) hi = mid - 1;
+            else              return mid;
+        }
+        return -(lo + 1);
+    }
+
+    private Key key(int rank) {
+        long offset = file.offset(rank);
+        return keyCodec.read(file.chunk(offset), file.index(offset));
+    }
+
+    private Value value(int rank) {
+        long offset = file.offset(rank);
+        ByteBuffer chunk = file.chunk(offset);
+        int index = file.index(offset);
+        return valueCodec.read(chunk, index + keyCodec.length(chunk, index));
+    }
+
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Return the number of keys in the symbol table strictly less than {@code key}.
+     * @param key the key
+     * @return the number of keys in the symbol table strictly less than {@code key}
+     * @throws InvalidParameterException if {@code key} is {@code null}
+     */
+    public int rank(Key key) throws InvalidParameterException {
+        if (key == null) { throw new InvalidParameterException("argument to rank() is null"); }
+        int i = search(key);
+        return i >= 0 ? i : -(i + 1);
+    }
+
+    /**
+     * Return the key in the symbol table of a given {@code rank}.
+     * @param rank the order statistic
+     * @return the key in the symbol table of given {@code rank}
+     * @throws IllegalArgumentException unless {@code rank} is between 0 and size() - 1
+     */
+    public Key select(int rank) {
+        if (rank < 0 || rank >= n) {
+            throw new IllegalArgumentException("argument to select() is invalid: " + rank);
+        }
+        return key(rank);
+    }
+
+    public LinkedList<Key> keys() {
+        LinkedList<Key> myList = new LinkedList<>();
+        for (Key k : this) {
+            myList.add(k);
+        }
+        return myList;
+    }
+
+    public Iterator<Key> iterator() {
+        return new Iterator<Key>() {
+            private int next = 0;
+
+            public boolean hasNext() {
+                return next < n;
+            }
+
+            public Key next() {
+                if (next == n) {
+                    throw new NoSuchElementException("no more keys in the table");
+                }
+                return key(next++);
+            }
+        };
+    }
+}
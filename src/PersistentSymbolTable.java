@@ -0,0 +1,473 @@
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+
+/**
+ * A persistent symbol table backed by a left-leaning red-black tree whose nodes are never modified once they are
+ * created. put and del copy only the O(log n) nodes on the path they touch and leave every other node shared with the
+ * previous version of the tree, which makes taking a {@link #snapshot()} an O(1) operation: the snapshot just keeps
+ * the root of the current version. Snapshots are read only and are unaffected by later updates to the table they were
+ * taken from, so they can be handed to other threads without any copying or locking.
+ * @param <Key> The type that will be used as the key for the symbol table
+ * @param <Value> The type that will be stored by the symbol table
+ */
+public class PersistentSymbolTable<Key extends Comparable<Key>, Value> implements ISymbolTable<Key, Value>,
+        TreeStructure {
+    private static final boolean RED = true;
+    private static final boolean BLACK = false;
+
+    private static final class Node<Key, Value> {
+        final Key key;              /* The key that the node will store */
+        final Value val;            /* The value the node will store */
+        final Node<Key, Value> left, right; /* pointers to the left and right children of this node */
+        final int size;             /* The number of nodes in the subtree rooted by this node */
+        final boolean color;        /* The color of the link from the parent to this node */
+
+        Node(Key k, Value v, Node<Key, Value> left, Node<Key, Value> right, boolean c) {
+            this.key = k;
+            this.val = v;
+            this.left = left;
+            this.right = right;
+            this.color = c;
+            this.size = 1 + (left == null ? 0 : left.size) + (right == null ? 0 : right.size);
+        }
+
+        Node<Key, Value> withLeft(Node<Key, Value> l) {
+            return new Node<>(key, val, l, right, color);
+        }
+
+        Node<Key, Value> withRight(Node<Key, Value> r) {
+            return new Node<>(key, val, left, r, color);
+        }
+
+        Node<Key, Value> withColor(boolean c) {
+            return c == color ? this : new Node<>(key, val, left, right, c);
+        }
+    }
+
+    /* the root of the current version of the tree */
+    private Node<Key, Value> root;
+
+    /* true if this table is a snapshot, in which case put and del are rejected */
+    private final boolean readOnly;
+
+    /* the node putIfAbsent or replace found holding its key, only set while one of them runs */
+    private Node<Key, Value> match;
+
+    public PersistentSymbolTable() {
+        this(null, false);
+    }
+
+    private PersistentSymbolTable(Node<Key, Value> root, boolean readOnly) {
+        this.root = root;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * returns a read only view of the table as it is right now. The view shares its nodes with this table and does
+     * not change when this table is updated
+     * @return an immutable symbol table holding the current keys and values
+     * @requirements This method must execute in O(1) time
+     */
+    public PersistentSymbolTable<Key, Value> snapshot() {
+        return readOnly ? this : new PersistentSymbolTable<>(root, true);
+    }
+
+    /**
+     * checks to see if the table rejects updates
+     * @return true if the table is a snapshot, otherwise false
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+
+    public void put(Key k, Value v) throws InvalidParameterException {
+        if(k == null) { throw new InvalidParameterException("no key was passed"); }
+        if(v == null) { throw new InvalidParameterException("no val was passed"); }
+        if(readOnly) { throw new UnsupportedOperationException("a snapshot can not be modified"); }
+        root = put(root, k, v).withColor(BLACK);
+    }
+
+    private Node<Key, Value> put(Node<Key, Value> h, Key key, Value val) {
+        if (h == null) {
+            return new Node<>(key, val, null, null, RED);
+        }
+        int compareDiff = key.compareTo(h.key);
+        if (compareDiff == 0) {
+            throw new InvalidParameterException("node is a duplicate");
+        } else if (compareDiff < 0) {
+            h = h.withLeft(put(h.left, key, val));
+        } else {
+            h = h.withRight(put(h.right, key, val));
+        }
+        return balance(h);
+    }
+
+    public Value putIfAbsent(Key k, Value v) throws InvalidParameterException {
+        if(k == null) { throw new InvalidParameterException("no key was passed"); }
+        if(v == null) { throw new InvalidParameterException("no val was passed"); }
+        if(readOnly) { throw new UnsupportedOperationException("a snapshot can not be modified"); }
+        try {
+            root = putIfAbsent(root, k, v).withColor(BLACK);
+            return match == null ? null : match.val;
+        } finally {
+            match = null;
+        }
+    }
+
+    // Inserts the pair unless the key is already in the subtree. If it is, match is set to its node and h itself is
+    // returned, so nothing on the search path is copied.
+    private Node<Key, Value> putIfAbsent(Node<Key, Value> h, Key key, Value val) {
+        if (h == null) {
+            return new Node<>(key, val, null, null, RED);
+        }
+        int compareDiff = key.compareTo(h.key);
+        if (compareDiff == 0) {
+            match = h;
+            return h;
+        } else if (compareDiff < 0) {
+            Node<Key, Value> l = putIfAbsent(h.left, key, val);
+            return l == h.left ? h : balance(h.withLeft(l));
+        } else {
+            Node<Key, Value> r = putIfAbsent(h.right, key, val);
+            return r == h.right ? h : balance(h.withRight(r));
+        }
+    }
+
+    public Value replace(Key k, Value v) throws InvalidParameterException {
+        if(k == null) { throw new InvalidParameterException("no key was passed"); }
+        if(v == null) { throw new InvalidParameterException("no val was passed"); }
+        if(readOnly) { throw new UnsupportedOperationException("a snapshot can not be modified"); }
+        try {
+            root = replace(root, k, v);
+            return match == null ? null : match.val;
+        } finally {
+            match = null;
+        }
+    }
+
+    // Copies the path down to the node holding key, swapping in the new value. The shape of the tree is unchanged so
+    // nothing needs rebalancing. If the key is missing h itself is returned and nothing is copied.
+    private Node<Key, Value> replace(Node<Key, Value> h, Key key, Value val) {
+        if (h == null) {
+            return null;
+        }
+        int compareDiff = key.compareTo(h.key);
+        if (compareDiff == 0) {
+            match = h;
+            return new Node<>(h.key, val, h.left, h.right, h.color);
+        } else if (compareDiff < 0) {
+            Node<Key, Value> l = replace(h.left, key, val);
+            return l == h.left ? h : h.withLeft(l);
+        } else {
+            Node<Key, Value> r = replace(h.right, key, val);
+            return r == h.right ? h : h.withRight(r);
+        }
+    }
+
+    public Value get(Key k) throws NoSuchElementException, InvalidParameterException {
+        if(k == null) { throw new InvalidParameterException("no key was passed"); }
+        Node<Key, Value> x = getNode(root, k);
+        if (x == null) {
+            throw new NoSuchElementException("root was null so element can't exist");
+        }
+        return x.val;
+    }
+
+    public Value find(Key k) throws InvalidParameterException {
+        if(k == null) { throw new InvalidParameterException("no key was passed"); }
+        Node<Key, Value> x = getNode(root, k);
+        return x == null ? null : x.val;
+    }
+
+    private Node<Key, Value> getNode(Node<Key, Value> x, Key key) {
+        while (x != null) {
+            int compareDiff = key.compareTo(x.key);
+            if (compareDiff == 0) {
+                return x;
+            }
+            x = compareDiff < 0 ? x.left : x.right;
+        }
+        return null;
+    }
+
+    public void del(Key k) throws NoSuchElementException, InvalidParameterException {
+        if(k == null) { throw new InvalidParameterException("no key was passed"); }
+        if(readOnly) { throw new UnsupportedOperationException("a snapshot can not be modified"); }
+        Node<Key, Value> h = root;
+        if (getNode(h, k) == null) {
+            throw new NoSuchElementException("currentRoot is null");
+        }
+        // if both children of root are black, set root to red so that the invariant holds on the way down
+        if (!isRed(h.left) && !isRed(h.right)) {
+            h = h.withColor(RED);
+        }
+        h = del(h, k);
+        root = h == null ? null : h.withColor(BLACK);
+    }
+
+    // Precondition: key is present in the subtree rooted at h
+    private Node<Key, Value> del(Node<Key, Value> h, Key key) {
+        if (key.compareTo(h.key) < 0) {
+            if (!isRed(h.left) && !isRed(h.left.left)) {
+                h = moveRedLeft(h);
+            }
+            h = h.withLeft(del(h.left, key));
+        } else {
+            if (isRed(h.left)) {
+                h = rotateRight(h);
+            }
+            if (key.compareTo(h.key) == 0 && h.right == null) {
+                return null;
+            }
+            if (!isRed(h.right) && !isRed(h.right.left)) {
+                h = moveRedRight(h);
+            }
+            if (key.compareTo(h.key) == 0) {
+                Node<Key, Value> min = h.right;
+                while (min.left != null) {
+                    min = min.left;
+                }
+                h = new Node<>(min.key, min.val, h.left, deleteMin(h.right), h.color);
+            } else {
+                h = h.withRight(del(h.right, key));
+            }
+        }
+        return balance(h);
+    }
+
+    private Node<Key, Value> deleteMin(Node<Key, Value> h) {
+        if (h.left == null) {
+            return null;
+        }
+        if (!isRed(h.left) && !isRed(h.left.left)) {
+            h = moveRedLeft(h);
+        }
+        return balance(h.withLeft(deleteMin(h.left)));
+    }
+
+    public boolean contains(Key k) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("key is null"); }
+        return getNode(root, k) != null;
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    private int size(Node<Key, Value> x) {
+        return x == null ? 0 : x.size;
+    }
+
+    /**
+     * Return the number of keys in the symbol table strictly less than {@code key}.
+     * @param key the key
+     * @return the number of keys in the symbol table strictly less than {@code key}
+     * @throws InvalidParameterException if {@code key} is {@code null}
+     */
+    public int rank(Key key) throws InvalidParameterException {
+        if (key == null) { throw new InvalidParameterException("argument to rank() is null"); }
+        int r = 0;
+        Node<Key, Value> x = root;
+        while (x != null) {
+            int cmp = key.compareTo(x.key);
+            if      (cmp < 0) x = x.left;
+            else if (cmp > 0) { r += 1 + size(x.left); x = x.right; }
+            else              return r + size(x.left);
+        }
+        return r;
+    }
+
+    /**
+     * Return the key in the symbol table of a given {@code rank}.
+     * @param rank the order statistic
+     * @return the key in the symbol table of given {@code rank}
+     * @throws IllegalArgumentException unless {@code rank} is between 0 and size() - 1
+     */
+    public Key select(int rank) {
+        Node<Key, Value> x = root;
+        if (rank < 0 || rank >= size(x)) {
+            throw new IllegalArgumentException("argument to select() is invalid: " + rank);
+        }
+        while (true) {
+            int leftSize = size(x.left);
+            if      (leftSize > rank) x = x.left;
+            else if (leftSize < rank) { rank = rank - leftSize - 1; x = x.right; }
+            else                      return x.key;
+        }
+    }
+
+    public LinkedList<Key> keys() {
+        LinkedList<Key> myList = new LinkedList<>();
+        for (Key k : this) {
+            myList.add(k);
+        }
+        return myList;
+    }
+
+    /**
+     * returns an iterator over the keys of the table in ascending order. The iterator walks the version of the tree
+     * that was current when it was created and is not affected by later updates, so the table may be modified while
+     * iterating
+     * @return An iterator that visits every key in the table in ascending order
+     */
+    public Iterator<Key> iterator() {
+        return new KeyIterator<>(root);
+    }
+
+    private static final class KeyIterator<Key, Value> implements Iterator<Key> {
+        private Node<Key, Value>[] stack;
+        private int depth;
+
+        @SuppressWarnings("unchecked")
+        KeyIterator(Node<Key, Value> root) {
+            stack = (Node<Key, Value>[]) new Node<?, ?>[64];
+            pushLeft(root);
+        }
+
+        private void pushLeft(Node<Key, Value> x) {
+            while (x != null) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = x;
+                x = x.left;
+            }
+        }
+
+        public boolean hasNext() {
+            return depth > 0;
+        }
+
+        public Key next() {
+            if (depth == 0) {
+                throw new NoSuchElementException("no more keys in the table");
+            }
+            Node<Key, Value> x = stack[--depth];
+            stack[depth] = null;
+            pushLeft(x.right);
+            return x.key;
+        }
+    }
+
+    /*******************************************************************************************************************
+     * Structure metrics
+     ******************************************************************************************************************/
+
+    public int height() {
+        return (int) depthTotals()[0];
+    }
+
+    public double averageDepth() {
+        return isEmpty() ? 0.0 : (double) depthTotals()[1] / size();
+    }
+
+    // walks the tree once with an explicit stack, returning the deepest depth and the sum of the depths of all nodes
+    @SuppressWarnings("unchecked")
+    private long[] depthTotals() {
+        long max = -1, sum = 0;
+        Node<Key, Value>[] stack = (Node<Key, Value>[]) new Node<?, ?>[64];
+        int[] depths = new int[64];
+        int top = 0;
+        if (root != null) {
+            stack[top] = root;
+            depths[top++] = 0;
+        }
+        while (top > 0) {
+            Node<Key, Value> x = stack[--top];
+            int d = depths[top];
+            max = Math.max(max, d);
+            sum += d;
+            if (top + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+                depths = Arrays.copyOf(depths, depths.length * 2);
+            }
+            if (x.right != null) { stack[top] = x.right; depths[top++] = d + 1; }
+            if (x.left != null)  { stack[top] = x.left;  depths[top++] = d + 1; }
+        }
+        return new long[] { max, sum };
+    }
+
+    /*******************************************************************************************************************
+     * Red-black tree helper functions. Each returns a new node rather than modifying its argument
+     ******************************************************************************************************************/
+
+    private boolean isRed(Node<Key, Value> x) {
+        return x != null && x.color == RED;
+    }
+
+    // make a left-leaning link lean to the right
+    private Node<Key, Value> rotateRight(Node<Key, Value> h) {
+        Node<Key, Value> x = h.left;
+        return new Node<>(x.key, x.val, x.left, new Node<>(h.key, h.val, x.right, h.right, RED), h.color);
+    }
+
+    // make a right-leaning link lean to the left
+    private Node<Key, Value> rotateLeft(Node<Key, Value> h) {
+        Node<Key, Value> x = h.right;
+        return new Node<>(x.key, x.val, new Node<>(h.key, h.val, h.left, x.left, RED), x.right, h.color);
+    }
+
+    // flip the colors of a node and its two children
+    private Node<Key, Value> flipColors(Node<Key, Value> h) {
+        return new Node<>(h.key, h.val, h.left.withColor(!h.left.color), h.right.withColor(!h.right.color), !h.color);
+    }
+
+    // Assuming that h is red and both h.left and h.left.left are black, make h.left or one of its children red.
+    private Node<Key, Value> moveRedLeft(Node<Key, Value> h) {
+        h = flipColors(h);
+        if (isRed(h.right.left)) {
+            h = h.withRight(rotateRight(h.right));
+            h = rotateLeft(h);
+            h = flipColors(h);
+        }
+        return h;
+    }
+
+    // Assuming that h is red and both h.right and h.right.left are black, make h.right or one of its children red.
+    private Node<Key, Value> moveRedRight(Node<Key, Value> h) {
+        h = flipColors(h);
+        if (isRed(h.left.left)) {
+            h = rotateRight(h);
+            h = flipColors(h);
+        }
+        return h;
+    }
+
+    // restore the red-black invariants on the way back up the tree
+    private Node<Key, Value> balance(Node<Key, Value> h) {
+        if (isRed(h.right) && !isRed(h.left))    h = rotateLeft(h);
+        if (isRed(h.left) && isRed(h.left.left)) h = rotateRight(h);
+        if (isRed(h.left) && isRed(h.right))     h = flipColors(h);
+        return h;
+    }
+
+    // does the current version of the tree satisfy symmetric order, the size counts and the red-black invariants?
+    boolean check() {
+        Node<Key, Value> x = root;
+        if (isRed(x)) return false;
+        int black = 0;
+        for (Node<Key, Value> y = x; y != null; y = y.left) {
+            if (!isRed(y)) black++;
+        }
+        return check(x, null, null, black);
+    }
+
+    private boolean check(Node<Key, Value> x, Key min, Key max, int black) {
+        if (x == null) return black == 0;
+        if (min != null && x.key.compareTo(min) <= 0) return false;
+        if (max != null && x.key.compareTo(max) >= 0) return false;
+        if (x.size != size(x.left) + size(x.right) + 1) return false;
+        if (isRed(x.right)) return false;
+        if (isRed(x) && isRed(x.left)) return false;
+        if (!isRed(x)) black--;
+        return check(x.left, min, x.key, black) && check(x.right, x.key, max, black);
+    }
+}
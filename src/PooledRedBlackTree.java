@@ -0,0 +1,425 @@
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * The structure of a left-leaning red-black tree stored in a pool of parallel arrays instead of node objects. A node
+ * is an index into the arrays: its children, subtree count and color live at that index of {@code left},
+ * {@code right}, {@code size} and {@code color}, and its value at that index of {@code vals}. Index 0 is a sentinel
+ * standing in for null, it has size 0 and is black so the tree code never needs a null check. Slots freed by a delete
+ * are kept on a free list (linked through {@code left}) and reused by later inserts.
+ *
+ * Keys are left to subclasses so that they can be kept in a primitive array. An insert or remove is performed by first
+ * storing the key as the subclass' "probe" and then calling one of the probe methods here, which compare against it
+ * with {@link #compareProbe(int)}. Lookups and rank are searched by the subclasses with the key passed as an argument
+ * and never touch the probe, so, as with {@link SymbolTable}, threads that only read may share a table.
+ */
+abstract class PooledRedBlackTree {
+    static final int NIL = 0;
+    private static final byte RED = 1;
+    private static final byte BLACK = 0;
+
+    int[] left;         /* index of the left child of each node */
+    int[] right;        /* index of the right child of each node */
+    int[] size;         /* The number of nodes in the subtree rooted by each node */
+    byte[] color;       /* The color of the link from the parent to each node */
+    Object[] vals;      /* The value each node stores */
+
+    /* the root of our tree */
+    int root = NIL;
+
+    private int next = 1;       /* the lowest slot that has never been used */
+    private int free = NIL;     /* head of the list of slots released by deletes */
+
+    /* The nodes visited on the way down during insert and remove, deepest last */
+    private int[] path = new int[64];
+    /* For each entry of path, true if the search continued into the left child of that node */
+    private boolean[] wentLeft = new boolean[64];
+
+    PooledRedBlackTree(int capacity) {
+        if (capacity < 0) { throw new InvalidParameterException("capacity can not be negative"); }
+        int slots = capacity + 1;
+        left = new int[slots];
+        right = new int[slots];
+        size = new int[slots];
+        color = new byte[slots];
+        vals = new Object[slots];
+    }
+
+    /* compares the probe with the key stored in node x */
+    abstract int compareProbe(int x);
+
+    /* compares the key stored in node a with the key stored in node b */
+    abstract int compareKeys(int a, int b);
+
+    /* stores the probe as the key of node x */
+    abstract void storeProbe(int x);
+
+    /* copies the key of node from into node to */
+    abstract void moveKey(int from, int to);
+
+    /* grows the key storage so that it holds at least capacity slots */
+    abstract void resizeKeys(int capacity);
+
+    /* drops any reference held by the key slot of a freed node */
+    void releaseKey(int x) { }
+
+    // returns the node holding the probe, or NIL if it is not in the tree
+    final int findProbe() {
+        int x = root;
+        while (x != NIL) {
+            int compareDiff = compareProbe(x);
+            if (compareDiff == 0) {
+                return x;
+            }
+            x = compareDiff < 0 ? left[x] : right[x];
+        }
+        return NIL;
+    }
+
+    // inserts the probe with the given value
+    final void insertProbe(Object val) {
+        if (insertProbeIfAbsent(val) != NIL) {
+            throw new InvalidParameterException("node is a duplicate");
+        }
+    }
+
+    // inserts the probe with the given value unless it is already in the tree, returning the node already holding the
+    // probe or NIL if the pair was inserted
+    final int insertProbeIfAbsent(Object val) {
+        int depth = 0;
+        int x = root;
+        while (x != NIL) {
+            int compareDiff = compareProbe(x);
+            if (compareDiff == 0) {
+                return x;
+            }
+            depth = push(depth, x, compareDiff < 0);
+            x = compareDiff < 0 ? left[x] : right[x];
+        }
+        int n = allocate();
+        storeProbe(n);
+        vals[n] = val;
+        left[n] = NIL;
+        right[n] = NIL;
+        size[n] = 1;
+        color[n] = RED;
+        root = unwind(depth, n);
+        color[root] = BLACK;
+        return NIL;
+    }
+
+    // stores val in node x and returns the value it held, or returns null and changes nothing if x is NIL
+    final Object swapValue(int x, Object val) {
+        if (x == NIL) {
+            return null;
+        }
+        Object old = vals[x];
+        vals[x] = val;
+        return old;
+    }
+
+    // removes the probe from the tree
+    final void removeProbe() {
+        if (findProbe() == NIL) {
+            throw new NoSuchElementException("currentRoot is null");
+        }
+
+        // if both children of root are black, set root to red so that the invariant holds on the way down
+        if (!isRed(left[root]) && !isRed(right[root])) {
+            color[root] = RED;
+        }
+        int h = root;
+        int depth = 0;
+        boolean deletingMin = false;
+        while (true) {
+            if (deletingMin || compareProbe(h) < 0) {
+                if (left[h] == NIL) {
+                    break;      // only reachable while deleting the min, which has no children
+                }
+                if (!isRed(left[h]) && !isRed(left[left[h]])) {
+                    h = moveRedLeft(h);
+                }
+                depth = push(depth, h, true);
+                h = left[h];
+            } else {
+                if (isRed(left[h])) {
+                    h = rotateRight(h);
+                }
+                if (compareProbe(h) == 0 && right[h] == NIL) {
+                    break;
+                }
+                if (!isRed(right[h]) && !isRed(left[right[h]])) {
+                    h = moveRedRight(h);
+                }
+                if (compareProbe(h) == 0) {
+                    int min = right[h];
+                    while (left[min] != NIL) {
+                        min = left[min];
+                    }
+                    moveKey(min, h);
+                    vals[h] = vals[min];
+                    deletingMin = true;
+                }
+                depth = push(depth, h, false);
+                h = right[h];
+            }
+        }
+        release(h);
+        root = unwind(depth, NIL);
+        if (root != NIL) {
+            color[root] = BLACK;
+        }
+    }
+
+    // the node holding the key of the given rank
+    final int selectNode(int rank) {
+        if (rank < 0 || rank >= size[root]) {
+            throw new IllegalArgumentException("argument to select() is invalid: " + rank);
+        }
+        int x = root;
+        while (true) {
+            int leftSize = size[left[x]];
+            if      (leftSize > rank) x = left[x];
+            else if (leftSize < rank) { rank = rank - leftSize - 1; x = right[x]; }
+            else                      return x;
+        }
+    }
+
+    // takes a slot off the free list, or the next unused slot if the list is empty
+    private int allocate() {
+        if (free != NIL) {
+            int x = free;
+            free = left[x];
+            return x;
+        }
+        if (next == left.length) {
+            int capacity = Math.max(2, left.length * 2);
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            size = Arrays.copyOf(size, capacity);
+            color = Arrays.copyOf(color, capacity);
+            vals = Arrays.copyOf(vals, capacity);
+            resizeKeys(capacity);
+        }
+        return next++;
+    }
+
+    private void release(int x) {
+        releaseKey(x);
+        vals[x] = null;
+        right[x] = NIL;
+        size[x] = 0;
+        left[x] = free;
+        free = x;
+    }
+
+    private int push(int depth, int x, boolean goLeft) {
+        if (depth == path.length) {
+            path = Arrays.copyOf(path, depth * 2);
+            wentLeft = Arrays.copyOf(wentLeft, depth * 2);
+        }
+        path[depth] = x;
+        wentLeft[depth] = goLeft;
+        return depth + 1;
+    }
+
+    // hangs child below the deepest node on the path stack and rebalances every node on the path up to the root,
+    // returning the new root
+    private int unwind(int depth, int child) {
+        while (depth > 0) {
+            int parent = path[--depth];
+            if (wentLeft[depth]) {
+                left[parent] = child;
+            } else {
+                right[parent] = child;
+            }
+            child = balance(parent);
+        }
+        return child;
+    }
+
+    /*******************************************************************************************************************
+     * Red-black tree helper functions
+     ******************************************************************************************************************/
+
+    private boolean isRed(int x) {
+        return color[x] == RED;
+    }
+
+    // make a left-leaning link lean to the right
+    private int rotateRight(int h) {
+        int x = left[h];
+        left[h] = right[x];
+        right[x] = h;
+        color[x] = color[h];
+        color[h] = RED;
+        size[x] = size[h];
+        size[h] = size[left[h]] + size[right[h]] + 1;
+        return x;
+    }
+
+    // make a right-leaning link lean to the left
+    private int rotateLeft(int h) {
+        int x = right[h];
+        right[h] = left[x];
+        left[x] = h;
+        color[x] = color[h];
+        color[h] = RED;
+        size[x] = size[h];
+        size[h] = size[left[h]] + size[right[h]] + 1;
+        return x;
+    }
+
+    // flip the colors of a node and its two children
+    private void flipColors(int h) {
+        color[h] ^= 1;
+        color[left[h]] ^= 1;
+        color[right[h]] ^= 1;
+    }
+
+    // Assuming that h is red and both left[h] and left[left[h]] are black, make left[h] or one of its children red.
+    private int moveRedLeft(int h) {
+        flipColors(h);
+        if (isRed(left[right[h]])) {
+            right[h] = rotateRight(right[h]);
+            h = rotateLeft(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    // Assuming that h is red and both right[h] and left[right[h]] are black, make right[h] or one of its children red.
+    private int moveRedRight(int h) {
+        flipColors(h);
+        if (isRed(left[left[h]])) {
+            h = rotateRight(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    // restore the red-black invariants on the way back up the tree and fix the subtree count of h
+    private int balance(int h) {
+        if (isRed(right[h]) && !isRed(left[h]))    h = rotateLeft(h);
+        if (isRed(left[h]) && isRed(left[left[h]])) h = rotateRight(h);
+        if (isRed(left[h]) && isRed(right[h]))     flipColors(h);
+
+        size[h] = size[left[h]] + size[right[h]] + 1;
+        return h;
+    }
+
+    /*******************************************************************************************************************
+     * Structure metrics
+     ******************************************************************************************************************/
+
+    /* the number of links on the longest path from the root to a node, -1 if the tree is empty */
+    public int height() {
+        return (int) depthTotals()[0];
+    }
+
+    /* the average number of links from the root to a node, 0 if the tree is empty */
+    public double averageDepth() {
+        return root == NIL ? 0.0 : (double) depthTotals()[1] / size[root];
+    }
+
+    // walks the tree once with an explicit stack, returning the deepest depth and the sum of the depths of all nodes
+    private long[] depthTotals() {
+        long max = -1, sum = 0;
+        int[] stack = new int[64];
+        int[] depths = new int[64];
+        int top = 0;
+        if (root != NIL) {
+            stack[top] = root;
+            depths[top++] = 0;
+        }
+        while (top > 0) {
+            int x = stack[--top];
+            int d = depths[top];
+            max = Math.max(max, d);
+            sum += d;
+            if (top + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+                depths = Arrays.copyOf(depths, depths.length * 2);
+            }
+            if (right[x] != NIL) { stack[top] = right[x]; depths[top++] = d + 1; }
+            if (left[x] != NIL)  { stack[top] = left[x];  depths[top++] = d + 1; }
+        }
+        return new long[] { max, sum };
+    }
+
+    /*******************************************************************************************************************
+     * Traversal and integrity checking
+     ******************************************************************************************************************/
+
+    // In-order traversal of the tree using an explicit stack of the nodes whose left subtree is being visited.
+    // The tree must not be modified while a traversal is in progress.
+    final class Cursor {
+        private int[] stack = new int[64];
+        private int depth;
+
+        Cursor() {
+            pushLeft(root);
+        }
+
+        private void pushLeft(int x) {
+            while (x != NIL) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = x;
+                x = left[x];
+            }
+        }
+
+        boolean hasNext() {
+            return depth > 0;
+        }
+
+        int nextNode() {
+            if (depth == 0) {
+                throw new NoSuchElementException("no more keys in the table");
+            }
+            int x = stack[--depth];
+            pushLeft(right[x]);
+            return x;
+        }
+    }
+
+    // does the tree satisfy symmetric order, the size counts, rank consistency and the red-black invariants?
+    final boolean checkTree() {
+        if (isRed(root)) return false;
+        int black = 0;
+        for (int x = root; x != NIL; x = left[x]) {
+            if (!isRed(x)) black++;
+        }
+        if (!check(root, NIL, NIL, black)) return false;
+        for (int i = 0; i < size[root]; i++) {
+            if (rankOfNode(selectNode(i)) != i) return false;
+        }
+        return size[NIL] == 0 && !isRed(NIL);
+    }
+
+    private boolean check(int x, int min, int max, int black) {
+        if (x == NIL) return black == 0;
+        if (min != NIL && compareKeys(x, min) <= 0) return false;
+        if (max != NIL && compareKeys(x, max) >= 0) return false;
+        if (size[x] != size[left[x]] + size[right[x]] + 1) return false;
+        if (isRed(right[x])) return false;
+        if (isRed(x) && isRed(left[x])) return false;
+        if (!isRed(x)) black--;
+        return check(left[x], min, x, black) && check(right[x], x, max, black);
+    }
+
+    private int rankOfNode(int node) {
+        int r = 0;
+        int x = root;
+        while (x != NIL) {
+            int cmp = compareKeys(node, x);
+            if      (cmp < 0) x = left[x];
+            else if (cmp > 0) { r += 1 + size[left[x]]; x = right[x]; }
+            else              return r + size[left[x]];
+        }
+        return r;
+    }
+}
@@ -0,0 +1,201 @@
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+
+/**
+ * A symbol table backed by a left-leaning red-black tree whose nodes are stored as parallel arrays (a
+ * {@link PooledRedBlackTree}) rather than as one object per node. Keys, values, child indices and subtree counts sit
+ * in a few large arrays, so a search walks contiguous memory instead of chasing node objects and the garbage collector
+ * only has to trace the arrays and the keys and values themselves. Slots released by del are reused by later puts.
+ * @param <Key> The type that will be used as the key for the symbol table
+ * @param <Value> The type that will be stored by the symbol table
+ */
+public class PooledSymbolTable<Key extends Comparable<Key>, Value> extends PooledRedBlackTree
+        implements ISymbolTable<Key, Value>, TreeStructure {
+    private Object[] keys;  /* The key each node stores */
+    private Key probe;      /* the key the current put or del is looking for, reads pass their key instead */
+
+    public PooledSymbolTable() {
+        this(16);
+    }
+
+    /**
+     * creates an empty table with room for the given number of keys before its arrays need to grow
+     * @param capacity The number of keys to allocate space for
+     * @throws InvalidParameterException if capacity is negative
+     */
+    public PooledSymbolTable(int capacity) throws InvalidParameterException {
+        super(capacity);
+        keys = new Object[capacity + 1];
+    }
+
+    @SuppressWarnings("unchecked")
+    private Key key(int x) {
+        return (Key) keys[x];
+    }
+
+    int compareProbe(int x) {
+        return probe.compareTo(key(x));
+    }
+
+    int compareKeys(int a, int b) {
+        return key(a).compareTo(key(b));
+    }
+
+    void storeProbe(int x) {
+        keys[x] = probe;
+    }
+
+    void moveKey(int from, int to) {
+        keys[to] = keys[from];
+    }
+
+    void resizeKeys(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+    }
+
+    void releaseKey(int x) {
+        keys[x] = null;
+    }
+
+    public void put(Key k, Value v) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        if (v == null) { throw new InvalidParameterException("no val was passed"); }
+        probe = k;
+        try {
+            insertProbe(v);
+        } finally {
+            probe = null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public Value get(Key k) throws NoSuchElementException, InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        int x = findNode(k);
+        if (x == NIL) {
+            throw new NoSuchElementException("root was null so element can't exist");
+        }
+        return (Value) vals[x];
+    }
+
+    @SuppressWarnings("unchecked")
+    public Value find(Key k) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        int x = findNode(k);
+        return x == NIL ? null : (Value) vals[x];
+    }
+
+    @SuppressWarnings("unchecked")
+    public Value putIfAbsent(Key k, Value v) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        if (v == null) { throw new InvalidParameterException("no val was passed"); }
+        probe = k;
+        try {
+            int x = insertProbeIfAbsent(v);
+            return x == NIL ? null : (Value) vals[x];
+        } finally {
+            probe = null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public Value replace(Key k, Value v) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        if (v == null) { throw new InvalidParameterException("no val was passed"); }
+        return (Value) swapValue(findNode(k), v);
+    }
+
+    public void del(Key k) throws NoSuchElementException, InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        probe = k;
+        try {
+            removeProbe();
+        } finally {
+            probe = null;
+        }
+    }
+
+    public boolean contains(Key k) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("key is null"); }
+        return findNode(k) != NIL;
+    }
+
+    // returns the node holding k, or NIL if it is not in the tree. Reads search with their own key rather than the
+    // probe, so that threads which only read can share the table
+    private int findNode(Key k) {
+        int x = root;
+        while (x != NIL) {
+            int cmp = k.compareTo(key(x));
+            if (cmp == 0) {
+                return x;
+            }
+            x = cmp < 0 ? left[x] : right[x];
+        }
+        return NIL;
+    }
+
+    public boolean isEmpty() {
+        return root == NIL;
+    }
+
+    public int size() {
+        return size[root];
+    }
+
+    /**
+     * Return the number of keys in the symbol table strictly less than {@code key}.
+     * @param key the key
+     * @return the number of keys in the symbol table strictly less than {@code key}
+     * @throws InvalidParameterException if {@code key} is {@code null}
+     */
+    public int rank(Key key) throws InvalidParameterException {
+        if (key == null) { throw new InvalidParameterException("argument to rank() is null"); }
+        int r = 0;
+        int x = root;
+        while (x != NIL) {
+            int cmp = key.compareTo(key(x));
+            if      (cmp < 0) x = left[x];
+            else if (cmp > 0) { r += 1 + size[left[x]]; x = right[x]; }
+            else              return r + size[left[x]];
+        }
+        return r;
+    }
+
+    /**
+     * Return the key in the symbol table of a given {@code rank}.
+     * @param rank the order statistic
+     * @return the key in the symbol table of given {@code rank}
+     * @throws IllegalArgumentException unless {@code rank} is between 0 and size() - 1
+     */
+    public Key select(int rank) {
+        return key(selectNode(rank));
+    }
+
+    public LinkedList<Key> keys() {
+        LinkedList<Key> myList = new LinkedList<>();
+        for (Key k : this) {
+            myList.add(k);
+        }
+        return myList;
+    }
+
+    public Iterator<Key> iterator() {
+        Cursor cursor = new Cursor();
+        return new Iterator<Key>() {
+            public boolean hasNext() {
+                return cursor.hasNext();
+            }
+
+            public Key next() {
+                return key(cursor.nextNode());
+            }
+        };
+    }
+
+    public boolean check() {
+        return checkTree();
+    }
+}
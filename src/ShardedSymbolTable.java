@@ -0,0 +1,490 @@
+import java.security.InvalidParameterException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A thread safe symbol table that partitions the key space into ranges, each held by its own {@link SymbolTable}
+ * behind its own lock. put, get, del and contains find the shard whose range holds the key and only lock that shard,
+ * so threads working on different ranges never wait for each other and write throughput grows with the number of
+ * cores instead of being serialized on a single root.
+ *
+ * Shards adapt to the data. A shard that grows beyond the maximum shard size is split at its median key and a shard
+ * that shrinks below a quarter of it is joined with its smaller neighbour, both with the O(log n)
+ * {@link SymbolTable#split} and {@link SymbolTable#join}. Routing takes no shared lock: an operation looks the shard up
+ * in the current array of shards, locks it and then checks that the array has not been replaced in the meantime,
+ * retrying if it has. Splitting and joining replace the array while holding the locks of the shards they change, so
+ * a shard that is locked while its array is still current holds the key's range.
+ *
+ * size, rank, select, keys and iteration are composed from the per-shard counts and keys. They lock every shard, in
+ * ascending order, so they see a consistent view of the whole table, but block writers while they run.
+ * @param <Key> The type that will be used as the key for the symbol table
+ * @param <Value> The type that will be stored by the symbol table
+ */
+public class ShardedSymbolTable<Key extends Comparable<Key>, Value> implements ISymbolTable<Key, Value>,
+        TreeStructure {
+    public static final int DEFAULT_MAX_SHARD_SIZE = 1 << 16;
+
+    private final class Shard {
+        final Key lo;                       /* the smallest key the shard may hold, null for the first shard */
+        final SymbolTable<Key, Value> table;
+        final ReentrantLock lock = new ReentrantLock();
+
+        Shard(Key lo, SymbolTable<Key, Value> table) {
+            this.lo = lo;
+            this.table = table;
+        }
+    }
+
+    private final int maxShardSize;
+
+    /* the shards in ascending key order, only replaced while holding rebalance and the locks of the changed shards */
+    private volatile Shard[] shards;
+    /* serializes splitting and joining, taken before any shard lock */
+    private final ReentrantLock rebalance = new ReentrantLock();
+
+    public ShardedSymbolTable() {
+        this(DEFAULT_MAX_SHARD_SIZE);
+    }
+
+    /**
+     * creates an empty table with a single shard
+     * @param maxShardSize The number of keys a shard may hold before it is split in two
+     * @throws InvalidParameterException if maxShardSize is less than 2
+     */
+    @SuppressWarnings("unchecked")
+    public ShardedSymbolTable(int maxShardSize) throws InvalidParameterException {
+        if (maxShardSize < 2) { throw new InvalidParameterException("maxShardSize must be at least 2"); }
+        this.maxShardSize = maxShardSize;
+        shards = (Shard[]) new ShardedSymbolTable<?, ?>.Shard[] { new Shard(null, new SymbolTable<>()) };
+    }
+
+    public void put(Key k, Value v) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        update(k, table -> {
+            table.put(k, v);
+            return null;
+        });
+    }
+
+    public Value get(Key k) throws NoSuchElementException, InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        return read(k, table -> table.get(k));
+    }
+
+    public Value find(Key k) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        return read(k, table -> table.find(k));
+    }
+
+    public void del(Key k) throws NoSuchElementException, InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        update(k, table -> {
+            table.del(k);
+            return null;
+        });
+    }
+
+    public boolean contains(Key k) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("key is null"); }
+        return read(k, table -> table.contains(k));
+    }
+
+    public Value putIfAbsent(Key k, Value v) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        return update(k, table -> table.putIfAbsent(k, v));
+    }
+
+    /**
+     * see {@link ISymbolTable#computeIfAbsent}. The mapping function runs while the shard holding k is locked, so it
+     * must not use this table
+     */
+    public Value computeIfAbsent(Key k, Function<? super Key, ? extends Value> mappingFunction)
+            throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        return update(k, table -> table.computeIfAbsent(k, mappingFunction));
+    }
+
+    public Value replace(Key k, Value v) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        return read(k, table -> table.replace(k, v));
+    }
+
+    /**
+     * Inserts several key/value pairs. If an exception is thrown the pairs already inserted are removed again, but
+     * the batch is not atomic: other threads may see some of its pairs before it completes or is rolled back, and a
+     * pair another thread deleted in the meantime is simply not removed twice
+     * @param keys The keys to insert
+     * @param values values.get(i) is the value that should be associated with keys.get(i)
+     * @throws InvalidParameterException if either list or any key or value is null, if the lists have different
+     * lengths or if a duplicate key is found
+     */
+    public void putAll(List<Key> keys, List<Value> values) throws InvalidParameterException {
+        if (keys == null || values == null) { throw new InvalidParameterException("no keys or values were passed"); }
+        if (keys.size() != values.size()) { throw new InvalidParameterException("keys and values differ in length"); }
+        List<Key> inserted = new ArrayList<>(keys.size());
+        Iterator<Value> vs = values.iterator();
+        try {
+            for (Key k : keys) {
+                put(k, vs.next());
+                inserted.add(k);
+            }
+        } catch (RuntimeException e) {
+            delAll(inserted);
+            throw e;
+        }
+    }
+
+    public List<Value> getAll(List<Key> keys) throws InvalidParameterException {
+        if (keys == null) { throw new InvalidParameterException("no keys were passed"); }
+        List<Value> values = new ArrayList<>(keys.size());
+        for (Key k : keys) {
+            values.add(find(k));
+        }
+        return values;
+    }
+
+    // each key is checked and removed under the lock of its shard, so keys removed concurrently are simply skipped
+    public int delAll(List<Key> keys) throws InvalidParameterException {
+        if (keys == null) { throw new InvalidParameterException("no keys were passed"); }
+        for (Key k : keys) {
+            if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        }
+        int removed = 0;
+        for (Key k : keys) {
+            boolean found = update(k, table -> {
+                if (!table.contains(k)) return false;
+                table.del(k);
+                return true;
+            });
+            if (found) removed++;
+        }
+        return removed;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int size() {
+        return readAll(all -> {
+            int n = 0;
+            for (Shard s : all) {
+                n += s.table.size();
+            }
+            return n;
+        });
+    }
+
+    /**
+     * Return the number of keys in the symbol table strictly less than {@code key}.
+     * @param key the key
+     * @return the number of keys in the symbol table strictly less than {@code key}
+     * @throws InvalidParameterException if {@code key} is {@code null}
+     */
+    public int rank(Key key) throws InvalidParameterException {
+        if (key == null) { throw new InvalidParameterException("argument to rank() is null"); }
+        return readAll(all -> {
+            int i = shardIndex(all, key);
+            int r = all[i].table.rank(key);
+            for (int j = 0; j < i; j++) {
+                r += all[j].table.size();
+            }
+            return r;
+        });
+    }
+
+    /**
+     * Return the key in the symbol table of a given {@code rank}.
+     * @param rank the order statistic
+     * @return the key in the symbol table of given {@code rank}
+     * @throws IllegalArgumentException unless {@code rank} is between 0 and size() - 1
+     */
+    public Key select(int rank) {
+        return readAll(all -> {
+            if (rank >= 0) {
+                int r = rank;
+                for (Shard s : all) {
+                    if (r < s.table.size()) {
+                        return s.table.select(r);
+                    }
+                    r -= s.table.size();
+                }
+            }
+            throw new IllegalArgumentException("argument to select() is invalid: " + rank);
+        });
+    }
+
+    public LinkedList<Key> keys() {
+        return readAll(all -> {
+            LinkedList<Key> myList = new LinkedList<>();
+            for (Shard s : all) {
+                for (Key k : s.table) {
+                    myList.add(k);
+                }
+            }
+            return myList;
+        });
+    }
+
+    /**
+     * returns an iterator over a snapshot of the keys taken when it is created, later updates are not reflected
+     */
+    public Iterator<Key> iterator() {
+        return keys().iterator();
+    }
+
+    /**
+     * returns the pairs of a snapshot of the table taken when the iteration starts, later updates are not reflected
+     */
+    public Iterable<Map.Entry<Key, Value>> entries() {
+        return () -> snapshot().iterator();
+    }
+
+    // the action runs on a snapshot without holding any lock, so it may use the table
+    public void forEach(BiConsumer<? super Key, ? super Value> action) throws InvalidParameterException {
+        if (action == null) { throw new InvalidParameterException("no action was passed"); }
+        for (Map.Entry<Key, Value> e : snapshot()) {
+            action.accept(e.getKey(), e.getValue());
+        }
+    }
+
+    private List<Map.Entry<Key, Value>> snapshot() {
+        return readAll(all -> {
+            List<Map.Entry<Key, Value>> entries = new ArrayList<>();
+            for (Shard s : all) {
+                for (Map.Entry<Key, Value> e : s.table.entries()) {
+                    entries.add(new AbstractMap.SimpleImmutableEntry<>(e.getKey(), e.getValue()));
+                }
+            }
+            return entries;
+        });
+    }
+
+    /**
+     * returns the height of the tallest shard. Finding the shard is a binary search over the shard bounds, which is not
+     * counted
+     * @return the largest height of any shard, -1 if the table is empty
+     */
+    public int height() {
+        return readAll(all -> {
+            int h = -1;
+            for (Shard s : all) {
+                h = Math.max(h, s.table.height());
+            }
+            return h;
+        });
+    }
+
+    /**
+     * returns the average number of links from the root of its shard to the node holding a key
+     * @return the average depth of the keys over all shards, 0 if the table is empty
+     */
+    public double averageDepth() {
+        return readAll(all -> {
+            double sum = 0;
+            int n = 0;
+            for (Shard s : all) {
+                sum += s.table.averageDepth() * s.table.size();
+                n += s.table.size();
+            }
+            return n == 0 ? 0.0 : sum / n;
+        });
+    }
+
+    /**
+     * returns the number of shards the key space is currently divided into
+     * @return the number of shards
+     */
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /*******************************************************************************************************************
+     * Routing and locking
+     ******************************************************************************************************************/
+
+    // the index of the last shard whose lower bound is not greater than k
+    private int shardIndex(Shard[] all, Key k) {
+        int lo = 1, hi = all.length - 1, found = 0;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (all[mid].lo.compareTo(k) <= 0) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    // locks and returns the shard holding k. If the shards were split or joined between the lookup and the lock the
+    // shard may no longer hold k, so the lookup is repeated
+    private Shard lock(Key k) {
+        while (true) {
+            Shard[] all = shards;
+            Shard s = all[shardIndex(all, k)];
+            s.lock.lock();
+            if (shards == all) {
+                return s;
+            }
+            s.lock.unlock();
+        }
+    }
+
+    private void unlock(Shard s) {
+        s.lock.unlock();
+    }
+
+    private <T> T read(Key k, Function<SymbolTable<Key, Value>, T> op) {
+        Shard s = lock(k);
+        try {
+            return op.apply(s.table);
+        } finally {
+            unlock(s);
+        }
+    }
+
+    // runs op on the shard holding k and then splits or joins that shard if its size has left the allowed range
+    private <T> T update(Key k, Function<SymbolTable<Key, Value>, T> op) {
+        Shard s = lock(k);
+        T result;
+        int n;
+        try {
+            result = op.apply(s.table);
+            n = s.table.size();
+        } finally {
+            unlock(s);
+        }
+        if (n > maxShardSize) {
+            splitShard(s);
+        } else if (n < maxShardSize / 4 && shards.length > 1) {
+            joinShard(s);
+        }
+        return result;
+    }
+
+    // runs op with every shard locked, in ascending order so that two such calls can not deadlock
+    private <T> T readAll(Function<Shard[], T> op) {
+        while (true) {
+            Shard[] all = shards;
+            int locked = 0;
+            try {
+                for (Shard s : all) {
+                    s.lock.lock();
+                    locked++;
+                }
+                if (shards == all) {
+                    return op.apply(all);
+                }
+            } finally {
+                for (int i = 0; i < locked; i++) {
+                    all[i].lock.unlock();
+                }
+            }
+        }
+    }
+
+    /*******************************************************************************************************************
+     * Rebalancing
+     ******************************************************************************************************************/
+
+    // Only one thread rebalances at a time, so the array of shards does not change while it holds rebalance. It locks
+    // the shards it changes, in ascending order like readAll, and publishes the new array before unlocking them.
+    // Another thread may have rebalanced the shard in the meantime, so its size is checked again.
+
+    private int indexOf(Shard[] all, Shard s) {
+        for (int i = 0; i < all.length; i++) {
+            if (all[i] == s) return i;
+        }
+        return -1;
+    }
+
+    // splits s at its median key
+    @SuppressWarnings("unchecked")
+    private void splitShard(Shard s) {
+        rebalance.lock();
+        try {
+            Shard[] all = shards;
+            int i = indexOf(all, s);
+            if (i < 0) return;
+            s.lock.lock();
+            try {
+                if (s.table.size() <= maxShardSize) return;
+                Key median = s.table.select(s.table.size() / 2);
+                Shard upper = new Shard(median, s.table.split(median));
+                Shard[] next = (Shard[]) new ShardedSymbolTable<?, ?>.Shard[all.length + 1];
+                System.arraycopy(all, 0, next, 0, i + 1);
+                next[i + 1] = upper;
+                System.arraycopy(all, i + 1, next, i + 2, all.length - i - 1);
+                shards = next;
+            } finally {
+                s.lock.unlock();
+            }
+        } finally {
+            rebalance.unlock();
+        }
+    }
+
+    // Joins s with its smaller neighbour if the two together fill at most three quarters of a shard. A joined shard
+    // has to gain a quarter of a shard before it is split again, and the halves of a split shard have to lose a
+    // quarter of a shard before they are joined again, so shards never bounce between the two.
+    @SuppressWarnings("unchecked")
+    private void joinShard(Shard s) {
+        rebalance.lock();
+        try {
+            Shard[] all = shards;
+            int i = indexOf(all, s);
+            if (i < 0 || all.length == 1) return;
+            // the sizes read before the shards are locked only choose the neighbour, they are checked again below
+            int upper;
+            if (i == 0) {
+                upper = 1;
+            } else if (i == all.length - 1) {
+                upper = i;
+            } else {
+                upper = all[i - 1].table.size() <= all[i + 1].table.size() ? i : i + 1;
+            }
+            Shard lower = all[upper - 1];
+            Shard higher = all[upper];
+            lower.lock.lock();
+            higher.lock.lock();
+            try {
+                if (s.table.size() >= maxShardSize / 4) return;
+                if (lower.table.size() + higher.table.size() > maxShardSize * 3L / 4) return;
+                lower.table.join(higher.table);
+                Shard[] next = (Shard[]) new ShardedSymbolTable<?, ?>.Shard[all.length - 1];
+                System.arraycopy(all, 0, next, 0, upper);
+                System.arraycopy(all, upper + 1, next, upper, all.length - upper - 1);
+                shards = next;
+            } finally {
+                higher.lock.unlock();
+                lower.lock.unlock();
+            }
+        } finally {
+            rebalance.unlock();
+        }
+    }
+
+    // is every shard a valid tree holding only keys of its own range?
+    boolean check() {
+        return readAll(all -> {
+            for (int i = 0; i < all.length; i++) {
+                SymbolTable<Key, Value> t = all[i].table;
+                if (!t.validate()) return false;
+                if (t.isEmpty()) continue;
+                if (i > 0 && t.min().compareTo(all[i].lo) < 0) return false;
+                if (i + 1 < all.length && t.max().compareTo(all[i + 1].lo) >= 0) return false;
+            }
+            return true;
+        });
+    }
+}
@@ -0,0 +1,388 @@
+import java.security.InvalidParameterException;
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * A symbol table backed by a splay tree. Every put, get, del, contains, rank and select moves the node it reaches to
+ * the root with a bottom-up splay, so keys that are accessed often stay close to the root and are found after only a
+ * few comparisons. On skewed workloads, where a small set of keys takes most of the lookups, this beats a balanced tree
+ * whose hot keys sit wherever the insertion order left them. Any sequence of m operations on a table of n keys takes
+ * O(m log n) time, but a single operation may take O(n).
+ *
+ * Nodes keep a parent pointer so the splay and iteration need no stack, and a subtree count that is kept correct
+ * through every rotation so rank and select work as they do on {@link SymbolTable}. Note that lookups modify the tree,
+ * so unlike the other tables even get and contains must not be called from several threads at once.
+ * @param <Key> The type that will be used as the key for the symbol table
+ * @param <Value> The type that will be stored by the symbol table
+ */
+public class SplaySymbolTable<Key extends Comparable<Key>, Value> implements ISymbolTable<Key, Value>, TreeStructure {
+    private class Node {
+        Key key;
+        Value val;
+        Node left, right, parent;
+        int size;           /* number of nodes in the subtree rooted here */
+
+        Node(Key key, Value val, Node parent) {
+            this.key = key;
+            this.val = val;
+            this.parent = parent;
+            this.size = 1;
+        }
+    }
+
+    /* the root of our tree */
+    private Node root;
+
+    private int size(Node x) {
+        return x == null ? 0 : x.size;
+    }
+
+    public void put(Key k, Value v) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        if (v == null) { throw new InvalidParameterException("no val was passed"); }
+        if (insertIfAbsent(k, v) != null) {
+            throw new InvalidParameterException("node is a duplicate");
+        }
+    }
+
+    public Value putIfAbsent(Key k, Value v) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        if (v == null) { throw new InvalidParameterException("no val was passed"); }
+        return insertIfAbsent(k, v);
+    }
+
+    // inserts the pair unless the key is already present, returning the value already stored under the key or null if
+    // the pair was inserted. Either way the node holding the key ends up at the root
+    private Value insertIfAbsent(Key k, Value v) {
+        if (root == null) {
+            root = new Node(k, v, null);
+            return null;
+        }
+        Node x = root;
+        while (true) {
+            int cmp = k.compareTo(x.key);
+            if (cmp == 0) {
+                splay(x);
+                return x.val;
+            }
+            Node next = cmp < 0 ? x.left : x.right;
+            if (next == null) {
+                Node added = new Node(k, v, x);
+                if (cmp < 0) x.left = added;
+                else         x.right = added;
+                for (Node p = x; p != null; p = p.parent) {
+                    p.size++;
+                }
+                splay(added);
+                return null;
+            }
+            x = next;
+        }
+    }
+
+    public Value get(Key k) throws NoSuchElementException, InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        if (!access(k)) {
+            throw new NoSuchElementException("root was null so element can't exist");
+        }
+        return root.val;
+    }
+
+    public Value find(Key k) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        return access(k) ? root.val : null;
+    }
+
+    public void del(Key k) throws NoSuchElementException, InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        if (!access(k)) {
+            throw new NoSuchElementException("currentRoot is null");
+        }
+        Node left = root.left, right = root.right;
+        if (left == null) {
+            root = right;
+            if (right != null) right.parent = null;
+            return;
+        }
+        // bring the largest key of the left subtree to its root, it then has no right child to take the right subtree
+        left.parent = null;
+        root = left;
+        Node max = left;
+        while (max.right != null) {
+            max = max.right;
+        }
+        splay(max);
+        max.right = right;
+        if (right != null) right.parent = max;
+        max.size += size(right);
+    }
+
+    public boolean contains(Key k) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("key is null"); }
+        return access(k);
+    }
+
+    public Value replace(Key k, Value v) throws InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        if (v == null) { throw new InvalidParameterException("no val was passed"); }
+        if (!access(k)) {
+            return null;
+        }
+        Value old = root.val;
+        root.val = v;
+        return old;
+    }
+
+    // searches for k and splays the node holding it, or the last node visited if it is missing, to the root. Returns
+    // true if k was found
+    private boolean access(Key k) {
+        Node x = root, last = null;
+        while (x != null) {
+            last = x;
+            int cmp = k.compareTo(x.key);
+            if      (cmp < 0) x = x.left;
+            else if (cmp > 0) x = x.right;
+            else              break;
+        }
+        if (last != null) {
+            splay(last);
+        }
+        return x != null;
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Return the number of keys in the symbol table strictly less than {@code key}.
+     * @param key the key
+     * @return the number of keys in the symbol table strictly less than {@code key}
+     * @throws InvalidParameterException if {@code key} is {@code null}
+     */
+    public int rank(Key key) throws InvalidParameterException {
+        if (key == null) { throw new InvalidParameterException("argument to rank() is null"); }
+        if (root == null) {
+            return 0;
+        }
+        access(key);
+        // the root is now key itself or its neighbour in the tree
+        int r = size(root.left);
+        return key.compareTo(root.key) > 0 ? r + 1 : r;
+    }
+
+    /**
+     * Return the key in the symbol table of a given {@code rank}.
+     * @param rank the order statistic
+     * @return the key in the symbol table of given {@code rank}
+     * @throws IllegalArgumentException unless {@code rank} is between 0 and size() - 1
+     */
+    public Key select(int rank) {
+        if (rank < 0 || rank >= size()) {
+            throw new IllegalArgumentException("argument to select() is invalid: " + rank);
+        }
+        Node x = root;
+        while (true) {
+            int leftSize = size(x.left);
+            if      (rank < leftSize) x = x.left;
+            else if (rank > leftSize) { rank -= leftSize + 1; x = x.right; }
+            else                      break;
+        }
+        splay(x);
+        return x.key;
+    }
+
+    /*******************************************************************************************************************
+     * Splaying
+     ******************************************************************************************************************/
+
+    // moves x to the root of the tree it is in by zig, zig-zig and zig-zag steps
+    private void splay(Node x) {
+        while (x.parent != null) {
+            Node p = x.parent;
+            Node g = p.parent;
+            if (g == null) {
+                rotate(x);
+            } else if ((g.left == p) == (p.left == x)) {
+                rotate(p);
+                rotate(x);
+            } else {
+                rotate(x);
+                rotate(x);
+            }
+        }
+        root = x;
+    }
+
+    // rotates x above its parent. Only the sizes of x and its old parent change, the subtree they now form holds the
+    // same nodes as before
+    private void rotate(Node x) {
+        Node p = x.parent;
+        Node g = p.parent;
+        if (p.left == x) {
+            p.left = x.right;
+            if (x.right != null) x.right.parent = p;
+            x.right = p;
+        } else {
+            p.right = x.left;
+            if (x.left != null) x.left.parent = p;
+            x.left = p;
+        }
+        p.parent = x;
+        x.parent = g;
+        if (g != null) {
+            if (g.left == p) g.left = x;
+            else             g.right = x;
+        }
+        x.size = p.size;
+        p.size = 1 + size(p.left) + size(p.right);
+    }
+
+    /*******************************************************************************************************************
+     * Iteration
+     ******************************************************************************************************************/
+
+    // Iteration walks the parent pointers and does not splay. A lookup during iteration only rotates the tree, which
+    // never changes the in order successor of a node, so iterating while calling get is safe. del is not.
+
+    private Node first() {
+        Node x = root;
+        if (x != null) {
+            while (x.left != null) x = x.left;
+        }
+        return x;
+    }
+
+    private Node successor(Node x) {
+        if (x.right != null) {
+            x = x.right;
+            while (x.left != null) x = x.left;
+            return x;
+        }
+        while (x.parent != null && x.parent.right == x) {
+            x = x.parent;
+        }
+        return x.parent;
+    }
+
+    private abstract class NodeIterator<T> implements Iterator<T> {
+        private Node next = first();
+
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        Node nextNode() {
+            if (next == null) {
+                throw new NoSuchElementException("no more keys in the table");
+            }
+            Node x = next;
+            next = successor(x);
+            return x;
+        }
+    }
+
+    public LinkedList<Key> keys() {
+        LinkedList<Key> myList = new LinkedList<>();
+        for (Key k : this) {
+            myList.add(k);
+        }
+        return myList;
+    }
+
+    public Iterator<Key> iterator() {
+        return new NodeIterator<Key>() {
+            public Key next() {
+                return nextNode().key;
+            }
+        };
+    }
+
+    public Iterable<Map.Entry<Key, Value>> entries() {
+        return () -> new NodeIterator<Map.Entry<Key, Value>>() {
+            public Map.Entry<Key, Value> next() {
+                Node x = nextNode();
+                return new AbstractMap.SimpleImmutableEntry<>(x.key, x.val);
+            }
+        };
+    }
+
+    public void forEach(BiConsumer<? super Key, ? super Value> action) throws InvalidParameterException {
+        if (action == null) { throw new InvalidParameterException("no action was passed"); }
+        for (Node x = first(); x != null; x = successor(x)) {
+            action.accept(x.key, x.val);
+        }
+    }
+
+    /*******************************************************************************************************************
+     * Structure metrics
+     ******************************************************************************************************************/
+
+    // The depths are tracked along the same successor walk as iteration, one more on the way down to a child and one
+    // less on the way up to a parent, so no stack is needed. Like iteration this does not splay
+
+    public int height() {
+        return (int) depthTotals()[0];
+    }
+
+    public double averageDepth() {
+        return isEmpty() ? 0.0 : (double) depthTotals()[1] / size();
+    }
+
+    // returns the deepest depth and the sum of the depths of all nodes
+    private long[] depthTotals() {
+        long max = -1, sum = 0;
+        int d = 0;
+        Node x = root;
+        if (x != null) {
+            while (x.left != null) { x = x.left; d++; }
+        }
+        while (x != null) {
+            max = Math.max(max, d);
+            sum += d;
+            if (x.right != null) {
+                x = x.right;
+                d++;
+                while (x.left != null) { x = x.left; d++; }
+            } else {
+                while (x.parent != null && x.parent.right == x) { x = x.parent; d--; }
+                x = x.parent;
+                d--;
+            }
+        }
+        return new long[] { max, sum };
+    }
+
+    /*******************************************************************************************************************
+     * Check integrity of splay tree data structure.
+     ******************************************************************************************************************/
+
+    /**
+     * checks that the keys are in symmetric order, that every parent pointer and subtree count is correct
+     * @return true if the tree is a valid binary search tree
+     * @requirements This method should execute in O(n) time
+     */
+    public boolean check() {
+        if (root == null) return true;
+        if (root.parent != null) return false;
+        Node prev = null;
+        int count = 0;
+        for (Node x = first(); x != null; x = successor(x)) {
+            if (prev != null && prev.key.compareTo(x.key) >= 0) return false;
+            if (x.size != 1 + size(x.left) + size(x.right)) return false;
+            if (x.left != null && x.left.parent != x) return false;
+            if (x.right != null && x.right.parent != x) return false;
+            prev = x;
+            count++;
+        }
+        return count == root.size;
+    }
+}
@@ -1,17 +1,48 @@
+import java.io.IOException;
+import java.nio.file.Path;
 import java.security.InvalidParameterException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
-public class SymbolTable<Key extends Comparable<Key>, Value> implements ISymbolTable<Key , Value> {
-    private class Node{
+/**
+ * A symbol table backed by a left-leaning red-black binary search tree. Every root to leaf path contains the same
+ * number of black links and no node has two red links touching it, so the height of the tree never exceeds
+ * 2 lg n regardless of the order in which the keys are inserted.
+ * @param <Key> The type that will be used as the key for the symbol table
+ * @param <Value> The type that will be stored by the symbol table
+ */
+public class SymbolTable<Key extends Comparable<Key>, Value> implements ISymbolTable<Key , Value>, TreeStructure {
+    private static final boolean RED = true;
+    private static final boolean BLACK = false;
+
+    private class Node {
         Key key;            /* The key that the node will store */
         Value val;          /* The value the node will store */
         Node left, right;   /* pointers to the left and right children of this node */
         int size;           /* The number of nodes in the subtree rooted by this node */
-        public Node(Key k, Value v, int s){
+        boolean color;      /* The color of the link from the parent to this node */
+        public Node(Key k, Value v, int s, boolean c){
             this.key = k;
             this.val = v;
             this.size = s;
+            this.color = c;
             this.left = null;
             this.right = null;
         }
@@ -20,6 +51,13 @@ public class SymbolTable<Key extends Comparable<Key>, Value> implements ISymbolT
     /* the root of our tree */
     Node root;
 
+    /* The nodes visited on the way down during put and del, deepest last. Reused between calls so that updates do
+     * not allocate a stack frame or an array per level. */
+    @SuppressWarnings("unchecked")
+    private Node[] path = (Node[]) new SymbolTable<?, ?>.Node[64];
+    /* For each entry of path, true if the search continued into the left child of that node */
+    private boolean[] wentLeft = new boolean[64];
+
 
     public void put(Key k, Value v) throws InvalidParameterException {
         if(k == null) { throw new InvalidParameterException("no key was passed"); }
@@ -27,142 +65,312 @@ public class SymbolTable<Key extends Comparable<Key>, Value> implements ISymbolT
             throw new InvalidParameterException("no val was passed");
         }
         else{
-            root = put(root, k, v);
+            if (insert(k, v) != null) {
+                throw new InvalidParameterException("node is a duplicate");
+            }
         }
     }
 
-    private Node put(Node currentRoot, Key key, Value val){
-        if (currentRoot == null) {
-            return new Node(key, val, 1); // 0 would be 3rd param??
-        }
-        int compareDiff = key.compareTo(currentRoot.key);
-        if (compareDiff == 0) {
-            throw new InvalidParameterException("node is a duplicate");
-        } else if (compareDiff < 0) {
-            currentRoot.size++;
-            currentRoot.left = put(currentRoot.left, key, val);
-        } else {
-            currentRoot.size++;
-            currentRoot.right = put(currentRoot.right, key, val);
+    // inserts the pair unless the key is already present, returning the node already holding the key or null if the
+    // pair was inserted
+    private Node insert(Key k, Value v) {
+        int depth = 0;
+        Node currentRoot = root;
+        while (currentRoot != null) {
+            int compareDiff = k.compareTo(currentRoot.key);
+            if (compareDiff == 0) {
+                Arrays.fill(path, 0, depth, null);
+                return currentRoot;
+            }
+            depth = push(depth, currentRoot, compareDiff < 0);
+            currentRoot = compareDiff < 0 ? currentRoot.left : currentRoot.right;
         }
+        root = unwind(depth, new Node(k, v, 1, RED));
+        root.color = BLACK;
+        return null;
+    }
 
-        if (currentRoot.left != null && currentRoot.right != null) {
-            currentRoot.size = 1 + currentRoot.left.size + currentRoot.right.size;
-        } else if (currentRoot.left != null) {
-            currentRoot.size = 1 + currentRoot.left.size;
-        } else {
-            currentRoot.size = 1 + currentRoot.right.size;
+    public Value get(Key k) throws NoSuchElementException, InvalidParameterException {
+        if(k == null) { throw new InvalidParameterException("no key was passed"); }
+
+        Node x = getNode(k);
+        if (x == null) {
+            throw new NoSuchElementException("root was null so element can't exist");
         }
-        return currentRoot;
+        return x.val;
     }
 
-    public Value get(Key k) throws NoSuchElementException, InvalidParameterException {
+    public Value find(Key k) throws InvalidParameterException {
         if(k == null) { throw new InvalidParameterException("no key was passed"); }
+        Node x = getNode(k);
+        return x == null ? null : x.val;
+    }
 
-        return get(root, k);
+    public Value getOrDefault(Key k, Value defaultValue) throws InvalidParameterException {
+        if(k == null) { throw new InvalidParameterException("no key was passed"); }
+        Node x = getNode(k);
+        return x == null ? defaultValue : x.val;
     }
 
-    private Value get(Node currentRoot, Key key){
-        if (currentRoot == null) {
-            throw new NoSuchElementException("root was null so element can't exist");
-            //return null;
-        }
-        int compareDiff = key.compareTo(currentRoot.key);
-        if (compareDiff == 0) {
-            return currentRoot.val;
-        } else if (compareDiff < 0 && currentRoot.left != null) {
-            return get(currentRoot.left, key); // may need to change this
-        } else if (compareDiff > 0 && currentRoot.right != null) {
-            return get(currentRoot.right, key); // may need to change this
-        } else {
-            throw new NoSuchElementException("root was null so element can't exist");
-        }
+    public Value putIfAbsent(Key k, Value v) throws InvalidParameterException {
+        if(k == null) { throw new InvalidParameterException("no key was passed"); }
+        if (v == null) { throw new InvalidParameterException("no val was passed"); }
+        Node x = insert(k, v);
+        return x == null ? null : x.val;
     }
 
-    public void del(Key k) throws NoSuchElementException {
+    // The search path is kept on the path stack while the value is computed, so a miss inserts without searching the
+    // tree a second time. The mapping function gets empty stacks of its own in case it reads the table.
+    public Value computeIfAbsent(Key k, Function<? super Key, ? extends Value> mappingFunction)
+            throws InvalidParameterException {
         if(k == null) { throw new InvalidParameterException("no key was passed"); }
-        root = del(root, k);
+        if (mappingFunction == null) { throw new InvalidParameterException("no function was passed"); }
+        int depth = 0;
+        Node currentRoot = root;
+        while (currentRoot != null) {
+            int compareDiff = k.compareTo(currentRoot.key);
+            if (compareDiff == 0) {
+                Arrays.fill(path, 0, depth, null);
+                return currentRoot.val;
+            }
+            depth = push(depth, currentRoot, compareDiff < 0);
+            currentRoot = compareDiff < 0 ? currentRoot.left : currentRoot.right;
+        }
+
+        Node[] searchPath = path;
+        boolean[] searchWentLeft = wentLeft;
+        Node searchRoot = root;
+        int searchSize = size();
+        path = Arrays.copyOf(searchPath, 0);
+        wentLeft = new boolean[0];
+        Value v;
+        try {
+            v = mappingFunction.apply(k);
+        } finally {
+            path = searchPath;
+            wentLeft = searchWentLeft;
+        }
+        if (v == null || root != searchRoot || size() != searchSize) {
+            Arrays.fill(path, 0, depth, null);
+            if (v == null) {
+                return null;
+            }
+            throw new ConcurrentModificationException("the mapping function modified the table");
+        }
+        root = unwind(depth, new Node(k, v, 1, RED));
+        root.color = BLACK;
+        return v;
     }
 
-    private Node del(Node currentRoot, Key key){
-        if (currentRoot == null) {
-            throw new NoSuchElementException("currentRoot is null");
+    public Value replace(Key k, Value v) throws InvalidParameterException {
+        if(k == null) { throw new InvalidParameterException("no key was passed"); }
+        if (v == null) { throw new InvalidParameterException("no val was passed"); }
+        Node x = getNode(k);
+        if (x == null) {
+            return null;
         }
-        int compareDiff = key.compareTo(currentRoot.key);
-        if (compareDiff < 0) {
-            currentRoot.left = del(currentRoot.left, key);
-        } else if (compareDiff > 0) {
-            currentRoot.right = del(currentRoot.right, key);
-        } else {
-            if(currentRoot.left == null) {
-                return currentRoot.right;
-            } else if (currentRoot.right == null) {
-                return currentRoot.left;
+        Value old = x.val;
+        x.val = v;
+        return old;
+    }
+
+    // returns the node holding key, or null if the key is not in the table
+    private Node getNode(Key key){
+        Node currentRoot = root;
+        while (currentRoot != null) {
+            int compareDiff = key.compareTo(currentRoot.key);
+            if (compareDiff == 0) {
+                return currentRoot;
             }
+            currentRoot = compareDiff < 0 ? currentRoot.left : currentRoot.right;
+        }
+        return null;
+    }
 
-            Node tmp = currentRoot;
-            currentRoot = getMin(tmp.right);
-            currentRoot.right = deleteMin(tmp.right);
-            currentRoot.left = tmp.left;
+    public void del(Key k) throws NoSuchElementException {
+        if(k == null) { throw new InvalidParameterException("no key was passed"); }
+        if (!contains(k)) {
+            throw new NoSuchElementException("currentRoot is null");
         }
 
-        if (currentRoot.left != null && currentRoot.right != null) {
-            currentRoot.size = currentRoot.left.size + currentRoot.right.size + 1;
-        } else if (currentRoot.left != null) {
-            currentRoot.size = currentRoot.left.size + 1;
-        } else if (currentRoot.right != null){
-            currentRoot.size = currentRoot.right.size + 1;
-        } else {
-            currentRoot.size = 1;
+        // if both children of root are black, set root to red so that the invariant holds on the way down
+        if (!isRed(root.left) && !isRed(root.right)) {
+            root.color = RED;
         }
+        root = del(root, k);
+        if (root != null) {
+            root.color = BLACK;
+        }
+    }
 
-        return currentRoot;
+    // Precondition: key is present in the subtree rooted at currentRoot
+    // Walks down the tree pushing a red link ahead of the search (as the recursive top-down deletion would) and then
+    // rebalances the recorded path bottom-up. Once the key has been replaced by its successor the walk carries on
+    // as a deleteMin of the right subtree.
+    private Node del(Node currentRoot, Key key){
+        int depth = 0;
+        boolean deletingMin = false;
+        while (true) {
+            if (deletingMin || key.compareTo(currentRoot.key) < 0) {
+                if (currentRoot.left == null) {
+                    break;      // only reachable while deleting the min, which has no children
+                }
+                if (!isRed(currentRoot.left) && !isRed(currentRoot.left.left)) {
+                    currentRoot = moveRedLeft(currentRoot);
+                }
+                depth = push(depth, currentRoot, true);
+                currentRoot = currentRoot.left;
+            } else {
+                if (isRed(currentRoot.left)) {
+                    currentRoot = rotateRight(currentRoot);
+                }
+                if (key.compareTo(currentRoot.key) == 0 && currentRoot.right == null) {
+                    break;
+                }
+                if (!isRed(currentRoot.right) && !isRed(currentRoot.right.left)) {
+                    currentRoot = moveRedRight(currentRoot);
+                }
+                if (key.compareTo(currentRoot.key) == 0) {
+                    Node min = getMin(currentRoot.right);
+                    currentRoot.key = min.key;
+                    currentRoot.val = min.val;
+                    deletingMin = true;
+                }
+                depth = push(depth, currentRoot, false);
+                currentRoot = currentRoot.right;
+            }
+        }
+        return unwind(depth, null);
     }
 
     private Node getMin(Node currentRoot){
         if (currentRoot == null) {
             return null;
         }
-        if (currentRoot.left == null) {
-            return currentRoot;
-        } else {
-            return getMin(currentRoot.left);
+        while (currentRoot.left != null) {
+            currentRoot = currentRoot.left;
         }
+        return currentRoot;
     }
 
-    private Node deleteMin(Node currentRoot){
-        if (currentRoot == null) {
-            return null;
+    // records x on the path stack, growing it if the tree is deeper than expected, and returns the new depth
+    private int push(int depth, Node x, boolean left) {
+        if (depth == path.length) {
+            path = Arrays.copyOf(path, Math.max(64, depth * 2));
+            wentLeft = Arrays.copyOf(wentLeft, Math.max(64, depth * 2));
         }
-        if (currentRoot.left == null) {
-            return currentRoot.right;
-        } else {
-            currentRoot.left = deleteMin(currentRoot.left);
+        path[depth] = x;
+        wentLeft[depth] = left;
+        return depth + 1;
+    }
+
+    // hangs child below the deepest node on the path stack and rebalances every node on the path up to the root,
+    // returning the new root
+    private Node unwind(int depth, Node child) {
+        while (depth > 0) {
+            Node parent = path[--depth];
+            path[depth] = null;
+            if (wentLeft[depth]) {
+                parent.left = child;
+            } else {
+                parent.right = child;
+            }
+            child = balance(parent);
         }
-        return currentRoot;
+        return child;
     }
 
+    /*******************************************************************************************************************
+     * Red-black tree helper functions
+     ******************************************************************************************************************/
 
-    // need to complete
-    public boolean contains(Key k){
-        if (k == null) {
-            throw new InvalidParameterException("key is null");
+    private boolean isRed(Node x) {
+        if (x == null) return false;
+        return x.color == RED;
+    }
+
+    // make a left-leaning link lean to the right
+    private Node rotateRight(Node h) {
+        Node x = h.left;
+        h.left = x.right;
+        x.right = h;
+        x.color = h.color;
+        h.color = RED;
+        x.size = h.size;
+        h.size = size(h.left) + size(h.right) + 1;
+        return x;
+    }
+
+    // make a right-leaning link lean to the left
+    private Node rotateLeft(Node h) {
+        Node x = h.right;
+        h.right = x.left;
+        x.left = h;
+        x.color = h.color;
+        h.color = RED;
+        x.size = h.size;
+        h.size = size(h.left) + size(h.right) + 1;
+        return x;
+    }
+
+    // flip the colors of a node and its two children
+    private void flipColors(Node h) {
+        h.color = !h.color;
+        h.left.color = !h.left.color;
+        h.right.color = !h.right.color;
+    }
+
+    // Assuming that h is red and both h.left and h.left.left are black, make h.left or one of its children red.
+    private Node moveRedLeft(Node h) {
+        flipColors(h);
+        if (isRed(h.right.left)) {
+            h.right = rotateRight(h.right);
+            h = rotateLeft(h);
+            flipColors(h);
         }
-        return contains(root, k);
+        return h;
     }
 
-    private boolean contains(Node currentRoot, Key key){
-        if (currentRoot == null) {
-            return false;
+    // Assuming that h is red and both h.right and h.right.left are black, make h.right or one of its children red.
+    private Node moveRedRight(Node h) {
+        flipColors(h);
+        if (isRed(h.left.left)) {
+            h = rotateRight(h);
+            flipColors(h);
         }
-        int compareDiff = key.compareTo(currentRoot.key);
-        if (compareDiff == 0) {
-            return true;
-        } else if (compareDiff < 0) {
-            return contains(currentRoot.left, key);
-        } else {
-            return contains(currentRoot.right, key);
+        return h;
+    }
+
+    // restore the red-black invariants on the way back up the tree and fix the subtree count of h
+    private Node balance(Node h) {
+        if (isRed(h.right) && !isRed(h.left))    h = rotateLeft(h);
+        if (isRed(h.left) && isRed(h.left.left)) h = rotateRight(h);
+        if (isRed(h.left) && isRed(h.right))     flipColors(h);
+
+        h.size = size(h.left) + size(h.right) + 1;
+        return h;
+    }
+
+    // does the tree satisfy the left-leaning red-black invariants?
+    boolean isRedBlack() {
+        if (isRed(root)) return false;
+        return isRedBlack(root, blackHeight());
+    }
+
+    // no red right links, no two red links in a row and every path has the same number of black links
+    private boolean isRedBlack(Node x, int black) {
+        if (x == null) return black == 0;
+        if (isRed(x.right)) return false;
+        if (isRed(x) && isRed(x.left)) return false;
+        if (!isRed(x)) black--;
+        return isRedBlack(x.left, black) && isRedBlack(x.right, black);
+    }
+
+    public boolean contains(Key k){
+        if (k == null) {
+            throw new InvalidParameterException("key is null");
         }
+        return getNode(k) != null;
     }
 
     public boolean isEmpty() {
@@ -179,19 +387,1146 @@ public class SymbolTable<Key extends Comparable<Key>, Value> implements ISymbolT
     }
 
     public LinkedList<Key> keys() {
-        return keys(root);
+        LinkedList<Key> myList = new LinkedList<>();
+        for (Key k : this) {
+            myList.add(k);
+        }
+        return myList;
     }
 
-    private LinkedList<Key> keys(Node currentRoot){
-        if (currentRoot == null) {
-            return new LinkedList<>();
+    public Iterator<Key> iterator() {
+        return new KeyIterator();
+    }
+
+    public Iterable<Map.Entry<Key, Value>> entries() {
+        return EntryIterator::new;
+    }
+
+    public void forEach(BiConsumer<? super Key, ? super Value> action) throws InvalidParameterException {
+        if (action == null) { throw new InvalidParameterException("no action was passed"); }
+        EntryIterator nodes = new EntryIterator();
+        while (nodes.hasNext()) {
+            Node x = nodes.nextNode();
+            action.accept(x.key, x.val);
         }
+    }
 
-        LinkedList<Key> myList = new LinkedList<>();
-        myList.addAll(keys(currentRoot.left));
-        myList.add(currentRoot.key);
-        myList.addAll(keys(currentRoot.right));
-        return myList;
+    // In-order traversal of the tree using an explicit stack of the nodes whose left subtree is being visited. The
+    // stack never holds more than one node per level, so a full scan does O(n) work with O(lg n) extra memory.
+    // The tree must not be modified while a traversal is in progress.
+    private abstract class InOrder<T> implements Iterator<T> {
+        private Node[] stack;
+        private int depth;
+        private final Key hi;   /* the largest key the traversal may return, or null for no upper bound */
+
+        InOrder() {
+            this(null, null);
+        }
+
+        // starts the traversal at the smallest key >= lo and stops it after the largest key <= hi, a null bound
+        // leaves that end of the range open
+        @SuppressWarnings("unchecked")
+        InOrder(Key lo, Key hi) {
+            stack = (Node[]) new SymbolTable<?, ?>.Node[64];
+            this.hi = hi;
+            if (lo == null) {
+                pushLeft(root);
+            } else {
+                // keep only the nodes on the search path for lo whose key is not below lo, these are exactly the
+                // ancestors still waiting to be visited
+                Node x = root;
+                while (x != null) {
+                    if (lo.compareTo(x.key) <= 0) {
+                        push(x);
+                        x = x.left;
+                    } else {
+                        x = x.right;
+                    }
+                }
+            }
+        }
+
+        // starts the traversal at the key of the given rank, which must lie between 0 and size(), and leaves the upper
+        // end open
+        @SuppressWarnings("unchecked")
+        InOrder(int rank) {
+            stack = (Node[]) new SymbolTable<?, ?>.Node[64];
+            this.hi = null;
+            // as for a lower bound key, keep the nodes on the path whose rank is not below rank
+            Node x = root;
+            while (x != null) {
+                int leftSize = size(x.left);
+                if (rank <= leftSize) {
+                    push(x);
+                    x = x.left;
+                } else {
+                    rank -= leftSize + 1;
+                    x = x.right;
+                }
+            }
+        }
+
+        private void push(Node x) {
+            if (depth == stack.length) {
+                stack = Arrays.copyOf(stack, depth * 2);
+            }
+            stack[depth++] = x;
+        }
+
+        private void pushLeft(Node x) {
+            while (x != null) {
+                push(x);
+                x = x.left;
+            }
+        }
+
+        public boolean hasNext() {
+            return depth > 0 && (hi == null || stack[depth - 1].key.compareTo(hi) <= 0);
+        }
+
+        Node nextNode() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("no more keys in the table");
+            }
+            Node x = stack[--depth];
+            stack[depth] = null;
+            pushLeft(x.right);
+            return x;
+        }
+    }
+
+    private class KeyIterator extends InOrder<Key> {
+        KeyIterator() {
+            super();
+        }
+
+        KeyIterator(Key lo, Key hi) {
+            super(lo, hi);
+        }
+
+        public Key next() {
+            return nextNode().key;
+        }
+    }
+
+    private class EntryIterator extends InOrder<Map.Entry<Key, Value>> {
+        EntryIterator() {
+            super();
+        }
+
+        EntryIterator(int rank) {
+            super(rank);
+        }
+
+        public Map.Entry<Key, Value> next() {
+            Node x = nextNode();
+            return new AbstractMap.SimpleImmutableEntry<>(x.key, x.val);
+        }
+    }
+
+    /*******************************************************************************************************************
+     * Bulk loading
+     ******************************************************************************************************************/
+
+    /**
+     * Builds a symbol table holding the given pairs. If the keys are already in ascending order the tree is built
+     * directly in a single linear pass, otherwise the pairs are sorted first
+     * @param keys The keys to insert
+     * @param values values.get(i) is the value to associate with keys.get(i)
+     * @return a new balanced symbol table holding every pair
+     * @throws InvalidParameterException if either list or any key or value is null, if the lists have different
+     * lengths or if a duplicate key is found
+     * @requirements This method should execute in O(n) time for sorted input and O(n log n) time otherwise
+     */
+    public static <Key extends Comparable<Key>, Value> SymbolTable<Key, Value> fromSorted(List<Key> keys,
+                                                                                          List<Value> values)
+            throws InvalidParameterException {
+        SymbolTable<Key, Value> st = new SymbolTable<>();
+        st.putAll(keys, values);
+        return st;
+    }
+
+    /**
+     * Inserts every given pair into the table. Large batches are merged with the existing keys and the whole tree is
+     * rebuilt in one linear pass, small batches are inserted one at a time. Either way the table is left unchanged if
+     * an exception is thrown
+     * @param keys The keys to insert
+     * @param values values.get(i) is the value to associate with keys.get(i)
+     * @throws InvalidParameterException if either list or any key or value is null, if the lists have different
+     * lengths or if a duplicate key is found (in the table or within the batch)
+     * @requirements This method should execute in O(n + m) time when the batch is sorted, or in O(m log(n + m))
+     */
+    public void putAll(List<Key> keys, List<Value> values) throws InvalidParameterException {
+        if (keys == null || values == null) { throw new InvalidParameterException("no keys or values were passed"); }
+        if (keys.size() != values.size()) { throw new InvalidParameterException("keys and values differ in length"); }
+        int m = keys.size();
+        Object[] batchKeys = new Object[m];
+        Object[] batchVals = new Object[m];
+        boolean sorted = true;
+        int i = 0;
+        Iterator<Value> vs = values.iterator();
+        for (Key k : keys) {
+            Value v = vs.next();
+            if (k == null) { throw new InvalidParameterException("no key was passed"); }
+            if (v == null) { throw new InvalidParameterException("no val was passed"); }
+            if (i > 0 && sorted && k.compareTo(key(batchKeys[i - 1])) <= 0) {
+                sorted = false;
+            }
+            batchKeys[i] = k;
+            batchVals[i++] = v;
+        }
+        if (!sorted) {
+            sortPairs(batchKeys, batchVals);
+        }
+        for (i = 1; i < m; i++) {
+            if (key(batchKeys[i]).compareTo(key(batchKeys[i - 1])) == 0) {
+                throw new InvalidParameterException("node is a duplicate");
+            }
+        }
+
+        int n = size();
+        if ((long) m * (33 - Integer.numberOfLeadingZeros(n)) < n) {
+            // a few keys into a big table: cheaper to insert them than to rebuild
+            for (i = 0; i < m; i++) {
+                if (getNode(key(batchKeys[i])) != null) {
+                    throw new InvalidParameterException("node is a duplicate");
+                }
+            }
+            for (i = 0; i < m; i++) {
+                put(key(batchKeys[i]), value(batchVals[i]));
+            }
+            return;
+        }
+
+        // merge the table's keys with the batch, both are in ascending order
+        Object[] mergedKeys = new Object[n + m];
+        Object[] mergedVals = new Object[n + m];
+        int j = 0;
+        i = 0;
+        EntryIterator nodes = new EntryIterator();
+        while (nodes.hasNext()) {
+            Node x = nodes.nextNode();
+            while (j < m && key(batchKeys[j]).compareTo(x.key) < 0) {
+                mergedKeys[i] = batchKeys[j];
+                mergedVals[i++] = batchVals[j++];
+            }
+            if (j < m && key(batchKeys[j]).compareTo(x.key) == 0) {
+                throw new InvalidParameterException("node is a duplicate");
+            }
+            mergedKeys[i] = x.key;
+            mergedVals[i++] = x.val;
+        }
+        while (j < m) {
+            mergedKeys[i] = batchKeys[j];
+            mergedVals[i++] = batchVals[j++];
+        }
+        root = build(mergedKeys, mergedVals);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Key key(Object k) {
+        return (Key) k;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Value value(Object v) {
+        return (Value) v;
+    }
+
+    // sorts the pairs by key, keeping each value next to its key
+    private void sortPairs(Object[] keys, Object[] vals) {
+        Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> key(keys[a]).compareTo(key(keys[b])));
+        Object[] k = keys.clone();
+        Object[] v = vals.clone();
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = k[order[i]];
+            vals[i] = v[order[i]];
+        }
+    }
+
+    // builds a red-black tree holding the given pairs, which must be in strictly ascending key order, and returns
+    // its root. No key comparisons are made.
+    private Node build(Object[] keys, Object[] vals) {
+        int n = keys.length;
+        if (n == 0) {
+            return null;
+        }
+        // the tallest black height whose smallest tree (all 2-nodes) fits in n keys
+        int blackHeight = 31 - Integer.numberOfLeadingZeros(n + 1);
+        return build(keys, vals, 0, n, blackHeight);
+    }
+
+    // Builds a tree with the given black height out of the n pairs starting at lo. A tree of black height h holds
+    // between 2^h - 1 keys (all 2-nodes) and 3^h - 1 keys (all 3-nodes), and n must lie in that range. The root is
+    // made a 2-node if the remaining keys can be shared between two subtrees of height h - 1, otherwise a 3-node (a
+    // black node leaning on a red left child) is used with three subtrees.
+    private Node build(Object[] keys, Object[] vals, int lo, int n, int h) {
+        if (n == 0) {
+            return null;
+        }
+        long most = pow3(h - 1) - 1;   // the most keys a subtree of black height h - 1 can hold
+        int left = (n - 1) / 2;
+        int right = n - 1 - left;
+        if (right <= most) {
+            Node x = new Node(key(keys[lo + left]), value(vals[lo + left]), n, BLACK);
+            x.left = build(keys, vals, lo, left, h - 1);
+            x.right = build(keys, vals, lo + left + 1, right, h - 1);
+            return x;
+        }
+        int a = (n - 2) / 3;
+        int b = (n - 2 - a) / 2;
+        int c = n - 2 - a - b;
+        Node red = new Node(key(keys[lo + a]), value(vals[lo + a]), a + b + 1, RED);
+        red.left = build(keys, vals, lo, a, h - 1);
+        red.right = build(keys, vals, lo + a + 1, b, h - 1);
+        Node x = new Node(key(keys[lo + a + b + 1]), value(vals[lo + a + b + 1]), n, BLACK);
+        x.left = red;
+        x.right = build(keys, vals, lo + a + b + 2, c, h - 1);
+        return x;
+    }
+
+    private static long pow3(int e) {
+        long p = 1;
+        for (int i = 0; i < e; i++) {
+            p *= 3;
+        }
+        return p;
+    }
+
+    /*******************************************************************************************************************
+     * Snapshots
+     ******************************************************************************************************************/
+
+    /**
+     * writes every pair of the table to a file in the binary snapshot format of {@link SymbolTableSnapshot}
+     * @param file The file to write, anything it held before is replaced
+     * @param keyCodec Encodes the keys
+     * @param valueCodec Encodes the values
+     * @throws IOException if the file can not be written
+     * @throws InvalidParameterException if any argument is null
+     * @requirements This method should execute in O(n) time
+     */
+    public void save(Path file, BinaryCodec<Key> keyCodec, BinaryCodec<Value> valueCodec)
+            throws IOException, InvalidParameterException {
+        SymbolTableSnapshot.save(this, file, keyCodec, valueCodec);
+    }
+
+    /**
+     * Builds a symbol table from a file written by save. The file is memory mapped and, since its entries are already
+     * sorted, the tree is built straight from them without comparing any keys
+     * @param file The snapshot to read
+     * @param keyCodec Decodes the keys
+     * @param valueCodec Decodes the values
+     * @return a new balanced symbol table holding every pair of the snapshot
+     * @throws IOException if the file can not be read or is not a valid snapshot
+     * @throws InvalidParameterException if any argument is null
+     * @requirements This method should execute in O(n) time
+     */
+    public static <Key extends Comparable<Key>, Value> SymbolTable<Key, Value> load(Path file,
+                                                                                    BinaryCodec<Key> keyCodec,
+                                                                                    BinaryCodec<Value> valueCodec)
+            throws IOException, InvalidParameterException {
+        if (file == null || keyCodec == null || valueCodec == null) {
+            throw new InvalidParameterException("no file or codec was passed");
+        }
+        SymbolTableSnapshot.Mapping in = SymbolTableSnapshot.map(file);
+        int n = in.count();
+        Object[] keys = new Object[n];
+        Object[] vals = new Object[n];
+        SymbolTableSnapshot.readAll(in, keyCodec, valueCodec, keys, vals);
+        SymbolTable<Key, Value> st = new SymbolTable<>();
+        st.root = st.build(keys, vals);
+        return st;
+    }
+
+    /*******************************************************************************************************************
+     * Batched operations
+     ******************************************************************************************************************/
+
+    /**
+     * retrieves the values of several keys at once. The batch is sorted and the tree is walked a single time, each
+     * node splitting the remaining keys between its two subtrees, so keys that are close together share the part of
+     * their search path that they have in common. A missing key costs no more than one that is present
+     * @param keys The keys whose values should be returned
+     * @return A list holding, at each index, the value referenced by the key at the same index of keys, or null if
+     * that key does not exist in the table
+     * @throws InvalidParameterException if keys or any key in it is null
+     */
+    public List<Value> getAll(List<Key> keys) throws InvalidParameterException {
+        Object[] batch = toBatch(keys);
+        Object[] found = lookup(batch, sortedOrder(batch));
+        List<Value> values = new ArrayList<>(found.length);
+        for (Object v : found) {
+            values.add(value(v));
+        }
+        return values;
+    }
+
+    /**
+     * Removes several keys from the symbol table. Keys that do not exist in the table are skipped. When a large share
+     * of the table is removed the remaining keys are rebuilt into a new tree in one linear pass instead
+     * @param keys The keys which should be removed from the table
+     * @return the number of keys that were removed
+     * @throws InvalidParameterException if keys or any key in it is null
+     */
+    public int delAll(List<Key> keys) throws InvalidParameterException {
+        Object[] batch = toBatch(keys);
+        int[] order = sortedOrder(batch);
+        Object[] found = lookup(batch, order);
+
+        // the distinct keys of the batch that are in the table, in ascending order
+        Object[] doomed = new Object[batch.length];
+        int removed = 0;
+        for (int i : order) {
+            if (found[i] != null && (removed == 0 || key(batch[i]).compareTo(key(doomed[removed - 1])) != 0)) {
+                doomed[removed++] = batch[i];
+            }
+        }
+        if (removed == 0) {
+            return 0;
+        }
+
+        int n = size();
+        if ((long) removed * (33 - Integer.numberOfLeadingZeros(n)) < n) {
+            for (int i = 0; i < removed; i++) {
+                del(key(doomed[i]));
+            }
+            return removed;
+        }
+
+        Object[] keptKeys = new Object[n - removed];
+        Object[] keptVals = new Object[n - removed];
+        int i = 0, j = 0;
+        EntryIterator nodes = new EntryIterator();
+        while (nodes.hasNext()) {
+            Node x = nodes.nextNode();
+            if (j < removed && x.key.compareTo(key(doomed[j])) == 0) {
+                j++;
+            } else {
+                keptKeys[i] = x.key;
+                keptVals[i++] = x.val;
+            }
+        }
+        root = build(keptKeys, keptVals);
+        return removed;
+    }
+
+    // copies the keys into an array, rejecting null
+    private Object[] toBatch(List<Key> keys) {
+        if (keys == null) { throw new InvalidParameterException("no keys were passed"); }
+        Object[] batch = keys.toArray();
+        for (Object k : batch) {
+            if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        }
+        return batch;
+    }
+
+    // the indices of batch ordered by the keys they hold
+    private int[] sortedOrder(Object[] batch) {
+        int[] order = new int[batch.length];
+        boolean sorted = true;
+        for (int i = 0; i < batch.length; i++) {
+            order[i] = i;
+            if (i > 0 && key(batch[i]).compareTo(key(batch[i - 1])) < 0) {
+                sorted = false;
+            }
+        }
+        if (!sorted) {
+            Integer[] boxed = new Integer[batch.length];
+            for (int i = 0; i < boxed.length; i++) {
+                boxed[i] = i;
+            }
+            Arrays.sort(boxed, (a, b) -> key(batch[a]).compareTo(key(batch[b])));
+            for (int i = 0; i < boxed.length; i++) {
+                order[i] = boxed[i];
+            }
+        }
+        return order;
+    }
+
+    // Looks up every key of the batch in one walk of the tree and returns the value found for each index of batch,
+    // or null for keys that are not in the table. Each stack entry is a subtree together with the slice of order
+    // holding the batch keys that can only be found in it.
+    @SuppressWarnings("unchecked")
+    private Object[] lookup(Object[] batch, int[] order) {
+        Object[] found = new Object[batch.length];
+        Node[] nodes = (Node[]) new SymbolTable<?, ?>.Node[64];
+        int[] from = new int[64];
+        int[] to = new int[64];
+        int top = 0;
+        nodes[top] = root;
+        from[top] = 0;
+        to[top++] = batch.length;
+        while (top > 0) {
+            Node x = nodes[--top];
+            int lo = from[top];
+            int hi = to[top];
+            if (x == null || lo == hi) {
+                continue;
+            }
+            // the first batch key in the slice that is not below x.key
+            int mid = lo, end = hi;
+            while (mid < end) {
+                int m = (mid + end) >>> 1;
+                if (key(batch[order[m]]).compareTo(x.key) < 0) mid = m + 1;
+                else                                           end = m;
+            }
+            int after = mid;
+            while (after < hi && key(batch[order[after]]).compareTo(x.key) == 0) {
+                found[order[after++]] = x.val;
+            }
+            if (top + 2 > nodes.length) {
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                from = Arrays.copyOf(from, from.length * 2);
+                to = Arrays.copyOf(to, to.length * 2);
+            }
+            nodes[top] = x.right;
+            from[top] = after;
+            to[top++] = hi;
+            nodes[top] = x.left;
+            from[top] = lo;
+            to[top++] = mid;
+        }
+        return found;
+    }
+
+    /*******************************************************************************************************************
+     * Split and join
+     ******************************************************************************************************************/
+
+    /**
+     * Moves every key greater than or equal to {@code key} out of this table into a new table. The tree is cut along
+     * the search path for key and the pieces are joined back together, so no key is copied or compared beyond that
+     * path
+     * @param key The smallest key that should be moved
+     * @return a table holding every key of this table that is not less than key, this table keeps the smaller keys
+     * @throws InvalidParameterException if key is null
+     * @requirements This method should execute in O(log n) time
+     */
+    public SymbolTable<Key, Value> split(Key key) throws InvalidParameterException {
+        if (key == null) { throw new InvalidParameterException("no key was passed"); }
+        SymbolTable<Key, Value> greater = new SymbolTable<>();
+        if (root != null) {
+            Tree[] pieces = split(root, blackHeight(), key, true);
+            root = pieces[0].root;
+            greater.root = pieces[1].root;
+        }
+        return greater;
+    }
+
+    /**
+     * Moves every pair of other into this table, where every key of other must be greater than every key of this
+     * table. The two trees are linked where their black heights match, other is left empty
+     * @param other The table holding the greater keys
+     * @throws InvalidParameterException if other is null or this table, or if a key of other is not greater than
+     * every key of this table
+     * @requirements This method should execute in O(log n) time
+     */
+    public void join(SymbolTable<Key, Value> other) throws InvalidParameterException {
+        if (other == null || other == this) { throw new InvalidParameterException("no other table was passed"); }
+        if (other.root == null) return;
+        if (root != null && max().compareTo(other.min()) >= 0) {
+            throw new InvalidParameterException("the keys of the joined table must be greater");
+        }
+        // the smallest pair of other becomes the node that links the two trees
+        Node min = getMin(other.root);
+        Node middle = new Node(min.key, min.val, 1, RED);
+        other.del(min.key);
+        root = join(new Tree(root, blackHeight()), middle, new Tree(other.root, other.blackHeight())).root;
+        other.root = null;
+    }
+
+    /**
+     * Moves every pair of other into this table. Where both tables hold a key, the value of this table is kept and the
+     * pair of other is dropped. other is split along the keys of this tree and the pieces are joined back together,
+     * other is left empty
+     * @param other The table to merge into this one
+     * @throws InvalidParameterException if other is null or this table
+     * @requirements This method should execute in O(m log(n / m + 1)) time, where m is the size of the smaller table
+     */
+    public void union(SymbolTable<Key, Value> other) throws InvalidParameterException {
+        if (other == null || other == this) { throw new InvalidParameterException("no other table was passed"); }
+        root = union(new Tree(root, blackHeight()), new Tree(other.root, other.blackHeight())).root;
+        other.root = null;
+    }
+
+    // a subtree with a black root together with its black height, the number of black nodes on any path from its root
+    // to a null link
+    private final class Tree {
+        final Node root;
+        final int height;
+
+        Tree(Node root, int height) {
+            this.root = root;
+            this.height = height;
+        }
+    }
+
+    // turns the subtree x of black height h into a tree, a red root is made black which adds one to its height
+    private Tree tree(Node x, int h) {
+        if (isRed(x)) {
+            x.color = BLACK;
+            h++;
+        }
+        return new Tree(x, h);
+    }
+
+    // Splits the subtree x of black height h into a tree of the keys less than key and one of the keys greater than
+    // key. The node holding key itself goes to the greater tree if keepEqual is set and is dropped otherwise. Every
+    // subtree hanging off the search path is joined to one side along with the node it hung from.
+    private Tree[] split(Node x, int h, Key key, boolean keepEqual) {
+        if (x == null) {
+            return pair(new Tree(null, 0), new Tree(null, 0));
+        }
+        int childHeight = isRed(x) ? h : h - 1;
+        Node left = x.left, right = x.right;
+        int cmp = key.compareTo(x.key);
+        if (cmp == 0) {
+            Tree greater = tree(right, childHeight);
+            return pair(tree(left, childHeight), keepEqual ? join(new Tree(null, 0), x, greater) : greater);
+        }
+        if (cmp < 0) {
+            Tree[] pieces = split(left, childHeight, key, keepEqual);
+            return pair(pieces[0], join(pieces[1], x, tree(right, childHeight)));
+        }
+        Tree[] pieces = split(right, childHeight, key, keepEqual);
+        return pair(join(tree(left, childHeight), x, pieces[0]), pieces[1]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Tree[] pair(Tree less, Tree greater) {
+        return (Tree[]) new SymbolTable<?, ?>.Tree[] { less, greater };
+    }
+
+    // the union of the trees a and b, keeping the node of a where both hold a key
+    private Tree union(Tree a, Tree b) {
+        if (a.root == null) return b;
+        if (b.root == null) return a;
+        Node x = a.root;
+        Tree[] pieces = split(b.root, b.height, x.key, false);
+        Tree left = union(tree(x.left, a.height - 1), pieces[0]);
+        Tree right = union(tree(x.right, a.height - 1), pieces[1]);
+        return join(left, x, right);
+    }
+
+    // Joins the trees l and r with the node middle between them, every key of l must be less than middle's and every
+    // key of r greater. middle is hung as a red node beside the subtree of the taller tree whose black height matches
+    // the shorter tree, and the path above it is rebalanced as after an insertion. This takes O(|l.height - r.height|
+    // + 1) time.
+    private Tree join(Tree l, Node middle, Tree r) {
+        middle.color = RED;
+        Node joined;
+        if (l.height >= r.height) {
+            joined = joinRight(l.root, l.height, middle, r.root, r.height);
+        } else {
+            joined = joinLeft(l.root, l.height, middle, r.root, r.height);
+        }
+        return tree(joined, Math.max(l.height, r.height));
+    }
+
+    // hangs middle and r on the right spine of l, where every node is black
+    private Node joinRight(Node l, int hl, Node middle, Node r, int hr) {
+        if (hl == hr) {
+            return link(l, middle, r);
+        }
+        l.right = joinRight(l.right, hl - 1, middle, r, hr);
+        return balance(l);
+    }
+
+    // hangs l and middle on the left spine of r, stopping at a black node since the node above it may be red
+    private Node joinLeft(Node l, int hl, Node middle, Node r, int hr) {
+        if (hl == hr && !isRed(r)) {
+            return link(l, middle, r);
+        }
+        r.left = joinLeft(l, hl, middle, r.left, isRed(r) ? hr : hr - 1);
+        return balance(r);
+    }
+
+    private Node link(Node left, Node middle, Node right) {
+        middle.left = left;
+        middle.right = right;
+        middle.size = size(left) + size(right) + 1;
+        return middle;
+    }
+
+    /*******************************************************************************************************************
+     * Ordered symbol table operations
+     ******************************************************************************************************************/
+
+    /**
+     * returns the smallest key in the table
+     * @return the smallest key in the table
+     * @throws NoSuchElementException if the table is empty
+     */
+    public Key min() throws NoSuchElementException {
+        if (isEmpty()) { throw new NoSuchElementException("min called on an empty table"); }
+        return getMin(root).key;
+    }
+
+    /**
+     * returns the largest key in the table
+     * @return the largest key in the table
+     * @throws NoSuchElementException if the table is empty
+     */
+    public Key max() throws NoSuchElementException {
+        if (isEmpty()) { throw new NoSuchElementException("max called on an empty table"); }
+        Node x = root;
+        while (x.right != null) {
+            x = x.right;
+        }
+        return x.key;
+    }
+
+    /**
+     * returns the largest key in the table that is less than or equal to k
+     * @param k The key to search for
+     * @return the largest key in the table less than or equal to k
+     * @throws NoSuchElementException if every key in the table is greater than k
+     * @throws InvalidParameterException if k is null
+     */
+    public Key floor(Key k) throws NoSuchElementException, InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        Node best = null;
+        Node x = root;
+        while (x != null) {
+            int compareDiff = k.compareTo(x.key);
+            if (compareDiff == 0) {
+                return x.key;
+            } else if (compareDiff < 0) {
+                x = x.left;
+            } else {
+                best = x;
+                x = x.right;
+            }
+        }
+        if (best == null) { throw new NoSuchElementException("no key in the table is less than or equal to " + k); }
+        return best.key;
+    }
+
+    /**
+     * returns the smallest key in the table that is greater than or equal to k
+     * @param k The key to search for
+     * @return the smallest key in the table greater than or equal to k
+     * @throws NoSuchElementException if every key in the table is less than k
+     * @throws InvalidParameterException if k is null
+     */
+    public Key ceiling(Key k) throws NoSuchElementException, InvalidParameterException {
+        if (k == null) { throw new InvalidParameterException("no key was passed"); }
+        Node best = null;
+        Node x = root;
+        while (x != null) {
+            int compareDiff = k.compareTo(x.key);
+            if (compareDiff == 0) {
+                return x.key;
+            } else if (compareDiff > 0) {
+                x = x.right;
+            } else {
+                best = x;
+                x = x.left;
+            }
+        }
+        if (best == null) { throw new NoSuchElementException("no key in the table is greater than or equal to " + k); }
+        return best.key;
+    }
+
+    /**
+     * returns the number of keys in the table between lo and hi (inclusive)
+     * @param lo The lower bound of the range
+     * @param hi The upper bound of the range
+     * @return the number of keys in [lo, hi], 0 if lo is greater than hi
+     * @throws InvalidParameterException if lo or hi is null
+     * @requirements This method should execute in O(log n) time
+     */
+    public int size(Key lo, Key hi) throws InvalidParameterException {
+        if (lo == null || hi == null) { throw new InvalidParameterException("no key was passed"); }
+        if (lo.compareTo(hi) > 0) {
+            return 0;
+        }
+        int count = rank(hi) - rank(lo);
+        return getNode(hi) != null ? count + 1 : count;
+    }
+
+    /**
+     * returns the keys in the table between lo and hi (inclusive) in ascending order. The keys are produced lazily
+     * as the result is iterated, the table must not be modified while iterating
+     * @param lo The lower bound of the range
+     * @param hi The upper bound of the range
+     * @return an iterable over the keys in [lo, hi]
+     * @throws InvalidParameterException if lo or hi is null
+     * @requirements Iterating k keys should take O(log n + k) time
+     */
+    public Iterable<Key> keys(Key lo, Key hi) throws InvalidParameterException {
+        if (lo == null || hi == null) { throw new InvalidParameterException("no key was passed"); }
+        return () -> new KeyIterator(lo, hi);
+    }
+
+    /*******************************************************************************************************************
+     * Structure metrics
+     ******************************************************************************************************************/
+
+    /**
+     * returns the height of the tree, the number of links on the longest path from the root to a node
+     * @return the height of the tree, 0 for a single node and -1 if the table is empty
+     * @requirements This method should execute in O(n) time
+     */
+    public int height() {
+        return (int) depthTotals()[0];
+    }
+
+    /**
+     * returns the average number of links from the root to a node, which is the expected number of extra comparisons a
+     * successful search makes after comparing with the root
+     * @return the average depth of the nodes of the tree, 0 if the table is empty
+     * @requirements This method should execute in O(n) time
+     */
+    public double averageDepth() {
+        return isEmpty() ? 0.0 : (double) depthTotals()[1] / size();
+    }
+
+    // walks the tree once with an explicit stack, returning the deepest depth and the sum of the depths of all nodes
+    @SuppressWarnings("unchecked")
+    private long[] depthTotals() {
+        long max = -1, sum = 0;
+        Node[] stack = (Node[]) new SymbolTable<?, ?>.Node[64];
+        int[] depths = new int[64];
+        int top = 0;
+        if (root != null) {
+            stack[top] = root;
+            depths[top++] = 0;
+        }
+        while (top > 0) {
+            Node x = stack[--top];
+            int d = depths[top];
+            max = Math.max(max, d);
+            sum += d;
+            if (top + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+                depths = Arrays.copyOf(depths, depths.length * 2);
+            }
+            if (x.right != null) { stack[top] = x.right; depths[top++] = d + 1; }
+            if (x.left != null)  { stack[top] = x.left;  depths[top++] = d + 1; }
+        }
+        return new long[] { max, sum };
+    }
+
+    /*******************************************************************************************************************
+     * Validation
+     ******************************************************************************************************************/
+
+    /* the rank of the next node validateNext will check */
+    private int validationCursor = 0;
+
+    /**
+     * checks in a single in-order pass that the tree is in symmetric order, that every subtree count is correct, that
+     * the rank of every node matches its position and that the red-black invariants hold. It checks the same things as
+     * check() plus the colors, without printing anything
+     * @return true if the tree is a valid left-leaning red-black tree, otherwise false
+     * @requirements This method should execute in O(n) time
+     */
+    @SuppressWarnings("unchecked")
+    public boolean validate() {
+        if (root == null) return true;
+        if (isRed(root)) return false;
+        int black = blackHeight();
+
+        // each stack entry is a node, the rank of the first key of its subtree and the black nodes from the root to it
+        Node[] nodes = (Node[]) new SymbolTable<?, ?>.Node[64];
+        int[] firstRank = new int[64];
+        int[] blacks = new int[64];
+        int top = 0;
+        int index = 0;
+        Key previous = null;
+        Node x = root;
+        int lo = 0, b = 0;
+        while (true) {
+            for (; x != null; x = x.left) {
+                b += isRed(x) ? 0 : 1;
+                if (isRed(x.right) || (isRed(x) && isRed(x.left))) return false;
+                if ((x.left == null || x.right == null) && b != black) return false;
+                if (top == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, top * 2);
+                    firstRank = Arrays.copyOf(firstRank, top * 2);
+                    blacks = Arrays.copyOf(blacks, top * 2);
+                }
+                nodes[top] = x;
+                firstRank[top] = lo;
+                blacks[top++] = b;
+            }
+            if (top == 0) break;
+            x = nodes[--top];
+            lo = firstRank[top];
+            b = blacks[top];
+            nodes[top] = null;
+
+            if (x.size != size(x.left) + size(x.right) + 1) return false;
+            if (index != lo + size(x.left)) return false;
+            if (previous != null && previous.compareTo(x.key) >= 0) return false;
+            previous = x.key;
+            index++;
+
+            lo = lo + size(x.left) + 1;
+            x = x.right;
+        }
+        return index == size(root);
+    }
+
+    /**
+     * checks a bounded number of nodes, continuing from where the previous call stopped and wrapping around once every
+     * rank has been checked, so that calling it regularly validates a large table a little at a time. Each node is
+     * found by its rank and checked against the keys, counts and colors on its path from the root, so after a full
+     * round every node has been checked for symmetric order, a correct subtree count, a consistent rank and the
+     * red-black invariants
+     * @param nodes The number of nodes to check
+     * @return true if every checked node is valid, otherwise false
+     * @throws InvalidParameterException if nodes is negative
+     * @requirements This method should execute in O(nodes log n) time
+     */
+    public boolean validateNext(int nodes) throws InvalidParameterException {
+        if (nodes < 0) { throw new InvalidParameterException("nodes can not be negative"); }
+        if (root == null) return true;
+        if (isRed(root)) return false;
+        int black = blackHeight();
+        for (int i = 0; i < nodes && i < size(); i++) {
+            if (validationCursor >= size()) {
+                validationCursor = 0;
+            }
+            if (!validateRank(validationCursor++, black)) return false;
+        }
+        return true;
+    }
+
+    // walks from the root to the node of the given rank using the subtree counts, checking every node on the way
+    private boolean validateRank(int rank, int black) {
+        Key min = null, max = null;
+        Node x = root;
+        int b = 0;
+        int r = rank;
+        while (x != null) {
+            if (min != null && x.key.compareTo(min) <= 0) return false;
+            if (max != null && x.key.compareTo(max) >= 0) return false;
+            if (x.size != size(x.left) + size(x.right) + 1) return false;
+            if (isRed(x.right) || (isRed(x) && isRed(x.left))) return false;
+            b += isRed(x) ? 0 : 1;
+            int leftSize = size(x.left);
+            if (leftSize > r) {
+                max = x.key;
+                x = x.left;
+            } else if (leftSize < r) {
+                r = r - leftSize - 1;
+                min = x.key;
+                x = x.right;
+            } else {
+                if ((x.left == null || x.right == null) && b != black) return false;
+                return rank(x.key) == rank;
+            }
+        }
+        return false;
+    }
+
+    // the number of black nodes on the path from the root to the smallest key
+    private int blackHeight() {
+        int black = 0;
+        for (Node x = root; x != null; x = x.left) {
+            if (!isRed(x)) black++;
+        }
+        return black;
+    }
+
+    /*******************************************************************************************************************
+     * Parallel operations
+     ******************************************************************************************************************/
+
+    /* subtrees with at most this many nodes are processed by a single task */
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 12;
+
+    /**
+     * returns a spliterator over the keys in ascending order. It splits by rank, using the subtree counts, so both
+     * halves of a split know their exact size and a parallel stream over it divides the table evenly between threads.
+     * The tree must not be modified while the spliterator is in use
+     * @return a SIZED, SUBSIZED, ORDERED, SORTED, DISTINCT and NONNULL spliterator over the keys
+     */
+    public Spliterator<Key> spliterator() {
+        return new RankSpliterator<>(0, size(), x -> x.key, null);
+    }
+
+    /**
+     * returns a spliterator over the key/value pairs in ascending key order, see {@link #spliterator()}. Each entry is
+     * an immutable copy of its pair, so collected entries are not affected by later updates to the table
+     * @return a SIZED, SUBSIZED, ORDERED, SORTED, DISTINCT and NONNULL spliterator over the entries
+     */
+    public Spliterator<Map.Entry<Key, Value>> entrySpliterator() {
+        return new RankSpliterator<>(0, size(), x -> new AbstractMap.SimpleImmutableEntry<>(x.key, x.val),
+                Map.Entry.comparingByKey());
+    }
+
+    /**
+     * Performs the given action on every key/value pair in the table, splitting the tree into subtrees that are
+     * processed in parallel in the common fork join pool. The pairs are not visited in any particular order and the
+     * action may be called from several threads at once. The tree must not be modified until the call returns
+     * @param action The action to be performed for each key and its value
+     * @throws InvalidParameterException if action is null
+     */
+    public void parallelForEach(BiConsumer<? super Key, ? super Value> action) throws InvalidParameterException {
+        if (action == null) { throw new InvalidParameterException("no action was passed"); }
+        if (root != null) {
+            ForkJoinPool.commonPool().invoke(new ForEachTask(root, action));
+        }
+    }
+
+    /**
+     * Transforms every key/value pair and combines the results, splitting the tree into subtrees that are processed
+     * in parallel in the common fork join pool. Results are combined in ascending key order, so reducer only has to be
+     * associative, not commutative. Pairs the transformer maps to null are skipped. The tree must not be modified
+     * until the call returns
+     * @param transformer The function applied to each key and its value
+     * @param reducer The associative function that combines two results
+     * @param <U> The type of the result
+     * @return the combination of every non null result of transformer, or null if there is none
+     * @throws InvalidParameterException if transformer or reducer is null
+     */
+    public <U> U parallelReduce(BiFunction<? super Key, ? super Value, ? extends U> transformer,
+                                BinaryOperator<U> reducer) throws InvalidParameterException {
+        if (transformer == null || reducer == null) {
+            throw new InvalidParameterException("no transformer or reducer was passed");
+        }
+        if (root == null) {
+            return null;
+        }
+        return ForkJoinPool.commonPool().invoke(new ReduceTask<>(root, transformer, reducer));
+    }
+
+    // Covers the keys whose rank lies in [lo, hi). A split hands the lower half of the range to a new spliterator, the
+    // traversal of the remaining range starts by finding the node of rank lo, which takes O(log n) time.
+    private final class RankSpliterator<T> implements Spliterator<T> {
+        private int lo;
+        private final int hi;
+        private final Function<Node, T> element;
+        private final Comparator<? super T> comparator;  /* null for the natural order of the keys */
+        private EntryIterator nodes;                      /* created by the first traversal */
+
+        RankSpliterator(int lo, int hi, Function<Node, T> element, Comparator<? super T> comparator) {
+            this.lo = lo;
+            this.hi = hi;
+            this.element = element;
+            this.comparator = comparator;
+        }
+
+        private Node nextNode() {
+            if (nodes == null) {
+                nodes = new EntryIterator(lo);
+            }
+            lo++;
+            return nodes.nextNode();
+        }
+
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (action == null) { throw new InvalidParameterException("no action was passed"); }
+            if (lo >= hi) {
+                return false;
+            }
+            action.accept(element.apply(nextNode()));
+            return true;
+        }
+
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (action == null) { throw new InvalidParameterException("no action was passed"); }
+            while (lo < hi) {
+                action.accept(element.apply(nextNode()));
+            }
+        }
+
+        public Spliterator<T> trySplit() {
+            int mid = (lo + hi) >>> 1;
+            if (mid <= lo) {
+                return null;
+            }
+            Spliterator<T> prefix = new RankSpliterator<>(lo, mid, element, comparator);
+            lo = mid;
+            nodes = null;
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return hi - lo;
+        }
+
+        public int characteristics() {
+            return SIZED | SUBSIZED | ORDERED | SORTED | DISTINCT | NONNULL;
+        }
+
+        public Comparator<? super T> getComparator() {
+            return comparator;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private final class ForEachTask extends RecursiveAction {
+        private final Node x;
+        private final BiConsumer<? super Key, ? super Value> action;
+
+        ForEachTask(Node x, BiConsumer<? super Key, ? super Value> action) {
+            this.x = x;
+            this.action = action;
+        }
+
+        protected void compute() {
+            if (x.size <= SEQUENTIAL_THRESHOLD) {
+                visit(x);
+                return;
+            }
+            ForEachTask left = x.left == null ? null : new ForEachTask(x.left, action);
+            if (left != null) left.fork();
+            action.accept(x.key, x.val);
+            if (x.right != null) new ForEachTask(x.right, action).compute();
+            if (left != null) left.join();
+        }
+
+        private void visit(Node h) {
+            if (h == null) return;
+            visit(h.left);
+            action.accept(h.key, h.val);
+            visit(h.right);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private final class ReduceTask<U> extends RecursiveTask<U> {
+        private final Node x;
+        private final BiFunction<? super Key, ? super Value, ? extends U> transformer;
+        private final BinaryOperator<U> reducer;
+
+        ReduceTask(Node x, BiFunction<? super Key, ? super Value, ? extends U> transformer, BinaryOperator<U> reducer) {
+            this.x = x;
+            this.transformer = transformer;
+            this.reducer = reducer;
+        }
+
+        protected U compute() {
+            if (x.size <= SEQUENTIAL_THRESHOLD) {
+                return reduce(x);
+            }
+            ReduceTask<U> left = x.left == null ? null : new ReduceTask<>(x.left, transformer, reducer);
+            if (left != null) left.fork();
+            U result = transformer.apply(x.key, x.val);
+            if (x.right != null) result = combine(result, new ReduceTask<>(x.right, transformer, reducer).compute());
+            return left == null ? result : combine(left.join(), result);
+        }
+
+        private U reduce(Node h) {
+            if (h == null) return null;
+            U result = combine(reduce(h.left), transformer.apply(h.key, h.val));
+            return combine(result, reduce(h.right));
+        }
+
+        private U combine(U a, U b) {
+            if (a == null) return b;
+            if (b == null) return a;
+            return reducer.apply(a, b);
+        }
     }
 
     /*******************************************************************************************************************
@@ -253,11 +1588,14 @@ public class SymbolTable<Key extends Comparable<Key>, Value> implements ISymbolT
 
     // Number of keys in the subtree less than key.
     private int rank(Key key, Node x) {
-        if (x == null) return 0;
-        int cmp = key.compareTo(x.key);
-        if      (cmp < 0) return rank(key, x.left);
-        else if (cmp > 0) return 1 + size(x.left) + rank(key, x.right);
-        else              return size(x.left);
+        int r = 0;
+        while (x != null) {
+            int cmp = key.compareTo(x.key);
+            if      (cmp < 0) x = x.left;
+            else if (cmp > 0) { r += 1 + size(x.left); x = x.right; }
+            else              return r + size(x.left);
+        }
+        return r;
     }
 
     public Key select(int rank) {
@@ -270,10 +1608,12 @@ public class SymbolTable<Key extends Comparable<Key>, Value> implements ISymbolT
     // Return key in BST rooted at x of given rank.
     // Precondition: rank is in legal range.
     private Key select(Node x, int rank) {
-        if (x == null) return null;
-        int leftSize = size(x.left);
-        if      (leftSize > rank) return select(x.left,  rank);
-        else if (leftSize < rank) return select(x.right, rank - leftSize - 1);
-        else                      return x.key;
+        while (x != null) {
+            int leftSize = size(x.left);
+            if      (leftSize > rank) x = x.left;
+            else if (leftSize < rank) { rank = rank - leftSize - 1; x = x.right; }
+            else                      return x.key;
+        }
+        return null;
     }
 }
@@ -0,0 +1,125 @@
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.security.InvalidParameterException;
+
+/**
+ * Publishes the counters, latencies and structural gauges of an {@link InstrumentedSymbolTable} as a JMX MBean so they
+ * can be watched with jconsole or collected by a monitoring agent, for example to alert when the height of the tree
+ * grows past 2 lg n.
+ */
+public class SymbolTableMetrics implements SymbolTableMetricsMBean {
+    private final InstrumentedSymbolTable<?, ?> table;
+
+    /**
+     * @param table The table whose metrics should be exposed
+     * @throws InvalidParameterException if table is null
+     */
+    public SymbolTableMetrics(InstrumentedSymbolTable<?, ?> table) throws InvalidParameterException {
+        if (table == null) { throw new InvalidParameterException("no table was passed"); }
+        this.table = table;
+    }
+
+    /**
+     * registers the metrics of a table with the platform MBean server
+     * @param table The table whose metrics should be exposed
+     * @param name Tells tables apart, it becomes the name key of the object name
+     * @return the object name the MBean was registered under, {@code symboltable:type=SymbolTable,name=<name>}
+     * @throws InvalidParameterException if table or name is null, if name is not valid in an object name or if an
+     * MBean is already registered under it
+     */
+    public static ObjectName register(InstrumentedSymbolTable<?, ?> table, String name)
+            throws InvalidParameterException {
+        if (name == null) { throw new InvalidParameterException("no name was passed"); }
+        try {
+            ObjectName objectName = new ObjectName("symboltable:type=SymbolTable,name=" + name);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new SymbolTableMetrics(table), objectName);
+            return objectName;
+        } catch (MalformedObjectNameException | InstanceAlreadyExistsException | MBeanRegistrationException
+                 | NotCompliantMBeanException e) {
+            throw new InvalidParameterException("could not register the metrics as " + name + ": " + e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return table.isEnabled();
+    }
+
+    public void setEnabled(boolean enabled) {
+        table.setEnabled(enabled);
+    }
+
+    public long getPutCount() {
+        return table.latencies(InstrumentedSymbolTable.Operation.PUT).count();
+    }
+
+    public long getGetCount() {
+        return table.latencies(InstrumentedSymbolTable.Operation.GET).count();
+    }
+
+    public long getDelCount() {
+        return table.latencies(InstrumentedSymbolTable.Operation.DEL).count();
+    }
+
+    public long getContainsCount() {
+        return table.latencies(InstrumentedSymbolTable.Operation.CONTAINS).count();
+    }
+
+    public long getHitCount() {
+        return table.hits();
+    }
+
+    public long getMissCount() {
+        return table.misses();
+    }
+
+    public double getHitRatio() {
+        long hits = table.hits();
+        long lookups = hits + table.misses();
+        return lookups == 0 ? Double.NaN : (double) hits / lookups;
+    }
+
+    public long getFailureCount() {
+        return table.failures();
+    }
+
+    public int getSize() {
+        return table.sampledSize();
+    }
+
+    public int getHeight() {
+        return table.height();
+    }
+
+    public double getAverageDepth() {
+        return table.averageDepth();
+    }
+
+    public long latencyPercentile(String operation, double percentile) {
+        return histogram(operation).valueAtPercentile(percentile);
+    }
+
+    public double meanLatency(String operation) {
+        return histogram(operation).mean();
+    }
+
+    public long maxLatency(String operation) {
+        return histogram(operation).max();
+    }
+
+    public void reset() {
+        table.reset();
+    }
+
+    private LatencyHistogram histogram(String operation) {
+        if (operation == null) { throw new InvalidParameterException("no operation was passed"); }
+        try {
+            return table.latencies(InstrumentedSymbolTable.Operation.valueOf(operation.toUpperCase()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException("unknown operation: " + operation);
+        }
+    }
+}
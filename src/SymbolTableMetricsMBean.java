@@ -0,0 +1,43 @@
+/**
+ * The management interface through which {@link SymbolTableMetrics} exposes an {@link InstrumentedSymbolTable} over
+ * JMX. Latencies are in nanoseconds, the operation names are those of {@link InstrumentedSymbolTable.Operation}.
+ */
+public interface SymbolTableMetricsMBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getPutCount();
+
+    long getGetCount();
+
+    long getDelCount();
+
+    long getContainsCount();
+
+    long getHitCount();
+
+    long getMissCount();
+
+    /* the fraction of lookups that found their key, NaN before the first lookup */
+    double getHitRatio();
+
+    long getFailureCount();
+
+    /* the structural gauges. The size is that after the last update, the height and average depth are those of the
+       last sample taken by the table (see InstrumentedSymbolTable), -1 and NaN for a table that does not implement
+       TreeStructure */
+    int getSize();
+
+    int getHeight();
+
+    double getAverageDepth();
+
+    long latencyPercentile(String operation, double percentile);
+
+    double meanLatency(String operation);
+
+    long maxLatency(String operation);
+
+    void reset();
+}
@@ -0,0 +1,249 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.InvalidParameterException;
+import java.util.Map;
+
+/**
+ * Reads and writes the binary snapshot format that symbol tables are saved in. A snapshot holds the pairs of a table
+ * in ascending key order so that it can be loaded back without comparing keys:
+ * <pre>
+ *   header   magic "SYMT" (int), format version (int), number of entries n (long)
+ *   offsets  n longs, the position in the file of each entry
+ *   entries  n times: the key then the value, each encoded by its {@link BinaryCodec}
+ * </pre>
+ * All numbers are big-endian. The offset table lets a reader jump straight to the entry of any rank. A snapshot is
+ * mapped in 1GB chunks (see {@link Mapping}), so it may be larger than a single mapped buffer can cover.
+ */
+public final class SymbolTableSnapshot {
+    static final int MAGIC = 0x53594D54;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    private static final int BUFFER_BYTES = 1 << 16;
+    /* a mapped snapshot is split into chunks of 2^CHUNK_BITS bytes */
+    private static final int CHUNK_BITS = 30;
+
+    private SymbolTableSnapshot() { }
+
+    /**
+     * writes every pair of a table to a file in the snapshot format, replacing anything the file held before, and
+     * forces it to the storage device
+     * @param table The table to save
+     * @param file The file to write
+     * @param keyCodec Encodes the keys
+     * @param valueCodec Encodes the values
+     * @throws IOException if the file can not be written
+     * @throws InvalidParameterException if any argument is null
+     * @requirements This method should execute in O(n) time
+     */
+    public static <Key, Value> void save(ISymbolTable<Key, Value> table, Path file, BinaryCodec<Key> keyCodec,
+                                         BinaryCodec<Value> valueCodec) throws IOException, InvalidParameterException {
+        if (table == null || file == null || keyCodec == null || valueCodec == null) {
+            throw new InvalidParameterException("no table, file or codec was passed");
+        }
+        int n = table.size();
+        long[] offsets = new long[n];
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            // the entries go first, after room for the header and offsets, which are only known once they are written
+            long position = HEADER_BYTES + (long) n * Long.BYTES;
+            channel.position(position);
+            int i = 0;
+            for (Map.Entry<Key, Value> e : table.entries()) {
+                if (i == n) { throw new IllegalStateException("the table was modified while it was being saved"); }
+                int length = keyCodec.size(e.getKey()) + valueCodec.size(e.getValue());
+                ByteBuffer out = buffer;
+                if (length > buffer.remaining()) {
+                    flush(buffer, channel);
+                    if (length > buffer.capacity()) {
+                        out = ByteBuffer.allocate(length);
+                    }
+                }
+                keyCodec.write(e.getKey(), out);
+                valueCodec.write(e.getValue(), out);
+                if (out != buffer) {
+                    flush(out, channel);
+                }
+                offsets[i++] = position;
+                position += length;
+            }
+            if (i != n) { throw new IllegalStateException("the table was modified while it was being saved"); }
+            flush(buffer, channel);
+
+            channel.position(0);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(n);
+            for (long offset : offsets) {
+                if (buffer.remaining() < Long.BYTES) {
+                    flush(buffer, channel);
+                }
+                buffer.putLong(offset);
+            }
+            flush(buffer, channel);
+            channel.force(true);
+        }
+    }
+
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * maps a snapshot file into memory read only, checking its header and that every entry of its offset table lies
+     * inside the file
+     * @param file The snapshot to map
+     * @return the mapped file
+     * @throws IOException if the file can not be read or is not a valid snapshot
+     */
+    static Mapping map(Path file) throws IOException {
+        return map(file, CHUNK_BITS);
+    }
+
+    // maps the file in chunks of 2^chunkBits bytes, smaller chunks than the default are only used by the tests
+    static Mapping map(Path file, int chunkBits) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+            buffer.limit(HEADER_BYTES);
+            read(buffer, channel, 0);
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                throw new IOException("not a symbol table snapshot: " + file);
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("unsupported snapshot version " + buffer.getInt(4) + ": " + file);
+            }
+            long n = buffer.getLong(8);
+            long first = HEADER_BYTES + n * Long.BYTES;
+            if (n < 0 || n > Integer.MAX_VALUE || first > length) {
+                throw new IOException("snapshot is corrupt, it can not hold " + n + " entries: " + file);
+            }
+            buffer.position(HEADER_BYTES);
+
+            // the entries are stored back to back in rank order, so each offset must follow the one before it and
+            // the gaps between them are the entry lengths
+            long position = HEADER_BYTES;
+            long previous = first;
+            long largest = Long.BYTES;
+            for (long i = 0; i < n; i++) {
+                if (buffer.remaining() < Long.BYTES) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(BUFFER_BYTES, first - position));
+                    position += read(buffer, channel, position);
+                }
+                long offset = buffer.getLong();
+                if (offset < previous || offset > length || (i == 0 && offset != first)) {
+                    throw new IOException("snapshot is corrupt, entry " + i + " is at " + offset + ": " + file);
+                }
+                largest = Math.max(largest, offset - previous);
+                previous = offset;
+            }
+            largest = Math.max(largest, length - previous);
+
+            long chunk = 1L << chunkBits;
+            if (chunk + largest > Integer.MAX_VALUE) {
+                throw new IOException("snapshot holds an entry of " + largest + " bytes, too large to map: " + file);
+            }
+            MappedByteBuffer[] chunks = new MappedByteBuffer[(int) (length >>> chunkBits) + 1];
+            for (int i = 0; i < chunks.length; i++) {
+                long start = (long) i << chunkBits;
+                long size = Math.min(chunk + largest, length - start);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+            }
+            return new Mapping(chunks, chunkBits, (int) n);
+        }
+    }
+
+    // fills buffer from the channel starting at position, returning the number of bytes read and leaving the buffer
+    // flipped for reading
+    private static int read(ByteBuffer buffer, FileChannel channel, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        buffer.flip();
+        return total;
+    }
+
+    /**
+     * A snapshot file mapped read only as a series of buffers, since a single buffer can not cover more than 2GB.
+     * Chunk i starts at byte i * 2^chunkBits of the file and runs on into the next chunk by the length of the largest
+     * entry, so any entry or offset can be read whole from the chunk that its first byte falls in. Positions in the
+     * file are longs, {@link #chunk(long)} and {@link #index(long)} turn one into a buffer and an index into it.
+     */
+    static final class Mapping {
+        private final MappedByteBuffer[] chunks;
+        private final int chunkBits;
+        private final long mask;
+        private final int n;    /* The number of entries in the snapshot */
+
+        private Mapping(MappedByteBuffer[] chunks, int chunkBits, int n) {
+            this.chunks = chunks;
+            this.chunkBits = chunkBits;
+            this.mask = (1L << chunkBits) - 1;
+            this.n = n;
+        }
+
+        /* the number of entries in the snapshot */
+        int count() {
+            return n;
+        }
+
+        /* the position in the file of the entry of the given rank */
+        long offset(int rank) {
+            long position = HEADER_BYTES + (long) rank * Long.BYTES;
+            return chunk(position).getLong(index(position));
+        }
+
+        /* the chunk holding the given position of the file */
+        ByteBuffer chunk(long position) {
+            return chunks[(int) (position >>> chunkBits)];
+        }
+
+        /* the index of the given position of the file in its chunk */
+        int index(long position) {
+            return (int) (position & mask);
+        }
+    }
+
+    /**
+     * decodes every entry of a mapped snapshot in order
+     * @param in A file returned by map
+     * @param keys Receives the keys, it must have in.count() slots
+     * @param vals Receives the values, it must have in.count() slots
+     * @throws IOException if an entry can not be decoded
+     */
+    static <Key, Value> void readAll(Mapping in, BinaryCodec<Key> keyCodec, BinaryCodec<Value> valueCodec,
+                                     Object[] keys, Object[] vals) throws IOException {
+        int n = keys.length;
+        ByteBuffer chunk = null;
+        ByteBuffer view = null;
+        try {
+            for (int i = 0; i < n; i++) {
+                long offset = in.offset(i);
+                if (in.chunk(offset) != chunk) {
+                    chunk = in.chunk(offset);
+                    view = chunk.duplicate();
+                }
+                view.position(in.index(offset));
+                keys[i] = keyCodec.read(view);
+                vals[i] = valueCodec.read(view);
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+                 | NegativeArraySizeException e) {
+            throw new IOException("snapshot is corrupt: " + e, e);
+        }
+    }
+}
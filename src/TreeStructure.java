@@ -0,0 +1,21 @@
+/**
+ * Implemented by the symbol tables that are backed by a search tree, so that the shape of the tree can be watched
+ * without knowing which engine is in use, for example by {@link InstrumentedSymbolTable}. A tree that degenerates shows
+ * up as a height and an average depth that grow faster than lg n.
+ */
+public interface TreeStructure {
+    /**
+     * returns the height of the tree, the number of links on the longest path from the root to a key
+     * @return the height of the tree, 0 for a single node and -1 if the table is empty
+     * @requirements This method should execute in O(n) time
+     */
+    int height();
+
+    /**
+     * returns the average number of links from the root to the node holding a key, which is the expected number of
+     * nodes a successful search visits after the root
+     * @return the average depth of the keys of the tree, 0 if the table is empty
+     * @requirements This method should execute in O(n) time
+     */
+    double averageDepth();
+}
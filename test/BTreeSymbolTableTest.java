@@ -0,0 +1,106 @@
+import org.junit.jupiter.api.Test;
+
+import java.security.InvalidParameterException;
+import java.util.LinkedList;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BTreeSymbolTableTest extends SymbolTableContractTest<Integer, BTreeSymbolTable<Integer, Integer>> {
+
+    // the smallest fanout, so that the contract tests split and merge nodes after a few keys
+    BTreeSymbolTable<Integer, Integer> create(){
+        return new BTreeSymbolTable<>(4);
+    }
+
+    Integer key(int i){
+        return i;
+    }
+
+    int rank(BTreeSymbolTable<Integer, Integer> table, Integer k){
+        return table.rank(k);
+    }
+
+    Integer select(BTreeSymbolTable<Integer, Integer> table, int rank){
+        return table.select(rank);
+    }
+
+    boolean check(BTreeSymbolTable<Integer, Integer> table){
+        return table.check();
+    }
+
+    @Test
+    void invalidFanout(){
+        assertThrows(InvalidParameterException.class, () -> new BTreeSymbolTable<String, Integer>(3));
+    }
+
+    @Test
+    void sortedInsertsSplitAndStayValid(){
+        BTreeSymbolTable<Integer, Integer> ints = new BTreeSymbolTable<>(5);
+        for(int i = 0; i < 2000; i++){
+            ints.put(i, -i);
+        }
+        assertTrue(ints.check());
+        for(int i = 0; i < 2000; i++){
+            assertEquals(-i, ints.get(i));
+            assertEquals(i, ints.rank(i));
+            assertEquals(i, ints.select(i));
+        }
+        for(int i = 1999; i >= 0; i--){
+            ints.del(i);
+        }
+        assertTrue(ints.isEmpty());
+        assertTrue(ints.check());
+        assertFalse(ints.iterator().hasNext());
+    }
+
+    @Test
+    void putIfAbsentAndReplaceAcrossSplits(){
+        BTreeSymbolTable<Integer, Integer> ints = new BTreeSymbolTable<>(4);
+        for(int i = 0; i < 500; i++){
+            assertNull(ints.putIfAbsent(i, i));
+        }
+        for(int i = 0; i < 500; i++){
+            assertEquals(i, ints.putIfAbsent(i, -1));
+            assertEquals(i, ints.replace(i, -i));
+            assertEquals(-i, ints.find(i));
+        }
+        assertNull(ints.replace(500, 0));
+        assertNull(ints.find(500));
+        assertEquals(500, ints.size());
+        assertEquals(499, ints.rank(499));
+        assertTrue(ints.check());
+    }
+
+    @Test
+    void randomPutsAndDelsAcrossFanouts(){
+        for(int fanout : new int[] { 4, 5, 16, 64 }){
+            BTreeSymbolTable<Integer, Integer> ints = new BTreeSymbolTable<>(fanout);
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            Random random = new Random(fanout);
+            for(int i = 0; i < 20000; i++){
+                int k = random.nextInt(1000);
+                if(expected.containsKey(k)){
+                    ints.del(k);
+                    expected.remove(k);
+                }
+                else{
+                    ints.put(k, i);
+                    expected.put(k, i);
+                }
+                if(i % 1000 == 0){
+                    assertTrue(ints.check());
+                }
+            }
+            assertTrue(ints.check());
+            assertEquals(expected.size(), ints.size());
+            assertEquals(new LinkedList<>(expected.keySet()), ints.keys());
+            for(Integer k : expected.keySet()){
+                assertEquals(expected.get(k), ints.get(k));
+                assertEquals(expected.headMap(k).size(), ints.rank(k));
+            }
+            assertEquals(expected.headMap(500).size(), ints.rank(500));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+import org.junit.jupiter.api.Test;
+
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedSymbolTableTest {
+
+    CachedSymbolTable<String, Integer> cached(int capacity, CachedSymbolTable.Policy policy){
+        return new CachedSymbolTable<>(new SymbolTable<String, Integer>(), capacity, policy);
+    }
+
+    @Test
+    void invalidArguments(){
+        assertThrows(InvalidParameterException.class, () -> new CachedSymbolTable<String, Integer>(null, 1, CachedSymbolTable.Policy.LRU));
+        assertThrows(InvalidParameterException.class, () -> cached(0, CachedSymbolTable.Policy.LRU));
+        assertThrows(InvalidParameterException.class, () -> cached(1, null));
+        CachedSymbolTable<String, Integer> st = cached(4, CachedSymbolTable.Policy.LRU);
+        assertThrows(InvalidParameterException.class, () -> st.put(null, 1));
+        assertThrows(InvalidParameterException.class, () -> st.get(null));
+        assertThrows(InvalidParameterException.class, () -> st.contains(null));
+        assertThrows(NoSuchElementException.class, () -> st.get("a"));
+        assertThrows(NoSuchElementException.class, () -> st.del("a"));
+    }
+
+    @Test
+    void repeatedLookupsHitTheCache(){
+        for(CachedSymbolTable.Policy policy : CachedSymbolTable.Policy.values()){
+            CachedSymbolTable<String, Integer> st = cached(10, policy);
+            st.put("a", 1);
+            st.put("b", 2);
+            assertTrue(Double.isNaN(st.hitRatio()));
+            assertEquals(1, st.get("a"));
+            assertEquals(1, st.get("a"));
+            assertTrue(st.contains("a"));
+            assertFalse(st.contains("x"));
+            assertEquals(2, st.hits());
+            assertEquals(2, st.misses());
+            assertEquals(0.5, st.hitRatio());
+            assertEquals(1, st.cachedCount());
+            st.resetStats();
+            assertEquals(0, st.hits());
+            assertEquals(1, st.cachedCount());
+        }
+    }
+
+    @Test
+    void updatesInvalidate(){
+        for(CachedSymbolTable.Policy policy : CachedSymbolTable.Policy.values()){
+            CachedSymbolTable<String, Integer> st = cached(10, policy);
+            st.put("a", 1);
+            assertEquals(1, st.get("a"));
+            assertEquals(1, st.replace("a", 2));
+            assertEquals(2, st.get("a"));
+            st.del("a");
+            assertFalse(st.contains("a"));
+            assertNull(st.find("a"));
+            assertThrows(NoSuchElementException.class, () -> st.get("a"));
+            st.putAll(List.of("a", "b"), List.of(3, 4));
+            assertEquals(Arrays.asList(3, 4, null), st.getAll(List.of("a", "b", "c")));
+            assertEquals(2, st.delAll(List.of("a", "b")));
+            assertEquals(Arrays.asList(null, null), st.getAll(List.of("a", "b")));
+            assertNull(st.putIfAbsent("a", 5));
+            assertEquals(5, st.get("a"));
+            assertEquals(1, st.cachedCount());
+        }
+    }
+
+    @Test
+    void lruEvictsTheLeastRecentlyUsedKey(){
+        CachedSymbolTable<String, Integer> st = cached(2, CachedSymbolTable.Policy.LRU);
+        st.putAll(List.of("a", "b", "c"), List.of(1, 2, 3));
+        st.get("a");
+        st.get("b");
+        st.get("a");
+        st.get("c");        // evicts b
+        assertEquals(2, st.cachedCount());
+        assertEquals(1, st.evictions());
+        st.resetStats();
+        st.get("a");
+        st.get("b");
+        assertEquals(1, st.hits());
+        assertEquals(1, st.misses());
+    }
+
+    @Test
+    void tinyLfuKeepsFrequentKeysThroughAScan(){
+        CachedSymbolTable<Integer, Integer> lru = new CachedSymbolTable<>(new SymbolTable<Integer, Integer>(), 100, CachedSymbolTable.Policy.LRU);
+        CachedSymbolTable<Integer, Integer> lfu = new CachedSymbolTable<>(new SymbolTable<Integer, Integer>(), 100, CachedSymbolTable.Policy.W_TINY_LFU);
+        for(int i = 0; i < 10000; i++){
+            lru.put(i, i);
+            lfu.put(i, i);
+        }
+        for(int round = 0; round < 20; round++){
+            for(int hot = 0; hot < 50; hot++){
+                lru.get(hot);
+                lfu.get(hot);
+            }
+            // a scan of keys that are only used once
+            for(int cold = 1000 + round * 200; cold < 1200 + round * 200; cold++){
+                lru.get(cold);
+                lfu.get(cold);
+            }
+        }
+        lru.resetStats();
+        lfu.resetStats();
+        for(int hot = 0; hot < 50; hot++){
+            lru.get(hot);
+            lfu.get(hot);
+        }
+        assertEquals(0, lru.hits());
+        assertTrue(lfu.hits() >= 45, "hits: " + lfu.hits());
+    }
+
+    @Test
+    void randomOperationsMatchTreeMap(){
+        for(CachedSymbolTable.Policy policy : CachedSymbolTable.Policy.values()){
+            CachedSymbolTable<Integer, Integer> st = new CachedSymbolTable<>(new SymbolTable<Integer, Integer>(), 32, policy);
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            Random random = new Random(5);
+            for(int i = 0; i < 20000; i++){
+                int k = random.nextInt(200);
+                switch(random.nextInt(4)){
+                    case 0:
+                        if(expected.containsKey(k)){ st.del(k); expected.remove(k); }
+                        else{ st.put(k, i); expected.put(k, i); }
+                        break;
+                    case 1:
+                        assertEquals(expected.replace(k, i), st.replace(k, i));
+                        break;
+                    default:
+                        assertEquals(expected.get(k), st.find(k));
+                }
+                assertTrue(st.cachedCount() <= 32);
+            }
+            assertEquals(expected.size(), st.size());
+            assertTrue(st.evictions() > 0);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.InputMismatchException;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandProcessorTest {
+
+    // what Main prints for the given input, with StdIn and StdOut replaced by a Scanner and a StringBuilder
+    private static String mainOutput(String input){
+        Scanner in = new Scanner(input);
+        in.useLocale(Locale.US);
+        StringBuilder out = new StringBuilder();
+        String nl = System.lineSeparator();
+        SymbolTable<String, Integer> st = new SymbolTable<>();
+        while(in.hasNext()){
+            String key;
+            int val;
+            String cmd = in.next();
+            switch(cmd){
+                case "put":
+                    key = in.next();
+                    val = in.nextInt();
+                    try { st.put(key, val); } catch(Exception e){ out.append(e.toString()).append(nl); }
+                    break;
+                case "get":
+                    key = in.next();
+                    try { out.append(key + " = " + st.get(key)).append(nl); } catch(Exception e){ out.append(e.toString()).append(nl); }
+                    break;
+                case "del":
+                    key = in.next();
+                    try { st.del(key); } catch(Exception e){ out.append(e.toString()).append(nl); }
+                    break;
+                case "contains":
+                    key = in.next();
+                    out.append(st.contains(key)).append(nl);
+                    break;
+                case "size":
+                    out.append(st.size()).append(nl);
+                    break;
+                case "keys":
+                    for(String k : st.keys()){ out.append(k).append(nl); }
+                    break;
+                case "print":
+                    for(String k : st.keys()){ out.append(k + " = " + st.get(k)).append(nl); }
+                    break;
+                case "check":
+                    out.append(st.check()).append(nl);
+                    break;
+                default:
+                    out.append("unknown command: " + cmd).append(nl);
+            }
+        }
+        return out.toString();
+    }
+
+    private static String processorOutput(String input) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new CommandProcessor().run(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void sameOutputAsMain() throws IOException {
+        String nl = System.lineSeparator();
+        String input = "put age 23\nput name 7\nput age 5\nget age\nget missing\ndel missing\ndel name\n"
+                + "contains age\ncontains name\nsize\nkeys\nprint\ncheck\nfrobnicate\n";
+        String expected = "java.security.InvalidParameterException: node is a duplicate" + nl
+                + "age = 23" + nl
+                + "java.util.NoSuchElementException: root was null so element can't exist" + nl
+                + "java.util.NoSuchElementException: currentRoot is null" + nl
+                + "true" + nl + "false" + nl + "1" + nl + "age" + nl + "age = 23" + nl + "true" + nl
+                + "unknown command: frobnicate" + nl;
+        assertEquals(expected, mainOutput(input));
+        assertEquals(expected, processorOutput(input));
+    }
+
+    @Test
+    void randomScriptsMatchMain() throws IOException {
+        Random random = new Random(37);
+        String[] commands = { "put", "put", "put", "get", "get", "del", "contains", "size", "keys", "print", "bogus" };
+        String[] separators = { " ", "\n", "\t", "  \r\n", "\u2003", "\u001F" };
+        String[] values = { "1", "-17", "+4", "1,000", "007", "2147483647", "-2147483648", "\u0663" };
+        for(int round = 0; round < 50; round++){
+            StringBuilder script = new StringBuilder();
+            for(int i = 0; i < 300; i++){
+                String cmd = commands[random.nextInt(commands.length)];
+                script.append(cmd).append(separators[random.nextInt(separators.length)]);
+                if(!cmd.equals("size") && !cmd.equals("keys") && !cmd.equals("print") && !cmd.equals("bogus")){
+                    String key = random.nextBoolean() ? "k" + random.nextInt(30) : "\u00E9" + random.nextInt(30);
+                    script.append(key).append(separators[random.nextInt(separators.length)]);
+                }
+                if(cmd.equals("put")){
+                    script.append(values[random.nextInt(values.length)]).append(separators[random.nextInt(separators.length)]);
+                }
+            }
+            script.append("check\n");
+            String input = script.toString();
+            assertEquals(mainOutput(input), processorOutput(input));
+        }
+    }
+
+    @Test
+    void unicodeWhitespaceSplitsTokens() throws IOException {
+        String input = "put\u2003a\u20031\nget\u3000a\u00A0\n";
+        assertEquals(mainOutput(input), processorOutput(input));
+    }
+
+    @Test
+    void failsLikeMain(){
+        assertThrows(InputMismatchException.class, () -> mainOutput("put a b"));
+        assertThrows(InputMismatchException.class, () -> processorOutput("put a b"));
+        assertThrows(InputMismatchException.class, () -> processorOutput("put a 99999999999"));
+        assertThrows(NoSuchElementException.class, () -> mainOutput("put a"));
+        assertThrows(NoSuchElementException.class, () -> processorOutput("put a"));
+        assertThrows(NoSuchElementException.class, () -> processorOutput("get"));
+    }
+
+    @Test
+    void outputBeforeAFailureIsWritten(){
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] input = "size\nput a x".getBytes(StandardCharsets.UTF_8);
+        assertThrows(InputMismatchException.class,
+                () -> new CommandProcessor().run(new ByteArrayInputStream(input), out));
+        assertEquals("0" + System.lineSeparator(), out.toString(StandardCharsets.UTF_8));
+    }
+}
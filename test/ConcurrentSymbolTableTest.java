@@ -0,0 +1,297 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ConcurrentSymbolTableTest extends SymbolTableContractTest<Integer, ConcurrentSymbolTable<Integer, Integer>> {
+
+    ConcurrentSymbolTable<Integer, Integer> st;
+
+    ConcurrentSymbolTable<Integer, Integer> create(){
+        return new ConcurrentSymbolTable<>();
+    }
+
+    Integer key(int i){
+        return i;
+    }
+
+    int rank(ConcurrentSymbolTable<Integer, Integer> table, Integer k){
+        return table.rank(k);
+    }
+
+    Integer select(ConcurrentSymbolTable<Integer, Integer> table, int rank){
+        return table.select(rank);
+    }
+
+    boolean check(ConcurrentSymbolTable<Integer, Integer> table){
+        return table.check();
+    }
+
+    @BeforeEach
+    void init(){
+        st = new ConcurrentSymbolTable<>();
+    }
+
+    @Test
+    void iteratorIsUnaffectedByLaterWrites(){
+        for(int i = 0; i < 100; i++){
+            st.put(i, i);
+        }
+        Iterator<Integer> it = st.iterator();
+        for(int i = 0; i < 100; i += 2){
+            st.del(i);
+        }
+        st.put(1000, 0);
+        for(int i = 0; i < 100; i++){
+            assertEquals(i, it.next());
+        }
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    void readersDoNotBlockWhileWriterHoldsLock() throws Exception {
+        for(int i = 0; i < 1000; i++){
+            st.put(i, i);
+        }
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        st.writeLock.lock();
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for(int t = 0; t < 4; t++){
+                results.add(readers.submit(() -> {
+                    int sum = 0;
+                    for(int i = 0; i < 1000; i++){
+                        sum += st.get(i);
+                        assertEquals(i, st.rank(st.select(i)));
+                    }
+                    return sum;
+                }));
+            }
+            for(Future<Integer> result : results){
+                assertEquals(999 * 1000 / 2, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            st.writeLock.unlock();
+            readers.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentReadersSeeConsistentVersions() throws Exception {
+        int readerCount = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
+        ExecutorService pool = Executors.newFixedThreadPool(readerCount + 1);
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for(int t = 0; t < readerCount; t++){
+                readers.add(pool.submit(() -> {
+                    start.await();
+                    Random random = new Random();
+                    while(!done.get()){
+                        int k = random.nextInt(20000);
+                        if(st.contains(k)){
+                            try {
+                                assertEquals(-k, st.get(k));
+                            } catch(NoSuchElementException deletedInBetween){
+                                // a writer removed it between the two calls, which is fine
+                            }
+                        }
+                        Integer previous = null;
+                        int seen = 0;
+                        for(Integer key : st){
+                            assertTrue(previous == null || previous < key);
+                            previous = key;
+                            if(++seen == 100) break;
+                        }
+                    }
+                    return null;
+                }));
+            }
+            Future<?> writer = pool.submit(() -> {
+                start.await();
+                for(int i = 0; i < 20000; i++){
+                    st.put(i, -i);
+                    if(i % 3 == 0){
+                        st.del(i / 3);
+                    }
+                }
+                return null;
+            });
+            start.countDown();
+            writer.get(60, TimeUnit.SECONDS);
+            done.set(true);
+            for(Future<?> reader : readers){
+                reader.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertTrue(st.check());
+        assertEquals(20000 - (20000 + 2) / 3, st.size());
+    }
+
+    @Test
+    void readersScaleAcrossCores() throws Exception {
+        // a measurement rather than a check of correctness, so it needs a core for every reader and one for the writer
+        int readerCount = Math.min(4, Runtime.getRuntime().availableProcessors() - 1);
+        assumeTrue(readerCount >= 2, "needs at least three cores");
+        for(int i = 0; i < 100000; i++){
+            st.put(i, i);
+        }
+        readsWhileWriting(readerCount);     // warms up the JIT
+        long one = readsWhileWriting(1);
+        long many = readsWhileWriting(readerCount);
+        // perfect scaling would multiply the reads by readerCount, readers taking turns on one core would not add any
+        assertTrue(2 * many > one * (readerCount + 1),
+                readerCount + " readers made " + many + " reads, one made " + one);
+    }
+
+    // runs the readers for half a second while a writer publishes a new version of the table about every millisecond,
+    // returning the number of reads made. The writer sleeps between updates so that it leaves the cores to the readers
+    private long readsWhileWriting(int readerCount) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(readerCount + 1);
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            Future<?> writer = pool.submit(() -> {
+                start.await();
+                while(!done.get()){
+                    st.put(-1, -1);
+                    st.del(-1);
+                    Thread.sleep(1);
+                }
+                return null;
+            });
+            List<Future<Long>> readers = new ArrayList<>();
+            for(int t = 0; t < readerCount; t++){
+                int seed = t;
+                readers.add(pool.submit(() -> {
+                    start.await();
+                    Random random = new Random(seed);
+                    long reads = 0;
+                    while(!done.get()){
+                        st.get(random.nextInt(100000));
+                        reads++;
+                    }
+                    return reads;
+                }));
+            }
+            start.countDown();
+            Thread.sleep(500);
+            done.set(true);
+            writer.get(10, TimeUnit.SECONDS);
+            long total = 0;
+            for(Future<Long> reader : readers){
+                total += reader.get(10, TimeUnit.SECONDS);
+            }
+            return total;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void compoundOperationsAreAtomic() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        AtomicBoolean done = new AtomicBoolean();
+        try {
+            // the writer keeps adding and removing key 1 while the others look it up and try to insert it
+            Future<?> writer = pool.submit(() -> {
+                for(int i = 0; i < 20000; i++){
+                    try {
+                        st.put(1, 1);
+                    } catch(InvalidParameterException insertedByPutIfAbsent){
+                        // putIfAbsent got there first
+                    }
+                    st.del(1);
+                }
+                return null;
+            });
+            Future<?> finder = pool.submit(() -> {
+                while(!done.get()){
+                    Integer v = st.find(1);
+                    assertTrue(v == null || v == 1 || v == 2);
+                    st.replace(1, 1);
+                }
+                return null;
+            });
+            Future<?> inserter = pool.submit(() -> {
+                while(!done.get()){
+                    Integer v = st.putIfAbsent(1, 2);
+                    assertTrue(v == null || v == 1 || v == 2);
+                    st.computeIfAbsent(1, k -> 2);
+                }
+                return null;
+            });
+            writer.get(60, TimeUnit.SECONDS);
+            done.set(true);
+            finder.get(10, TimeUnit.SECONDS);
+            inserter.get(10, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertTrue(st.check());
+    }
+
+    @Test
+    void iterationAndBatchesReadOneVersion() throws Exception {
+        List<Integer> keys = new ArrayList<>();
+        for(int i = 0; i < 1000; i++){
+            keys.add(i);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        AtomicBoolean done = new AtomicBoolean();
+        try {
+            // the writer removes and restores all keys at once, so a reader sees either every key or none
+            Future<?> writer = pool.submit(() -> {
+                for(int i = 0; i < 500; i++){
+                    st.putAll(keys, keys);
+                    assertEquals(1000, st.delAll(keys));
+                }
+                return null;
+            });
+            Future<?> reader = pool.submit(() -> {
+                while(!done.get()){
+                    int[] seen = new int[1];
+                    st.forEach((k, v) -> {
+                        assertEquals(k, v);
+                        seen[0]++;
+                    });
+                    assertTrue(seen[0] == 0 || seen[0] == 1000);
+                    int entries = 0;
+                    for(Map.Entry<Integer, Integer> e : st.entries()){
+                        assertEquals(e.getKey(), e.getValue());
+                        entries++;
+                    }
+                    assertTrue(entries == 0 || entries == 1000);
+                    List<Integer> values = st.getAll(keys);
+                    assertTrue(values.stream().allMatch(v -> v == null) || values.equals(keys));
+                }
+                return null;
+            });
+            writer.get(60, TimeUnit.SECONDS);
+            done.set(true);
+            reader.get(10, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertTrue(st.isEmpty());
+        assertTrue(st.check());
+    }
+}
@@ -0,0 +1,157 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurableSymbolTableTest {
+
+    @TempDir
+    Path dir;
+
+    private DurableSymbolTable<String, Integer> open(DurableSymbolTable.SyncPolicy policy) throws IOException {
+        return new DurableSymbolTable<>(dir, BinaryCodec.STRING, BinaryCodec.INTEGER, policy, 0);
+    }
+
+    @Test
+    void recoversFromTheLog() throws IOException {
+        for(DurableSymbolTable.SyncPolicy policy : DurableSymbolTable.SyncPolicy.values()){
+            Path sub = dir.resolve(policy.name());
+            DurableSymbolTable<String, Integer> st = new DurableSymbolTable<>(sub, BinaryCodec.STRING,
+                    BinaryCodec.INTEGER, policy);
+            st.put("b", 2);
+            st.put("a", 1);
+            st.put("c", 3);
+            st.del("b");
+            assertEquals(1, st.replace("a", 10));
+            // no close, as if the process had died
+            DurableSymbolTable<String, Integer> recovered = new DurableSymbolTable<>(sub, BinaryCodec.STRING,
+                    BinaryCodec.INTEGER, policy);
+            assertEquals(List.of("a", "c"), recovered.keys());
+            assertEquals(10, recovered.get("a"));
+            st.close();
+            recovered.close();
+        }
+    }
+
+    @Test
+    void failedUpdatesAreNotLogged() throws IOException {
+        DurableSymbolTable<String, Integer> st = open(DurableSymbolTable.SyncPolicy.OS);
+        st.put("a", 1);
+        assertThrows(InvalidParameterException.class, () -> st.put("a", 2));
+        assertThrows(NoSuchElementException.class, () -> st.del("b"));
+        assertThrows(InvalidParameterException.class, () -> st.put(null, 2));
+        assertNull(st.replace("b", 1));
+        assertEquals(1, st.logRecords());
+        st.close();
+        DurableSymbolTable<String, Integer> reopened = open(DurableSymbolTable.SyncPolicy.OS);
+        assertEquals(List.of("a"), reopened.keys());
+        assertEquals(1, reopened.get("a"));
+        reopened.close();
+    }
+
+    @Test
+    void matchesTreeMapAcrossRestartsAndCheckpoints() throws IOException {
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        Random random = new Random(31);
+        DurableSymbolTable<String, Integer> st = new DurableSymbolTable<>(dir, BinaryCodec.STRING,
+                BinaryCodec.INTEGER, DurableSymbolTable.SyncPolicy.BATCHED, 500);
+        for(int i = 0; i < 5000; i++){
+            String k = "k" + random.nextInt(700);
+            if(expected.containsKey(k)){
+                st.del(k);
+                expected.remove(k);
+            } else {
+                st.put(k, i);
+                expected.put(k, i);
+            }
+            if(i % 1300 == 0){
+                st.close();
+                st = new DurableSymbolTable<>(dir, BinaryCodec.STRING, BinaryCodec.INTEGER,
+                        DurableSymbolTable.SyncPolicy.BATCHED, 500);
+            }
+        }
+        assertTrue(st.logRecords() < 500);
+        st.close();
+        DurableSymbolTable<String, Integer> recovered = open(DurableSymbolTable.SyncPolicy.OS);
+        assertEquals(List.copyOf(expected.keySet()), recovered.keys());
+        for(String k : expected.keySet()){
+            assertEquals(expected.get(k), recovered.get(k));
+        }
+        recovered.close();
+    }
+
+    @Test
+    void tornTailIsDiscarded() throws IOException {
+        DurableSymbolTable<String, Integer> st = open(DurableSymbolTable.SyncPolicy.EVERY_WRITE);
+        st.put("a", 1);
+        st.put("b", 2);
+        st.close();
+        Path log = dir.resolve("wal");
+        byte[] bytes = Files.readAllBytes(log);
+        Files.write(log, Arrays.copyOf(bytes, bytes.length - 3));
+
+        DurableSymbolTable<String, Integer> recovered = open(DurableSymbolTable.SyncPolicy.EVERY_WRITE);
+        assertEquals(List.of("a"), recovered.keys());
+        recovered.put("c", 3);
+        recovered.close();
+        DurableSymbolTable<String, Integer> again = open(DurableSymbolTable.SyncPolicy.EVERY_WRITE);
+        assertEquals(List.of("a", "c"), again.keys());
+        again.close();
+    }
+
+    @Test
+    void corruptRecordEndsTheLog() throws IOException {
+        DurableSymbolTable<String, Integer> st = open(DurableSymbolTable.SyncPolicy.OS);
+        st.put("a", 1);
+        st.put("b", 2);
+        st.put("c", 3);
+        st.close();
+        Path log = dir.resolve("wal");
+        byte[] bytes = Files.readAllBytes(log);
+        int recordLength = bytes.length / 3;
+        bytes[recordLength + 10] ^= 0x40;   // inside the payload of the second record
+        Files.write(log, bytes);
+        DurableSymbolTable<String, Integer> recovered = open(DurableSymbolTable.SyncPolicy.OS);
+        assertEquals(List.of("a"), recovered.keys());
+        recovered.close();
+    }
+
+    @Test
+    void replayAfterCheckpointIsIdempotent() throws IOException {
+        DurableSymbolTable<String, Integer> st = open(DurableSymbolTable.SyncPolicy.OS);
+        st.put("a", 1);
+        st.put("b", 2);
+        st.del("a");
+        st.put("a", 3);
+        st.sync();
+        byte[] log = Files.readAllBytes(dir.resolve("wal"));
+        st.checkpoint();
+        assertEquals(0, Files.size(dir.resolve("wal")));
+        st.close();
+        // a crash after the snapshot was moved into place but before the log was emptied
+        Files.write(dir.resolve("wal"), log);
+        DurableSymbolTable<String, Integer> recovered = open(DurableSymbolTable.SyncPolicy.OS);
+        assertEquals(List.of("a", "b"), recovered.keys());
+        assertEquals(3, recovered.get("a"));
+        assertFalse(Files.exists(dir.resolve("snapshot.tmp")));
+        recovered.close();
+    }
+
+    @Test
+    void invalidArguments(){
+        assertThrows(InvalidParameterException.class, () -> new DurableSymbolTable<>(dir, BinaryCodec.STRING,
+                BinaryCodec.INTEGER, null));
+        assertThrows(InvalidParameterException.class, () -> new DurableSymbolTable<>(dir, BinaryCodec.STRING,
+                BinaryCodec.INTEGER, DurableSymbolTable.SyncPolicy.OS, -1));
+    }
+}
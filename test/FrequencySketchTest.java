@@ -0,0 +1,43 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrequencySketchTest {
+
+    @Test
+    void countsAreNeverUnderestimated(){
+        FrequencySketch sketch = new FrequencySketch(512);
+        for(int k = 0; k < 100; k++){
+            for(int i = 0; i < k % 10; i++){
+                sketch.increment(k);
+            }
+        }
+        for(int k = 0; k < 100; k++){
+            assertTrue(sketch.frequency(k) >= k % 10);
+        }
+        assertEquals(0, sketch.frequency("never seen"));
+    }
+
+    @Test
+    void countsSaturate(){
+        FrequencySketch sketch = new FrequencySketch(512);
+        for(int i = 0; i < 100; i++){
+            sketch.increment("hot");
+        }
+        assertEquals(FrequencySketch.MAX_FREQUENCY, sketch.frequency("hot"));
+    }
+
+    @Test
+    void countsAreHalvedAfterASample(){
+        FrequencySketch sketch = new FrequencySketch(8);
+        for(int i = 0; i < 12; i++){
+            sketch.increment("hot");
+        }
+        assertEquals(12, sketch.frequency("hot"));
+        // the sample size is ten times the capacity, after 80 increments every counter is halved once
+        for(int i = 0; i < 68; i++){
+            sketch.increment(i);
+        }
+        assertTrue(sketch.frequency("hot") <= 7, "frequency: " + sketch.frequency("hot"));
+    }
+}
@@ -0,0 +1,95 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HybridSymbolTableTest extends SymbolTableContractTest<Integer, HybridSymbolTable<Integer, Integer>> {
+
+    HybridSymbolTable<String, Integer> st;
+
+    HybridSymbolTable<Integer, Integer> create(){
+        return new HybridSymbolTable<>();
+    }
+
+    Integer key(int i){
+        return i;
+    }
+
+    int rank(HybridSymbolTable<Integer, Integer> table, Integer k){
+        return table.rank(k);
+    }
+
+    Integer select(HybridSymbolTable<Integer, Integer> table, int rank){
+        return table.select(rank);
+    }
+
+    boolean check(HybridSymbolTable<Integer, Integer> table){
+        return table.check();
+    }
+
+    @BeforeEach
+    void init(){
+        st = new HybridSymbolTable<>();
+    }
+
+    // a key whose hash codes collide in small groups, so that deletes have to shift long probe runs
+    static final class Colliding implements Comparable<Colliding> {
+        final int id;
+
+        Colliding(int id){
+            this.id = id;
+        }
+
+        public int compareTo(Colliding o){
+            return Integer.compare(id, o.id);
+        }
+
+        public boolean equals(Object o){
+            return o instanceof Colliding && ((Colliding) o).id == id;
+        }
+
+        public int hashCode(){
+            return id / 8;
+        }
+    }
+
+    @Test
+    void updatesReachBothStructures(){
+        assertNull(st.putIfAbsent("a", 1));
+        assertEquals(1, st.putIfAbsent("a", 2));
+        assertNull(st.replace("b", 3));
+        assertFalse(st.contains("b"));
+        assertEquals(1, st.replace("a", 4));
+        assertEquals(4, st.get("a"));
+        assertEquals(4, st.entries().iterator().next().getValue());
+        assertEquals(5, st.computeIfAbsent("c", k -> 5));
+        assertEquals(List.of("a", "c"), st.keys());
+        assertTrue(st.check());
+    }
+
+    @Test
+    void collidingKeysSurviveDeletes(){
+        HybridSymbolTable<Colliding, Integer> collide = new HybridSymbolTable<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(7);
+        for(int i = 0; i < 20000; i++){
+            int k = random.nextInt(300);
+            if(expected.containsKey(k)){
+                collide.del(new Colliding(k));
+                expected.remove(k);
+            }
+            else{
+                collide.put(new Colliding(k), i);
+                expected.put(k, i);
+            }
+        }
+        assertTrue(collide.check());
+        for(int k = 0; k < 300; k++){
+            assertEquals(expected.get(k), collide.find(new Colliding(k)));
+        }
+    }
+}
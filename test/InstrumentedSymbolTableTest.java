@@ -0,0 +1,198 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentedSymbolTableTest {
+
+    InstrumentedSymbolTable<Integer, String> st;
+
+    @BeforeEach
+    void init(){
+        st = new InstrumentedSymbolTable<>(new SymbolTable<Integer, String>());
+    }
+
+    @Test
+    void forwardsCalls(){
+        st.put(2, "b");
+        st.put(1, "a");
+        assertEquals("a", st.get(1));
+        assertEquals(List.of(1, 2), st.keys());
+        st.del(1);
+        assertFalse(st.contains(1));
+        assertEquals(1, st.size());
+        assertThrows(InvalidParameterException.class, () -> st.put(2, "c"));
+        assertThrows(NoSuchElementException.class, () -> st.get(7));
+        assertThrows(InvalidParameterException.class, () -> new InstrumentedSymbolTable<>(null));
+    }
+
+    @Test
+    void countsOperations(){
+        for(int i = 0; i < 10; i++){
+            st.put(i, "v" + i);
+        }
+        st.get(3);
+        assertThrows(NoSuchElementException.class, () -> st.get(30));
+        assertNull(st.find(40));
+        assertEquals("x", st.getOrDefault(50, "x"));
+        assertTrue(st.contains(4));
+        assertFalse(st.contains(60));
+        st.del(0);
+        assertThrows(NoSuchElementException.class, () -> st.del(0));
+        assertThrows(InvalidParameterException.class, () -> st.put(1, "again"));
+
+        assertEquals(11, st.latencies(InstrumentedSymbolTable.Operation.PUT).count());
+        assertEquals(4, st.latencies(InstrumentedSymbolTable.Operation.GET).count());
+        assertEquals(2, st.latencies(InstrumentedSymbolTable.Operation.DEL).count());
+        assertEquals(2, st.latencies(InstrumentedSymbolTable.Operation.CONTAINS).count());
+        assertEquals(2, st.hits());
+        assertEquals(4, st.misses());
+        assertEquals(3, st.failures());
+
+        st.reset();
+        assertEquals(0, st.latencies(InstrumentedSymbolTable.Operation.PUT).count());
+        assertEquals(0, st.hits());
+    }
+
+    @Test
+    void disabledDoesNotRecord(){
+        st.setEnabled(false);
+        st.put(1, "a");
+        st.get(1);
+        assertFalse(st.contains(2));
+        for(InstrumentedSymbolTable.Operation op : InstrumentedSymbolTable.Operation.values()){
+            assertEquals(0, st.latencies(op).count());
+        }
+        assertEquals(0, st.hits() + st.misses());
+        st.setEnabled(true);
+        st.get(1);
+        assertEquals(1, st.hits());
+    }
+
+    @Test
+    void structuralGauges(){
+        assertEquals(0, st.sampledSize());
+        assertEquals(-1, st.height());
+        for(int i = 0; i < 1000; i++){
+            st.put(i, "v");
+        }
+        st.sampleStructure();
+        assertEquals(1000, st.sampledSize());
+        assertTrue(st.height() > 0 && st.height() <= 2 * 10);
+        assertTrue(st.averageDepth() > 0 && st.averageDepth() < st.height());
+
+        // the gauges follow the size without an explicit sample once it has doubled
+        for(int i = 1000; i < 2001; i++){
+            st.put(i, "v");
+        }
+        assertEquals(2001, st.sampledSize());
+
+        InstrumentedSymbolTable<Integer, String> other = new InstrumentedSymbolTable<>(new BTreeSymbolTable<Integer, String>());
+        other.put(1, "a");
+        other.sampleStructure();
+        assertEquals(0, other.height());
+        assertEquals(0.0, other.averageDepth());
+
+        InstrumentedSymbolTable<Integer, String> cached = new InstrumentedSymbolTable<>(
+                new CachedSymbolTable<>(new SymbolTable<Integer, String>(), 16, CachedSymbolTable.Policy.LRU));
+        cached.put(1, "a");
+        assertEquals(-1, cached.height());
+        assertTrue(Double.isNaN(cached.averageDepth()));
+    }
+
+    @Test
+    void gaugesFollowSteadyChurn(){
+        for(int i = 0; i < 1000; i++){
+            st.put(i, "v");
+        }
+        st.sampleStructure();
+        st.put(1000, "v");
+        assertEquals(1001, st.sampledSize());
+        st.del(0);
+        st.del(1);
+        assertEquals(999, st.sampledSize());
+
+        // reading every key in ascending order leaves a splay tree as a single path without changing its size, the
+        // lookups alone use up the budget of calls and trigger a new sample
+        int n = 4096;
+        InstrumentedSymbolTable<Integer, String> splay = new InstrumentedSymbolTable<>(
+                new SplaySymbolTable<Integer, String>());
+        List<Integer> keys = new ArrayList<>();
+        for(int i = 0; i < n; i++){
+            keys.add(i);
+        }
+        Collections.shuffle(keys, new Random(5));
+        for(int k : keys){
+            splay.put(k, "v");
+        }
+        splay.sampleStructure();
+        assertTrue(splay.height() < n / 4);
+        for(int i = 0; i < n; i++){
+            splay.get(i);
+        }
+        assertEquals(n - 1, splay.height());
+    }
+
+    @Test
+    void structuralGaugesOfEveryTreeEngine(){
+        List<ISymbolTable<Integer, String>> engines = List.of(new PersistentSymbolTable<>(),
+                new ConcurrentSymbolTable<>(), new PooledSymbolTable<>(), new IntSymbolTable<>(),
+                new BTreeSymbolTable<>(4), new HybridSymbolTable<>(), new SplaySymbolTable<>(),
+                new ShardedSymbolTable<>(64));
+        for(ISymbolTable<Integer, String> engine : engines){
+            InstrumentedSymbolTable<Integer, String> table = new InstrumentedSymbolTable<>(engine);
+            assertEquals(-1, table.height());
+            for(int i = 0; i < 1000; i++){
+                table.put(i, "v");
+            }
+            table.sampleStructure();
+            String name = engine.getClass().getSimpleName();
+            assertTrue(table.height() > 0, name);
+            assertTrue(table.averageDepth() > 0 && table.averageDepth() <= table.height(), name);
+        }
+        // keys put in ascending order leave a splay tree as a single path
+        SplaySymbolTable<Integer, String> splay = new SplaySymbolTable<>();
+        for(int i = 0; i < 100; i++){
+            splay.put(i, "v");
+        }
+        assertEquals(99, splay.height());
+        assertEquals(99 / 2.0, splay.averageDepth());
+    }
+
+    @Test
+    void jmx() throws Exception {
+        for(int i = 0; i < 100; i++){
+            st.put(i, "v");
+        }
+        st.get(1);
+        st.contains(500);
+        ObjectName name = SymbolTableMetrics.register(st, "jmxTest");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertEquals(100L, server.getAttribute(name, "PutCount"));
+            assertEquals(0.5, (double) server.getAttribute(name, "HitRatio"));
+            assertEquals(st.height(), server.getAttribute(name, "Height"));
+            assertEquals(true, server.getAttribute(name, "Enabled"));
+            long p99 = (long) server.invoke(name, "latencyPercentile", new Object[] { "put", 99.0 },
+                    new String[] { String.class.getName(), double.class.getName() });
+            assertTrue(p99 > 0);
+            assertThrows(InvalidParameterException.class, () -> SymbolTableMetrics.register(st, "jmxTest"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+        SymbolTableMetrics metrics = new SymbolTableMetrics(st);
+        assertThrows(InvalidParameterException.class, () -> metrics.maxLatency("scan"));
+        metrics.setEnabled(false);
+        assertFalse(st.isEnabled());
+    }
+}
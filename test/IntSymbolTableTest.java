@@ -0,0 +1,108 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.InvalidParameterException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntSymbolTableTest extends SymbolTableContractTest<Integer, IntSymbolTable<Integer>> {
+
+    IntSymbolTable<String> st;
+
+    // negative as well as positive keys, since the table compares them as ints
+    IntSymbolTable<Integer> create(){
+        return new IntSymbolTable<>(0);
+    }
+
+    Integer key(int i){
+        return i - 250;
+    }
+
+    int rank(IntSymbolTable<Integer> table, Integer k){
+        return table.rank(k);
+    }
+
+    Integer select(IntSymbolTable<Integer> table, int rank){
+        return table.select(rank);
+    }
+
+    boolean check(IntSymbolTable<Integer> table){
+        return table.check();
+    }
+
+    @BeforeEach
+    void init(){
+        st = new IntSymbolTable<>();
+    }
+
+    @Test
+    void primitiveInvalidArguments(){
+        st.put(1, "a");
+        assertThrows(InvalidParameterException.class, () -> st.put(1, "b"));
+        assertThrows(InvalidParameterException.class, () -> st.put(2, null));
+        assertThrows(InvalidParameterException.class, () -> st.putIfAbsent(7, null));
+        assertThrows(InvalidParameterException.class, () -> st.replace(1, null));
+        assertThrows(InvalidParameterException.class, () -> new IntSymbolTable<String>(-1));
+        assertEquals("a", st.get(1));
+    }
+
+    @Test
+    void primitiveCompoundOperations(){
+        assertNull(st.putIfAbsent(5, "e"));
+        assertEquals("e", st.putIfAbsent(5, "x"));
+        assertEquals("e", st.replace(5, "E"));
+        assertNull(st.replace(6, "f"));
+        assertEquals("E", st.find(5));
+        assertNull(st.find(6));
+        assertEquals(1, st.size());
+        assertTrue(st.check());
+    }
+
+    @Test
+    void keysAreSorted(){
+        int[] insertionOrder = new int[] { 10, 5, 15, 3, 20, 1, 25 };
+        int[] inOrder = new int[]        { 1, 3, 5, 10, 15, 20, 25 };
+        for(int k : insertionOrder){
+            st.put(k, "v" + k);
+        }
+        PrimitiveIterator.OfInt it = st.iterator();
+        for(int k : inOrder){
+            assertEquals(k, it.nextInt());
+        }
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    void readersCanShareTheTable() throws Exception {
+        for(int i = 0; i < 10000; i++){
+            st.put(2 * i, "v" + i);
+        }
+        Thread[] readers = new Thread[4];
+        Throwable[] failures = new Throwable[readers.length];
+        for(int t = 0; t < readers.length; t++){
+            int id = t;
+            readers[t] = new Thread(() -> {
+                try {
+                    Random random = new Random(id);
+                    for(int n = 0; n < 200000; n++){
+                        int i = random.nextInt(10000);
+                        assertEquals("v" + i, st.get(2 * i));
+                        assertEquals(i, st.rank(2 * i));
+                        assertFalse(st.contains(2 * i + 1));
+                    }
+                } catch(Throwable e){
+                    failures[id] = e;
+                }
+            });
+            readers[t].start();
+        }
+        for(Thread reader : readers){
+            reader.join();
+        }
+        for(Throwable failure : failures){
+            assertNull(failure);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+import org.junit.jupiter.api.Test;
+
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void empty(){
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.count());
+        assertEquals(0, h.valueAtPercentile(99));
+        assertEquals(0.0, h.mean());
+        assertEquals(0, h.max());
+    }
+
+    @Test
+    void smallValuesAreExact(){
+        LatencyHistogram h = new LatencyHistogram();
+        for(int v = 1; v <= 10; v++){
+            h.record(v);
+        }
+        assertEquals(10, h.count());
+        assertEquals(5, h.valueAtPercentile(50));
+        assertEquals(10, h.valueAtPercentile(100));
+        assertEquals(1, h.valueAtPercentile(0));
+        assertEquals(5.5, h.mean());
+        assertEquals(10, h.max());
+    }
+
+    @Test
+    void percentilesWithinRelativeError(){
+        LatencyHistogram h = new LatencyHistogram();
+        Random random = new Random(3);
+        long[] values = new long[100000];
+        for(int i = 0; i < values.length; i++){
+            values[i] = (long) Math.exp(random.nextDouble() * 25);
+            h.record(values[i]);
+        }
+        Arrays.sort(values);
+        for(double p : new double[] { 1, 50, 90, 99, 99.9 }){
+            long exact = values[(int) Math.ceil(p / 100 * values.length) - 1];
+            long reported = h.valueAtPercentile(p);
+            assertTrue(reported >= exact && reported <= exact + exact / 16 + 1, p + ": " + exact + " " + reported);
+        }
+        assertEquals(values[values.length - 1], h.max());
+    }
+
+    @Test
+    void bucketsCoverTheRangeOfALong(){
+        for(long v : new long[] { 0, 15, 16, 17, 1000, 1L << 40, Long.MAX_VALUE }){
+            int bucket = LatencyHistogram.bucket(v);
+            assertTrue(LatencyHistogram.highestInBucket(bucket) >= v);
+            assertTrue(bucket == 0 || LatencyHistogram.highestInBucket(bucket - 1) < v);
+        }
+    }
+
+    @Test
+    void resetAndInvalidPercentile(){
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(100);
+        h.record(-5);
+        assertEquals(2, h.count());
+        h.reset();
+        assertEquals(0, h.count());
+        assertEquals(0, h.valueAtPercentile(50));
+        assertThrows(InvalidParameterException.class, () -> h.valueAtPercentile(101));
+        assertThrows(InvalidParameterException.class, () -> h.valueAtPercentile(Double.NaN));
+    }
+}
@@ -0,0 +1,58 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.InvalidParameterException;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongSymbolTableTest extends SymbolTableContractTest<Long, LongSymbolTable<Integer>> {
+
+    LongSymbolTable<String> st;
+
+    // keys that do not fit in an int, so that the contract tests compare them as longs
+    LongSymbolTable<Integer> create(){
+        return new LongSymbolTable<>();
+    }
+
+    Long key(int i){
+        return (i - 250) * 10_000_000_000L;
+    }
+
+    int rank(LongSymbolTable<Integer> table, Long k){
+        return table.rank(k);
+    }
+
+    Long select(LongSymbolTable<Integer> table, int rank){
+        return table.select(rank);
+    }
+
+    boolean check(LongSymbolTable<Integer> table){
+        return table.check();
+    }
+
+    @BeforeEach
+    void init(){
+        st = new LongSymbolTable<>();
+    }
+
+    @Test
+    void extremeKeys(){
+        st.put(5_000_000_000L, "big");
+        st.put(-3L, "minus three");
+        st.put(Long.MIN_VALUE, "min");
+        assertEquals(3, st.size());
+        assertEquals("big", st.get(5_000_000_000L));
+        assertEquals(Long.MIN_VALUE, st.select(0));
+        assertEquals(2, st.rank(5_000_000_000L));
+        assertTrue(st.check());
+
+        st.del(-3L);
+        assertFalse(st.contains(-3L));
+        assertThrows(NoSuchElementException.class, () -> st.get(-3L));
+        assertThrows(NoSuchElementException.class, () -> st.del(-3L));
+        assertThrows(InvalidParameterException.class, () -> st.put(Long.MIN_VALUE, "again"));
+        assertThrows(InvalidParameterException.class, () -> st.get((Long) null));
+        assertTrue(st.check());
+    }
+}
@@ -0,0 +1,153 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedSymbolTableTest {
+
+    @TempDir
+    Path dir;
+
+    TreeMap<String, Long> expected;
+    MappedSymbolTable<String, Long> st;
+
+    @BeforeEach
+    void init() throws IOException {
+        expected = new TreeMap<>();
+        SymbolTable<String, Long> source = new SymbolTable<>();
+        Random random = new Random(23);
+        for(int i = 0; i < 3000; i++){
+            String k = Long.toString(random.nextInt(1000000), 36);
+            if(!source.contains(k)){
+                source.put(k, (long) i);
+                expected.put(k, (long) i);
+            }
+        }
+        Path file = dir.resolve("table.snap");
+        source.save(file, BinaryCodec.STRING, BinaryCodec.LONG);
+        st = new MappedSymbolTable<>(file, BinaryCodec.STRING, BinaryCodec.LONG);
+    }
+
+    @Test
+    void lookups(){
+        assertEquals(expected.size(), st.size());
+        assertFalse(st.isEmpty());
+        for(String k : expected.keySet()){
+            assertTrue(st.contains(k));
+            assertEquals(expected.get(k), st.get(k));
+            assertEquals(expected.get(k), st.find(k));
+        }
+        assertFalse(st.contains("not a key"));
+        assertNull(st.find("not a key"));
+        assertEquals(-1L, st.getOrDefault("not a key", -1L));
+        assertThrows(NoSuchElementException.class, () -> st.get("not a key"));
+        assertThrows(InvalidParameterException.class, () -> st.get(null));
+        assertThrows(InvalidParameterException.class, () -> st.contains(null));
+    }
+
+    @Test
+    void rankSelectAndKeys(){
+        List<String> keys = new ArrayList<>(expected.keySet());
+        assertEquals(keys, st.keys());
+        for(int i = 0; i < keys.size(); i++){
+            assertEquals(keys.get(i), st.select(i));
+            assertEquals(i, st.rank(keys.get(i)));
+            assertEquals(i + 1, st.rank(keys.get(i) + "\u0000"));
+        }
+        assertEquals(0, st.rank(""));
+        assertThrows(IllegalArgumentException.class, () -> st.select(keys.size()));
+        assertThrows(IllegalArgumentException.class, () -> st.select(-1));
+    }
+
+    @Test
+    void isReadOnly(){
+        assertThrows(UnsupportedOperationException.class, () -> st.put("a", 1L));
+        assertThrows(UnsupportedOperationException.class, () -> st.del(st.select(0)));
+        assertEquals(expected.size(), st.size());
+    }
+
+    @Test
+    void emptyAndInvalidFiles() throws IOException {
+        Path file = dir.resolve("empty.snap");
+        new SymbolTable<Integer, Integer>().save(file, BinaryCodec.INTEGER, BinaryCodec.INTEGER);
+        MappedSymbolTable<Integer, Integer> empty = new MappedSymbolTable<>(file, BinaryCodec.INTEGER,
+                BinaryCodec.INTEGER);
+        assertTrue(empty.isEmpty());
+        assertFalse(empty.contains(3));
+        assertEquals(0, empty.rank(3));
+        assertFalse(empty.iterator().hasNext());
+        assertThrows(IOException.class, () -> new MappedSymbolTable<>(dir.resolve("missing"), BinaryCodec.INTEGER,
+                BinaryCodec.INTEGER));
+        assertThrows(InvalidParameterException.class, () -> new MappedSymbolTable<>(file, null, BinaryCodec.INTEGER));
+    }
+
+    @Test
+    void entriesAcrossSmallChunks() throws IOException {
+        // with 1KB chunks the snapshot spans many of them and entries of up to 3KB start near every chunk boundary
+        SymbolTable<Long, String> source = new SymbolTable<>();
+        Random random = new Random(31);
+        for(long i = 0; i < 2000; i++){
+            source.put(i * 3, "v".repeat(random.nextInt(random.nextInt(10) == 0 ? 3000 : 40)) + i);
+        }
+        Path file = dir.resolve("chunks.snap");
+        source.save(file, BinaryCodec.LONG, BinaryCodec.STRING);
+        MappedSymbolTable<Long, String> chunked = new MappedSymbolTable<>(file, BinaryCodec.LONG, BinaryCodec.STRING,
+                10);
+        assertEquals(source.size(), chunked.size());
+        for(long i = 0; i < 2000; i++){
+            assertEquals(source.get(i * 3), chunked.get(i * 3));
+            assertEquals(i, chunked.rank(i * 3));
+            assertFalse(chunked.contains(i * 3 + 1));
+        }
+        assertEquals(source.keys(), chunked.keys());
+    }
+
+    @Test
+    void stringCompareMatchesCompareTo(){
+        Random random = new Random(29);
+        char[] alphabet = { 'a', 'b', '\u00E9', '\u6F22', '\uE000', '\uFFFF', '\uD83D', '\uDE00', '\uD800', '\uDC00' };
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        for(int i = 0; i < 20000; i++){
+            String a = randomString(random, alphabet);
+            String b = randomString(random, alphabet);
+            buffer.clear();
+            BinaryCodec.STRING.write(a, buffer);
+            // unpaired surrogates are written as '?', compare with what was actually stored
+            String stored = BinaryCodec.STRING.read(buffer, 0);
+            assertEquals(Integer.signum(stored.compareTo(b)), Integer.signum(BinaryCodec.STRING.compare(buffer, 0, b)),
+                    a + " vs " + b);
+        }
+    }
+
+    private String randomString(Random random, char[] alphabet){
+        StringBuilder s = new StringBuilder();
+        int length = random.nextInt(5);
+        for(int i = 0; i < length; i++){
+            s.append(alphabet[random.nextInt(alphabet.length)]);
+        }
+        return s.toString();
+    }
+
+    @Test
+    void numericCodecsCompareInPlace(){
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        BinaryCodec.INTEGER.write(-5, buffer);
+        BinaryCodec.LONG.write(Long.MAX_VALUE, buffer);
+        assertTrue(BinaryCodec.INTEGER.compare(buffer, 0, 3) < 0);
+        assertEquals(0, BinaryCodec.INTEGER.compare(buffer, 0, -5));
+        assertTrue(BinaryCodec.LONG.compare(buffer, 4, Long.MIN_VALUE) > 0);
+        assertEquals(Long.MAX_VALUE, BinaryCodec.LONG.read(buffer, 4));
+        assertEquals(8, BinaryCodec.LONG.length(buffer, 4));
+    }
+}
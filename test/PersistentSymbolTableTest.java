@@ -0,0 +1,129 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentSymbolTableTest extends SymbolTableContractTest<Integer, PersistentSymbolTable<Integer, Integer>> {
+
+    PersistentSymbolTable<String, Integer> st;
+
+    PersistentSymbolTable<Integer, Integer> create(){
+        return new PersistentSymbolTable<>();
+    }
+
+    Integer key(int i){
+        return i;
+    }
+
+    int rank(PersistentSymbolTable<Integer, Integer> table, Integer k){
+        return table.rank(k);
+    }
+
+    Integer select(PersistentSymbolTable<Integer, Integer> table, int rank){
+        return table.select(rank);
+    }
+
+    boolean check(PersistentSymbolTable<Integer, Integer> table){
+        return table.check();
+    }
+
+    @BeforeEach
+    void init(){
+        st = new PersistentSymbolTable<>();
+    }
+
+    @Test
+    void snapshotIsUnaffectedByLaterWrites(){
+        st.put("j", 1);
+        st.put("e", 2);
+        st.put("p", 3);
+        PersistentSymbolTable<String, Integer> before = st.snapshot();
+
+        st.del("e");
+        st.put("c", 4);
+        st.put("s", 5);
+
+        assertEquals(3, before.size());
+        assertEquals(2, before.get("e"));
+        assertFalse(before.contains("c"));
+        assertEquals(List.of("e", "j", "p"), before.keys());
+        assertEquals(List.of("c", "j", "p", "s"), st.keys());
+        assertTrue(before.check());
+        assertTrue(st.check());
+    }
+
+    @Test
+    void putIfAbsentAndReplaceCopyOnlyWhatChanges(){
+        st.put("j", 1);
+        st.put("e", 2);
+        st.put("p", 3);
+        PersistentSymbolTable<String, Integer> before = st.snapshot();
+
+        assertEquals(2, st.putIfAbsent("e", 9));
+        assertNull(st.replace("x", 9));
+        assertEquals(2, st.find("e"));
+        assertNull(st.find("x"));
+
+        assertEquals(3, st.replace("p", 30));
+        assertNull(st.putIfAbsent("c", 4));
+        assertEquals(30, st.get("p"));
+        assertEquals(4, st.get("c"));
+        assertEquals(3, before.get("p"));
+        assertFalse(before.contains("c"));
+        assertTrue(st.check());
+        assertTrue(before.check());
+        assertThrows(UnsupportedOperationException.class, () -> before.replace("p", 1));
+        assertThrows(UnsupportedOperationException.class, () -> before.putIfAbsent("q", 1));
+    }
+
+    @Test
+    void snapshotIsReadOnly(){
+        st.put("a", 1);
+        PersistentSymbolTable<String, Integer> snapshot = st.snapshot();
+        assertTrue(snapshot.isReadOnly());
+        assertFalse(st.isReadOnly());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.put("b", 2));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.del("a"));
+        assertSame(snapshot, snapshot.snapshot());
+    }
+
+    @Test
+    void everySnapshotKeepsItsVersion(){
+        PersistentSymbolTable<Integer, Integer> ints = new PersistentSymbolTable<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        List<PersistentSymbolTable<Integer, Integer>> snapshots = new ArrayList<>();
+        List<LinkedList<Integer>> versions = new ArrayList<>();
+        Random random = new Random(3);
+        for(int i = 0; i < 5000; i++){
+            int k = random.nextInt(300);
+            if(expected.containsKey(k)){
+                ints.del(k);
+                expected.remove(k);
+            }
+            else{
+                ints.put(k, i);
+                expected.put(k, i);
+            }
+            if(i % 250 == 0){
+                snapshots.add(ints.snapshot());
+                versions.add(new LinkedList<>(expected.keySet()));
+            }
+        }
+        for(int i = 0; i < snapshots.size(); i++){
+            assertEquals(versions.get(i), snapshots.get(i).keys());
+            assertTrue(snapshots.get(i).check());
+        }
+        int i = 0;
+        for(Integer k : expected.keySet()){
+            assertEquals(expected.get(k), ints.get(k));
+            assertEquals(i, ints.rank(k));
+            assertEquals(k, ints.select(i++));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+import org.junit.jupiter.api.Test;
+
+import java.security.InvalidParameterException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledSymbolTableTest extends SymbolTableContractTest<Integer, PooledSymbolTable<Integer, Integer>> {
+
+    // an empty pool, so that the contract tests also cover growing the arrays
+    PooledSymbolTable<Integer, Integer> create(){
+        return new PooledSymbolTable<>(0);
+    }
+
+    Integer key(int i){
+        return i;
+    }
+
+    int rank(PooledSymbolTable<Integer, Integer> table, Integer k){
+        return table.rank(k);
+    }
+
+    Integer select(PooledSymbolTable<Integer, Integer> table, int rank){
+        return table.select(rank);
+    }
+
+    boolean check(PooledSymbolTable<Integer, Integer> table){
+        return table.check();
+    }
+
+    @Test
+    void invalidCapacityAndRank(){
+        table.put(1, 1);
+        assertThrows(InvalidParameterException.class, () -> table.rank(null));
+        assertThrows(InvalidParameterException.class, () -> new PooledSymbolTable<String, Integer>(-1));
+    }
+}
@@ -0,0 +1,171 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedSymbolTableTest extends SymbolTableContractTest<Integer, ShardedSymbolTable<Integer, Integer>> {
+
+    ShardedSymbolTable<String, Integer> st;
+
+    ShardedSymbolTable<Integer, Integer> create(){
+        return new ShardedSymbolTable<>(4);
+    }
+
+    Integer key(int i){
+        return i;
+    }
+
+    int rank(ShardedSymbolTable<Integer, Integer> table, Integer k){
+        return table.rank(k);
+    }
+
+    Integer select(ShardedSymbolTable<Integer, Integer> table, int rank){
+        return table.select(rank);
+    }
+
+    boolean check(ShardedSymbolTable<Integer, Integer> table){
+        return table.check();
+    }
+
+    @BeforeEach
+    void init(){
+        st = new ShardedSymbolTable<>(4);
+    }
+
+    @Test
+    void invalidShardCapacity(){
+        assertThrows(InvalidParameterException.class, () -> new ShardedSymbolTable<String, Integer>(1));
+        assertThrows(InvalidParameterException.class, () -> st.rank(null));
+    }
+
+    @Test
+    void shardsSplitAndJoinWithTheData(){
+        String[] inOrder = new String[] { "a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k", "l" };
+        for(String k : new String[] { "g", "c", "k", "a", "e", "i", "l", "b", "d", "f", "h", "j" }){
+            st.put(k, (int) k.charAt(0));
+        }
+        int shards = st.shardCount();
+        assertTrue(shards > 2);
+        assertTrue(st.check());
+        assertEquals(inOrder.length, st.size());
+        for(int i = 0; i < inOrder.length; i++){
+            assertEquals(inOrder[i], st.select(i));
+            assertEquals(i, st.rank(inOrder[i]));
+        }
+        assertEquals(0, st.rank("0"));
+        assertEquals(12, st.rank("m"));
+        assertEquals(Arrays.asList(inOrder), st.keys());
+
+        for(int i = 0; i < 11; i++){
+            st.del(inOrder[i]);
+        }
+        assertTrue(st.shardCount() < shards);
+        assertEquals(List.of("l"), st.keys());
+        assertEquals(0, st.rank("l"));
+        assertEquals("l", st.select(0));
+        assertTrue(st.check());
+    }
+
+    @Test
+    void updatesThroughTheShardLock(){
+        assertNull(st.putIfAbsent("a", 1));
+        assertEquals(1, st.putIfAbsent("a", 2));
+        assertEquals(1, st.replace("a", 3));
+        assertEquals(3, st.get("a"));
+        assertEquals(4, st.computeIfAbsent("b", k -> 4));
+        st.putAll(List.of("c", "d", "e", "f"), List.of(5, 6, 7, 8));
+        assertEquals(Arrays.asList(3, null, 8), st.getAll(List.of("a", "x", "f")));
+        assertEquals(3, st.delAll(List.of("a", "x", "c", "f")));
+        assertEquals(List.of("b", "d", "e"), st.keys());
+        assertTrue(st.check());
+    }
+
+    @Test
+    void concurrentWritersOnDisjointKeys() throws InterruptedException {
+        ShardedSymbolTable<Integer, Integer> ints = new ShardedSymbolTable<>(64);
+        Thread[] writers = new Thread[4];
+        for(int t = 0; t < writers.length; t++){
+            int id = t;
+            writers[t] = new Thread(() -> {
+                Random random = new Random(id);
+                for(int i = 0; i < 5000; i++){
+                    int k = random.nextInt(100000) * writers.length + id;
+                    if(ints.contains(k)){
+                        ints.del(k);
+                    }
+                    else{
+                        ints.put(k, id);
+                    }
+                }
+            });
+        }
+        for(Thread w : writers){
+            w.start();
+        }
+        for(Thread w : writers){
+            w.join();
+        }
+        assertTrue(ints.check());
+        int n = ints.size();
+        List<Integer> keys = ints.keys();
+        assertEquals(n, keys.size());
+        for(int i = 0; i < n; i++){
+            int k = keys.get(i);
+            assertEquals(k % writers.length, ints.get(k));
+            assertEquals(i, ints.rank(k));
+        }
+        assertTrue(ints.shardCount() > 1);
+    }
+
+    @Test
+    void failedPutAllRemovesItsPairs(){
+        st.put("b", 1);
+        assertThrows(InvalidParameterException.class, () -> st.putAll(List.of("a", "c", "b"), List.of(2, 3, 4)));
+        assertEquals(List.of("b"), st.keys());
+        assertEquals(1, st.get("b"));
+        assertTrue(st.check());
+    }
+
+    @Test
+    void readersFindStableKeysWhileShardsSplitAndJoin() throws Exception {
+        ShardedSymbolTable<Integer, Integer> ints = new ShardedSymbolTable<>(16);
+        // the even keys stay in the table, the writer keeps adding and removing odd keys which splits and joins shards
+        for(int k = 0; k < 2000; k += 2){
+            ints.put(k, k);
+        }
+        Thread writer = new Thread(() -> {
+            for(int round = 0; round < 20; round++){
+                for(int k = 1; k < 2000; k += 2){
+                    ints.put(k, k);
+                }
+                for(int k = 1; k < 2000; k += 2){
+                    ints.del(k);
+                }
+            }
+        });
+        Throwable[] failure = new Throwable[1];
+        Thread reader = new Thread(() -> {
+            try {
+                Random random = new Random(3);
+                while(writer.isAlive()){
+                    int k = 2 * random.nextInt(1000);
+                    assertEquals(k, ints.get(k));
+                }
+            } catch(Throwable e){
+                failure[0] = e;
+            }
+        });
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+        assertNull(failure[0]);
+        assertEquals(1000, ints.size());
+        assertTrue(ints.check());
+    }
+}
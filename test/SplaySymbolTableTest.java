@@ -0,0 +1,85 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.InvalidParameterException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SplaySymbolTableTest extends SymbolTableContractTest<Integer, SplaySymbolTable<Integer, Integer>> {
+
+    SplaySymbolTable<String, Integer> st;
+
+    SplaySymbolTable<Integer, Integer> create(){
+        return new SplaySymbolTable<>();
+    }
+
+    Integer key(int i){
+        return i;
+    }
+
+    int rank(SplaySymbolTable<Integer, Integer> table, Integer k){
+        return table.rank(k);
+    }
+
+    Integer select(SplaySymbolTable<Integer, Integer> table, int rank){
+        return table.select(rank);
+    }
+
+    boolean check(SplaySymbolTable<Integer, Integer> table){
+        return table.check();
+    }
+
+    @BeforeEach
+    void init(){
+        st = new SplaySymbolTable<>();
+    }
+
+    @Test
+    void lookupsKeepTheTreeConsistent(){
+        SplaySymbolTable<Integer, Integer> ints = new SplaySymbolTable<>();
+        for(int i = 0; i < 1000; i++){
+            ints.put(i * 2, i);
+        }
+        Random random = new Random(1);
+        for(int i = 0; i < 5000; i++){
+            int k = random.nextInt(2000);
+            assertEquals(k % 2 == 0, ints.contains(k));
+            assertEquals((k + 1) / 2, ints.rank(k));
+            if(k % 2 == 0){
+                assertEquals(k / 2, ints.get(k));
+                assertEquals(k, ints.select(k / 2));
+            }
+            else{
+                assertNull(ints.find(k));
+            }
+        }
+        assertTrue(ints.check());
+        assertEquals(1000, ints.size());
+        assertEquals(0, ints.rank(-1));
+        assertEquals(1000, ints.rank(5000));
+        assertThrows(InvalidParameterException.class, () -> ints.rank(null));
+    }
+
+    @Test
+    void iterationSurvivesLookups(){
+        for(String k : new String[] { "d", "b", "f", "a", "c", "e", "g" }){
+            st.put(k, (int) k.charAt(0));
+        }
+        StringBuilder seen = new StringBuilder();
+        for(String k : st){
+            seen.append(k);
+            st.get("g");
+            st.contains("a");
+            st.rank("d");
+        }
+        assertEquals("abcdefg", seen.toString());
+        StringBuilder pairs = new StringBuilder();
+        st.forEach((k, v) -> pairs.append(k).append(v));
+        assertEquals("a97b98c99d100e101f102g103", pairs.toString());
+        assertEquals(99, st.replace("c", 5));
+        assertEquals(5, st.get("c"));
+        assertNull(st.replace("x", 1));
+        assertTrue(st.check());
+    }
+}
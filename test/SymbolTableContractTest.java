@@ -0,0 +1,184 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The behaviour every ordered ISymbolTable engine shares, run once per engine by a subclass that says how to create the
+ * table, how to make its keys and how to reach the rank, select and check methods the interface leaves out. The
+ * subclasses keep only the tests that are particular to their engine.
+ */
+abstract class SymbolTableContractTest<Key extends Comparable<Key>, T extends ISymbolTable<Key, Integer>> {
+
+    T table;
+
+    /** returns a new, empty table of the engine under test */
+    abstract T create();
+
+    /** returns the key standing for i, such that the keys are ordered like their numbers */
+    abstract Key key(int i);
+
+    abstract int rank(T table, Key k);
+
+    abstract Key select(T table, int rank);
+
+    abstract boolean check(T table);
+
+    @BeforeEach
+    void createTable(){
+        table = create();
+    }
+
+    List<Key> keys(int... is){
+        List<Key> keys = new LinkedList<>();
+        for(int i : is){
+            keys.add(key(i));
+        }
+        return keys;
+    }
+
+    @Test
+    void putGetDel(){
+        table.put(key(5), 1);
+        table.put(key(1), 2);
+        table.put(key(9), 3);
+        assertEquals(3, table.size());
+        assertEquals(2, table.get(key(1)));
+        assertTrue(table.contains(key(9)));
+        assertTrue(check(table));
+        table.del(key(5));
+        assertFalse(table.contains(key(5)));
+        assertNull(table.find(key(5)));
+        assertThrows(NoSuchElementException.class, () -> table.get(key(5)));
+        assertThrows(NoSuchElementException.class, () -> table.del(key(5)));
+        assertEquals(keys(1, 9), table.keys());
+        assertEquals(2, table.size());
+        assertTrue(check(table));
+    }
+
+    @Test
+    void invalidArguments(){
+        table.put(key(1), 1);
+        assertThrows(InvalidParameterException.class, () -> table.put(key(1), 2));
+        assertEquals(1, table.get(key(1)));
+        assertEquals(1, table.size());
+        assertThrows(InvalidParameterException.class, () -> table.put(null, 2));
+        assertThrows(InvalidParameterException.class, () -> table.put(key(2), null));
+        assertThrows(InvalidParameterException.class, () -> table.get(null));
+        assertThrows(InvalidParameterException.class, () -> table.del(null));
+        assertThrows(InvalidParameterException.class, () -> table.contains(null));
+        assertThrows(InvalidParameterException.class, () -> table.find(null));
+        assertThrows(InvalidParameterException.class, () -> table.putIfAbsent(key(2), null));
+        assertThrows(InvalidParameterException.class, () -> table.replace(key(1), null));
+        assertFalse(table.contains(key(2)));
+        assertTrue(check(table));
+    }
+
+    @Test
+    void rankAndSelect(){
+        int[] insertionOrder = new int[] { 10, 5, 16, 3, 19, 1, 26 };
+        int[] inOrder = new int[]        { 1, 3, 5, 10, 16, 19, 26 };
+        for(int i : insertionOrder){
+            table.put(key(i), i);
+        }
+        for(int i = 0; i < inOrder.length; i++){
+            assertEquals(key(inOrder[i]), select(table, i));
+            assertEquals(i, rank(table, key(inOrder[i])));
+        }
+        assertEquals(0, rank(table, key(0)));
+        assertEquals(3, rank(table, key(6)));
+        assertEquals(7, rank(table, key(30)));
+        assertThrows(IllegalArgumentException.class, () -> select(table, 7));
+        assertThrows(IllegalArgumentException.class, () -> select(table, -1));
+    }
+
+    @Test
+    void compoundOperations(){
+        assertNull(table.putIfAbsent(key(5), 1));
+        assertEquals(1, table.putIfAbsent(key(5), 2));
+        assertEquals(1, table.replace(key(5), 3));
+        assertNull(table.replace(key(6), 4));
+        assertFalse(table.contains(key(6)));
+        assertEquals(3, table.find(key(5)));
+        assertEquals(7, table.computeIfAbsent(key(2), k -> 7));
+        assertEquals(7, table.computeIfAbsent(key(2), k -> 8));
+        assertEquals(9, table.getOrDefault(key(6), 9));
+        assertEquals(keys(2, 5), table.keys());
+        Map.Entry<Key, Integer> first = table.entries().iterator().next();
+        assertEquals(key(2), first.getKey());
+        assertEquals(7, first.getValue());
+        assertTrue(check(table));
+    }
+
+    @Test
+    void batchedOperations(){
+        table.putAll(keys(3, 1, 2), List.of(3, 1, 2));
+        assertEquals(Arrays.asList(1, null, 3), table.getAll(keys(1, 9, 3)));
+        assertThrows(InvalidParameterException.class, () -> table.putAll(keys(4, 1), List.of(4, 5)));
+        assertFalse(table.contains(key(4)));
+        assertTrue(check(table));
+        assertEquals(2, table.delAll(keys(1, 9, 3)));
+        assertEquals(keys(2), table.keys());
+        assertFalse(table.contains(key(1)));
+        assertTrue(check(table));
+    }
+
+    @Test
+    void emptyAfterRemovingAll(){
+        for(int i = 0; i < 1000; i++){
+            table.put(key(i), i);
+        }
+        for(int i = 999; i >= 0; i--){
+            table.del(key(i));
+        }
+        assertTrue(table.isEmpty());
+        assertEquals(0, table.size());
+        assertFalse(table.iterator().hasNext());
+        assertTrue(check(table));
+        table.put(key(7), 7);
+        assertEquals(7, table.get(key(7)));
+    }
+
+    @Test
+    void randomPutsAndDelsMatchTreeMap(){
+        TreeMap<Key, Integer> expected = new TreeMap<>();
+        Random random = new Random(42);
+        for(int i = 0; i < 20000; i++){
+            Key k = key(random.nextInt(500));
+            if(expected.containsKey(k)){
+                table.del(k);
+                expected.remove(k);
+            }
+            else{
+                table.put(k, i);
+                expected.put(k, i);
+            }
+            assertEquals(expected.size(), table.size());
+        }
+        assertTrue(check(table));
+        assertEquals(new LinkedList<>(expected.keySet()), table.keys());
+        int rank = 0;
+        for(Map.Entry<Key, Integer> e : expected.entrySet()){
+            assertEquals(e.getValue(), table.get(e.getKey()));
+            assertEquals(rank, rank(table, e.getKey()));
+            assertEquals(e.getKey(), select(table, rank++));
+        }
+        for(int i = 0; i < 500; i++){
+            assertEquals(expected.get(key(i)), table.find(key(i)));
+        }
+        List<Integer> values = new ArrayList<>();
+        table.forEach((k, v) -> values.add(v));
+        assertEquals(new ArrayList<>(expected.values()), values);
+        assertTrue(check(table));
+    }
+}
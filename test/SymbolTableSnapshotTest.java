@@ -0,0 +1,119 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolTableSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void saveAndLoad() throws IOException {
+        SymbolTable<String, Integer> st = new SymbolTable<>();
+        Random random = new Random(17);
+        for(int i = 0; i < 5000; i++){
+            String k = "key" + random.nextInt(100000);
+            if(!st.contains(k)){
+                st.put(k, i);
+            }
+        }
+        Path file = dir.resolve("table.snap");
+        st.save(file, BinaryCodec.STRING, BinaryCodec.INTEGER);
+        SymbolTable<String, Integer> loaded = SymbolTable.load(file, BinaryCodec.STRING, BinaryCodec.INTEGER);
+        assertEquals(st.keys(), loaded.keys());
+        for(String k : st){
+            assertEquals(st.get(k), loaded.get(k));
+        }
+        assertTrue(loaded.validate());
+        loaded.put("zzz", -1);
+        assertTrue(loaded.validate());
+    }
+
+    @Test
+    void emptyTable() throws IOException {
+        Path file = dir.resolve("empty.snap");
+        new SymbolTable<Long, Long>().save(file, BinaryCodec.LONG, BinaryCodec.LONG);
+        assertEquals(16, Files.size(file));
+        SymbolTable<Long, Long> loaded = SymbolTable.load(file, BinaryCodec.LONG, BinaryCodec.LONG);
+        assertTrue(loaded.isEmpty());
+    }
+
+    @Test
+    void anyTableCanBeSaved() throws IOException {
+        BTreeSymbolTable<Long, String> bt = new BTreeSymbolTable<>();
+        for(long i = 100; i > 0; i--){
+            bt.put(i * i, "v" + i);
+        }
+        Path file = dir.resolve("btree.snap");
+        SymbolTableSnapshot.save(bt, file, BinaryCodec.LONG, BinaryCodec.STRING);
+        SymbolTable<Long, String> loaded = SymbolTable.load(file, BinaryCodec.LONG, BinaryCodec.STRING);
+        assertEquals(bt.keys(), loaded.keys());
+        assertEquals("v7", loaded.get(49L));
+    }
+
+    @Test
+    void largeEntriesAndUnicode() throws IOException {
+        SymbolTable<String, String> st = new SymbolTable<>();
+        StringBuilder big = new StringBuilder();
+        for(int i = 0; i < 100000; i++){
+            big.append((char) ('a' + i % 26));
+        }
+        st.put("big", big.toString());
+        st.put("\u00e9t\u00e9", "\u6f22\u5b57 \uD83D\uDE00");
+        st.put("broken", "\uD800x");
+        List<String> keys = new ArrayList<>(st.keys());
+        Path file = dir.resolve("strings.snap");
+        st.save(file, BinaryCodec.STRING, BinaryCodec.STRING);
+        SymbolTable<String, String> loaded = SymbolTable.load(file, BinaryCodec.STRING, BinaryCodec.STRING);
+        assertEquals(keys, loaded.keys());
+        assertEquals(big.toString(), loaded.get("big"));
+        assertEquals("\u6f22\u5b57 \uD83D\uDE00", loaded.get("\u00e9t\u00e9"));
+        assertEquals("?x", loaded.get("broken"));
+    }
+
+    @Test
+    void codecSizesMatchWrites(){
+        for(String s : new String[] { "", "abc", "\u00e9", "\u6f22", "\uD83D\uDE00", "\uD800", "a\uDC00b" }){
+            ByteBuffer out = ByteBuffer.allocate(64);
+            BinaryCodec.STRING.write(s, out);
+            assertEquals(BinaryCodec.STRING.size(s), out.position(), s);
+        }
+    }
+
+    @Test
+    void rejectsBadFiles() throws IOException {
+        Path file = dir.resolve("bad.snap");
+        Files.write(file, new byte[] { 1, 2, 3 });
+        assertThrows(IOException.class, () -> SymbolTable.load(file, BinaryCodec.STRING, BinaryCodec.STRING));
+
+        SymbolTable<String, String> st = new SymbolTable<>();
+        st.put("a", "b");
+        st.save(file, BinaryCodec.STRING, BinaryCodec.STRING);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> SymbolTable.load(file, BinaryCodec.STRING, BinaryCodec.STRING));
+
+        // an offset past the end of the file, or out of order, is caught when the file is mapped
+        st.put("c", "d");
+        st.save(file, BinaryCodec.STRING, BinaryCodec.STRING);
+        bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putLong(SymbolTableSnapshot.HEADER_BYTES + Long.BYTES, bytes.length + 1L);
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> SymbolTableSnapshot.map(file));
+        ByteBuffer.wrap(bytes).putLong(SymbolTableSnapshot.HEADER_BYTES + Long.BYTES, 0L);
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> new MappedSymbolTable<>(file, BinaryCodec.STRING, BinaryCodec.STRING));
+        assertThrows(InvalidParameterException.class, () -> SymbolTable.load(null, BinaryCodec.STRING, BinaryCodec.STRING));
+        assertThrows(InvalidParameterException.class, () -> st.save(file, null, BinaryCodec.STRING));
+    }
+}
@@ -1,9 +1,23 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.Field;
 import java.security.InvalidParameterException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -404,4 +418,630 @@ class SymbolTableTest {
             assertEquals(inOrder[i++], k);
         }
     }
+
+    @Test
+    void putSortedStaysBalanced(){
+        SymbolTable<Integer, Integer> ints = new SymbolTable<>();
+        for(int i = 0; i < 20000; i++){
+            ints.put(i, i);
+        }
+        assertTrue(ints.isRedBlack());
+        assertTrue(ints.check());
+        assertEquals(20000, ints.size());
+        assertEquals(19999, ints.get(19999));
+    }
+
+    @Test
+    void delKeepsBalance(){
+        SymbolTable<Integer, Integer> ints = new SymbolTable<>();
+        for(int i = 2000; i > 0; i--){
+            ints.put(i, i);
+        }
+        for(int i = 1; i <= 2000; i += 3){
+            ints.del(i);
+            assertTrue(ints.isRedBlack());
+        }
+        assertTrue(ints.check());
+        for(int i = 1; i <= 2000; i++){
+            assertEquals(i % 3 != 1, ints.contains(i));
+        }
+    }
+
+    @Test
+    void randomPutsAndDelsMatchTreeMap(){
+        SymbolTable<Integer, Integer> ints = new SymbolTable<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(42);
+        for(int i = 0; i < 20000; i++){
+            int k = random.nextInt(500);
+            if(expected.containsKey(k)){
+                ints.del(k);
+                expected.remove(k);
+            }
+            else{
+                ints.put(k, i);
+                expected.put(k, i);
+            }
+            assertEquals(expected.size(), ints.size());
+        }
+        assertTrue(ints.isRedBlack());
+        assertTrue(ints.check());
+        assertEquals(new LinkedList<>(expected.keySet()), ints.keys());
+        for(Integer k : expected.keySet()){
+            assertEquals(expected.get(k), ints.get(k));
+            assertEquals(expected.headMap(k).size(), ints.rank(k));
+        }
+    }
+
+    @Test
+    void iterator(){
+        String[] insertionOrder = new String[] { "j", "e", "p", "c", "s", "a", "z"};
+        String[] inOrder = new String[]        { "a", "c", "e", "j", "p", "s", "z"};
+
+        int i = 0;
+        for(String k : insertionOrder){
+            st.put(k, i++);
+        }
+
+        Iterator<String> it = st.iterator();
+        for(String k : inOrder){
+            assertTrue(it.hasNext());
+            assertEquals(k, it.next());
+        }
+        assertFalse(it.hasNext());
+        assertThrows(NoSuchElementException.class, it::next);
+    }
+
+    @Test
+    void iteratorWhenEmpty(){
+        assertFalse(st.iterator().hasNext());
+        assertFalse(st.entries().iterator().hasNext());
+    }
+
+    @Test
+    void entries(){
+        String[] insertionOrder = new String[] { "j", "e", "p", "c", "s", "a", "z"};
+        String[] inOrder = new String[]        { "a", "c", "e", "j", "p", "s", "z"};
+
+        int i = 0;
+        for(String k : insertionOrder){
+            st.put(k, i++);
+        }
+
+        i = 0;
+        for(Map.Entry<String, Integer> e : st.entries()){
+            assertEquals(inOrder[i++], e.getKey());
+            assertEquals(st.get(e.getKey()), e.getValue());
+            assertThrows(UnsupportedOperationException.class, () -> e.setValue(0));
+        }
+        assertEquals(inOrder.length, i);
+    }
+
+    @Test
+    void entriesAreNotChangedByLaterUpdates(){
+        for(int i = 1; i <= 7; i++){
+            st.put(Integer.toString(i), i);
+        }
+        List<Map.Entry<String, Integer>> taken = new ArrayList<>();
+        st.entries().forEach(taken::add);
+        st.del("3");
+        st.replace("5", 50);
+        for(int i = 1; i <= 7; i++){
+            Map.Entry<String, Integer> e = taken.get(i - 1);
+            assertEquals(new AbstractMap.SimpleEntry<>(Integer.toString(i), i), e);
+            assertEquals(new AbstractMap.SimpleEntry<>(Integer.toString(i), i).hashCode(), e.hashCode());
+        }
+    }
+
+    @Test
+    void forEach(){
+        for(int i = 0; i < 1000; i++){
+            st.put("k" + (i * 7919 % 1000), i);
+        }
+
+        List<String> visited = new ArrayList<>();
+        st.forEach((k, v) -> {
+            assertEquals(st.get(k), v);
+            visited.add(k);
+        });
+        assertEquals(st.keys(), visited);
+        assertThrows(InvalidParameterException.class, () -> st.forEach((BiConsumer<String, Integer>) null));
+    }
+
+    @Test
+    void minAndMax(){
+        assertThrows(NoSuchElementException.class, () -> st.min());
+        assertThrows(NoSuchElementException.class, () -> st.max());
+        for(String k : new String[] { "j", "e", "p", "c", "s", "a", "z"}){
+            st.put(k, 0);
+        }
+        assertEquals("a", st.min());
+        assertEquals("z", st.max());
+    }
+
+    @Test
+    void floorAndCeiling(){
+        for(String k : new String[] { "j", "e", "p", "c", "s"}){
+            st.put(k, 0);
+        }
+        assertEquals("e", st.floor("e"));
+        assertEquals("e", st.floor("f"));
+        assertEquals("s", st.floor("z"));
+        assertThrows(NoSuchElementException.class, () -> st.floor("a"));
+        assertEquals("e", st.ceiling("e"));
+        assertEquals("j", st.ceiling("f"));
+        assertEquals("c", st.ceiling("a"));
+        assertThrows(NoSuchElementException.class, () -> st.ceiling("t"));
+        assertThrows(InvalidParameterException.class, () -> st.floor(null));
+        assertThrows(InvalidParameterException.class, () -> st.ceiling(null));
+    }
+
+    @Test
+    void rangeQueriesMatchTreeMap(){
+        SymbolTable<Integer, Integer> ints = new SymbolTable<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(7);
+        while(expected.size() < 300){
+            int k = random.nextInt(1000);
+            if(!expected.containsKey(k)){
+                ints.put(k, k);
+                expected.put(k, k);
+            }
+        }
+        for(int i = 0; i < 500; i++){
+            int lo = random.nextInt(1100) - 50;
+            int hi = lo + random.nextInt(200) - 20;
+            List<Integer> range = new ArrayList<>();
+            for(Integer k : ints.keys(lo, hi)){
+                range.add(k);
+            }
+            if(lo > hi){
+                assertEquals(0, ints.size(lo, hi));
+                assertTrue(range.isEmpty());
+            }
+            else{
+                assertEquals(new ArrayList<>(expected.subMap(lo, true, hi, true).keySet()), range);
+                assertEquals(range.size(), ints.size(lo, hi));
+            }
+        }
+        assertThrows(InvalidParameterException.class, () -> ints.keys(null, 1));
+        assertThrows(InvalidParameterException.class, () -> ints.size(1, null));
+    }
+
+    @Test
+    void fromSortedBuildsBalancedTree(){
+        for(int n = 0; n < 300; n++){
+            List<Integer> keys = new ArrayList<>();
+            List<Integer> values = new ArrayList<>();
+            for(int i = 0; i < n; i++){
+                keys.add(i * 2);
+                values.add(-i);
+            }
+            SymbolTable<Integer, Integer> ints = SymbolTable.fromSorted(keys, values);
+            assertEquals(n, ints.size());
+            assertTrue(ints.isRedBlack());
+            assertTrue(ints.check());
+            assertEquals(new LinkedList<>(keys), ints.keys());
+            for(int i = 0; i < n; i++){
+                assertEquals(-i, ints.get(i * 2));
+            }
+            ints.put(-1, 0);
+            ints.put(n * 2 + 1, 0);
+            if(n > 0){
+                ints.del(n - (n % 2));
+            }
+            assertTrue(ints.isRedBlack());
+            assertTrue(ints.check());
+        }
+    }
+
+    @Test
+    void fromSortedSortsUnsortedInput(){
+        SymbolTable<String, Integer> table = SymbolTable.fromSorted(List.of("p", "c", "z", "a"), List.of(1, 2, 3, 4));
+        assertEquals(List.of("a", "c", "p", "z"), table.keys());
+        assertEquals(4, table.get("a"));
+        assertEquals(1, table.get("p"));
+        assertTrue(table.isRedBlack());
+        assertTrue(table.check());
+    }
+
+    @Test
+    void fromSortedInvalidInput(){
+        assertThrows(InvalidParameterException.class, () -> SymbolTable.fromSorted(List.of("a", "b"), List.of(1)));
+        assertThrows(InvalidParameterException.class, () -> SymbolTable.fromSorted(List.of("a", "b", "a"), List.of(1, 2, 3)));
+        assertThrows(InvalidParameterException.class, () -> SymbolTable.fromSorted(null, List.of(1)));
+        assertThrows(InvalidParameterException.class, () -> SymbolTable.fromSorted(Arrays.asList("a", null), List.of(1, 2)));
+        assertThrows(InvalidParameterException.class, () -> SymbolTable.fromSorted(List.of("a", "b"), Arrays.asList(1, null)));
+    }
+
+    @Test
+    void putAllMergesWithExistingKeys(){
+        SymbolTable<Integer, Integer> ints = new SymbolTable<>();
+        for(int i = 0; i < 1000; i += 2){
+            ints.put(i, i);
+        }
+        List<Integer> keys = new ArrayList<>();
+        for(int i = 999; i > 0; i -= 2){
+            keys.add(i);
+        }
+        ints.putAll(keys, keys);
+        assertEquals(1000, ints.size());
+        assertTrue(ints.isRedBlack());
+        assertTrue(ints.check());
+        for(int i = 0; i < 1000; i++){
+            assertEquals(i, ints.select(i));
+            assertEquals(i, ints.get(i));
+        }
+
+        // a small batch goes through put, a duplicate leaves the table untouched
+        ints.putAll(List.of(-5, 2000), List.of(1, 2));
+        assertThrows(InvalidParameterException.class, () -> ints.putAll(List.of(-7, 10), List.of(1, 2)));
+        assertThrows(InvalidParameterException.class, () -> ints.putAll(keys, keys));
+        assertFalse(ints.contains(-7));
+        assertEquals(1002, ints.size());
+        assertTrue(ints.check());
+    }
+
+    @Test
+    void getAll(){
+        for(String k : new String[] { "j", "e", "p", "c", "s", "a", "z"}){
+            st.put(k, (int) k.charAt(0));
+        }
+        List<Integer> values = st.getAll(List.of("z", "b", "a", "j", "z", "q"));
+        assertEquals(Arrays.asList((int) 'z', null, (int) 'a', (int) 'j', (int) 'z', null), values);
+        assertEquals(List.of(), st.getAll(List.of()));
+        assertThrows(InvalidParameterException.class, () -> st.getAll(null));
+        assertThrows(InvalidParameterException.class, () -> st.getAll(Arrays.asList("a", null)));
+    }
+
+    @Test
+    void getAllMatchesGet(){
+        SymbolTable<Integer, Integer> ints = new SymbolTable<>();
+        Random random = new Random(11);
+        for(int i = 0; i < 2000; i++){
+            int k = random.nextInt(5000);
+            if(!ints.contains(k)){
+                ints.put(k, -k);
+            }
+        }
+        List<Integer> batch = new ArrayList<>();
+        for(int i = 0; i < 3000; i++){
+            batch.add(random.nextInt(5000));
+        }
+        List<Integer> values = ints.getAll(batch);
+        for(int i = 0; i < batch.size(); i++){
+            assertEquals(ints.contains(batch.get(i)) ? ints.get(batch.get(i)) : null, values.get(i));
+        }
+    }
+
+    @Test
+    void delAllBatch(){
+        SymbolTable<Integer, Integer> ints = new SymbolTable<>();
+        for(int i = 0; i < 1000; i++){
+            ints.put(i, i);
+        }
+        // small batch, with misses and a repeated key
+        assertEquals(2, ints.delAll(List.of(5, 5000, 7, 5)));
+        assertFalse(ints.contains(5));
+        assertFalse(ints.contains(7));
+        assertTrue(ints.isRedBlack());
+        assertTrue(ints.check());
+
+        // large batch, rebuilt
+        List<Integer> evens = new ArrayList<>();
+        for(int i = 998; i >= 0; i -= 2){
+            evens.add(i);
+        }
+        assertEquals(500, ints.delAll(evens));
+        assertEquals(498, ints.size());
+        assertTrue(ints.isRedBlack());
+        assertTrue(ints.check());
+        for(int i = 0; i < 1000; i++){
+            assertEquals(i % 2 == 1 && i != 5 && i != 7, ints.contains(i));
+        }
+        assertEquals(0, ints.delAll(List.of(0, 2)));
+        assertThrows(InvalidParameterException.class, () -> ints.delAll(Arrays.asList(1, null)));
+        assertTrue(ints.contains(1));
+    }
+
+    @Test
+    void findAndGetOrDefault(){
+        st.put("a", 1);
+        st.put("c", 3);
+        assertEquals(1, st.find("a"));
+        assertNull(st.find("b"));
+        assertEquals(3, st.getOrDefault("c", -1));
+        assertEquals(-1, st.getOrDefault("b", -1));
+        assertThrows(InvalidParameterException.class, () -> st.find(null));
+        assertThrows(InvalidParameterException.class, () -> st.getOrDefault(null, 0));
+    }
+
+    @Test
+    void putIfAbsent(){
+        assertNull(st.putIfAbsent("a", 1));
+        assertEquals(1, st.putIfAbsent("a", 2));
+        assertEquals(1, st.get("a"));
+        assertEquals(1, st.size());
+        assertThrows(InvalidParameterException.class, () -> st.putIfAbsent(null, 1));
+        assertThrows(InvalidParameterException.class, () -> st.putIfAbsent("b", null));
+    }
+
+    @Test
+    void computeIfAbsent(){
+        for(int i = 0; i < 100; i++){
+            assertEquals(i, st.computeIfAbsent("k" + i, k -> Integer.parseInt(k.substring(1))));
+        }
+        assertEquals(100, st.size());
+        assertTrue(st.isRedBlack());
+        assertEquals(5, st.computeIfAbsent("k5", k -> { throw new AssertionError("called on a hit"); }));
+        assertNull(st.computeIfAbsent("x", k -> null));
+        assertFalse(st.contains("x"));
+        // the mapping function may read the table
+        assertEquals(5, st.computeIfAbsent("y", k -> st.get("k5")));
+        assertTrue(st.isRedBlack());
+        assertThrows(java.util.ConcurrentModificationException.class,
+                () -> st.computeIfAbsent("z", k -> { st.put("w", 0); return 1; }));
+        assertFalse(st.contains("z"));
+        assertThrows(InvalidParameterException.class, () -> st.computeIfAbsent(null, k -> 1));
+        assertThrows(InvalidParameterException.class, () -> st.computeIfAbsent("a", null));
+    }
+
+    @Test
+    void replace(){
+        st.put("a", 1);
+        assertEquals(1, st.replace("a", 2));
+        assertEquals(2, st.get("a"));
+        assertNull(st.replace("b", 3));
+        assertFalse(st.contains("b"));
+        assertThrows(InvalidParameterException.class, () -> st.replace("a", null));
+    }
+
+    @Test
+    void defaultLookupsMatchOverrides(){
+        ISymbolTable<String, Integer> pooled = new PooledSymbolTable<>();
+        assertNull(pooled.find("a"));
+        assertEquals(7, pooled.getOrDefault("a", 7));
+        assertNull(pooled.putIfAbsent("a", 1));
+        assertEquals(1, pooled.putIfAbsent("a", 2));
+        assertEquals(1, pooled.computeIfAbsent("a", k -> 3));
+        assertEquals(4, pooled.computeIfAbsent("b", k -> 4));
+        assertEquals(4, pooled.replace("b", 5));
+        assertNull(pooled.replace("c", 6));
+        assertEquals(List.of("a", "b"), pooled.keys());
+        assertEquals(5, pooled.get("b"));
+    }
+
+    @Test
+    void heightAndAverageDepth(){
+        assertEquals(-1, st.height());
+        assertEquals(0.0, st.averageDepth());
+        st.put("m", 1);
+        assertEquals(0, st.height());
+        st.put("c", 2);
+        st.put("x", 3);
+        assertEquals(1, st.height());
+        assertEquals(2.0 / 3, st.averageDepth(), 1e-9);
+        SymbolTable<Integer, Integer> ints = new SymbolTable<>();
+        for(int i = 0; i < 1 << 12; i++){
+            ints.put(i, i);
+        }
+        assertTrue(ints.height() <= 2 * 12);
+        assertTrue(ints.averageDepth() <= ints.height());
+    }
+
+    @Test
+    void validate(){
+        assertTrue(st.validate());
+        assertTrue(st.validateNext(10));
+        Random random = new Random(5);
+        SymbolTable<Integer, Integer> ints = new SymbolTable<>();
+        for(int i = 0; i < 5000; i++){
+            int k = random.nextInt(20000);
+            if(ints.contains(k)){
+                ints.del(k);
+            } else {
+                ints.put(k, k);
+            }
+            if(i % 500 == 0){
+                assertTrue(ints.validate());
+            }
+        }
+        assertTrue(ints.validate());
+        for(int i = 0; i < 3 * ints.size(); i += 100){
+            assertTrue(ints.validateNext(100));
+        }
+        assertThrows(InvalidParameterException.class, () -> ints.validateNext(-1));
+    }
+
+    @Test
+    void validateFindsCorruption() throws Exception {
+        for(int i = 0; i < 100; i++){
+            st.put(String.format("%03d", i), i);
+        }
+        Object root = SymbolTable.class.getDeclaredField("root").get(st);
+        Field size = root.getClass().getDeclaredField("size");
+        Field key = root.getClass().getDeclaredField("key");
+        Field color = root.getClass().getDeclaredField("color");
+        Field left = root.getClass().getDeclaredField("left");
+        size.setAccessible(true);
+        key.setAccessible(true);
+        color.setAccessible(true);
+        left.setAccessible(true);
+        Object node = left.get(left.get(root));
+
+        size.set(node, (int) size.get(node) + 1);
+        assertFalse(st.validate());
+        assertFalse(st.validateNext(st.size()));
+        size.set(node, (int) size.get(node) - 1);
+        assertTrue(st.validate());
+
+        Object k = key.get(node);
+        key.set(node, "999");
+        assertFalse(st.validate());
+        assertFalse(st.validateNext(st.size()));
+        key.set(node, k);
+
+        boolean c = (boolean) color.get(node);
+        color.set(node, !c);
+        assertFalse(st.validate());
+        assertFalse(st.validateNext(st.size()));
+        color.set(node, c);
+        assertTrue(st.validate());
+        assertTrue(st.validateNext(st.size()));
+    }
+
+    @Test
+    void spliteratorSplitsByRank(){
+        SymbolTable<Integer, Integer> ints = new SymbolTable<>();
+        for(int i = 0; i < 1000; i++){
+            ints.put(i, i * 10);
+        }
+        Spliterator<Integer> all = ints.spliterator();
+        assertEquals(1000, all.getExactSizeIfKnown());
+        assertTrue(all.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.SORTED
+                | Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL));
+        assertNull(all.getComparator());
+        assertTrue(all.tryAdvance(k -> assertEquals(0, k)));
+        Spliterator<Integer> prefix = all.trySplit();
+        assertEquals(499, prefix.estimateSize());
+        assertEquals(500, all.estimateSize());
+        List<Integer> seen = new ArrayList<>();
+        prefix.forEachRemaining(seen::add);
+        all.forEachRemaining(seen::add);
+        assertEquals(999, seen.size());
+        for(int i = 0; i < seen.size(); i++){
+            assertEquals(i + 1, seen.get(i));
+        }
+        assertFalse(all.tryAdvance(k -> fail("the spliterator is exhausted")));
+
+        assertEquals(ints.keys(), StreamSupport.stream(ints.spliterator(), true).collect(Collectors.toList()));
+        assertEquals(4995000L, StreamSupport.stream(ints.entrySpliterator(), true).mapToLong(Map.Entry::getValue).sum());
+        List<Map.Entry<Integer, Integer>> collected = StreamSupport.stream(ints.entrySpliterator(), true)
+                .collect(Collectors.toList());
+        for(int i = 0; i < 1000; i++){
+            ints.del(i);
+        }
+        for(int i = 0; i < 1000; i++){
+            assertEquals(new AbstractMap.SimpleEntry<>(i, i * 10), collected.get(i));
+        }
+        assertEquals(0, st.spliterator().estimateSize());
+        assertNull(st.spliterator().trySplit());
+    }
+
+    @Test
+    void parallelForEachAndReduce(){
+        SymbolTable<Integer, Integer> ints = new SymbolTable<>();
+        for(int i = 0; i < 100000; i++){
+            ints.put(i, i % 7);
+        }
+        LongAdder total = new LongAdder();
+        LongAdder count = new LongAdder();
+        ints.parallelForEach((k, v) -> { total.add(v); count.increment(); });
+        assertEquals(100000, count.sum());
+        long expected = 0;
+        for(int i = 0; i < 100000; i++){
+            expected += i % 7;
+        }
+        assertEquals(expected, total.sum());
+
+        assertEquals(Long.valueOf(expected), ints.parallelReduce((k, v) -> (long) v, Long::sum));
+        // only associativity is required, results are combined in key order
+        List<Integer> ordered = ints.parallelReduce((k, v) -> k % 1000 == 0 ? List.of(k) : null,
+                (a, b) -> { List<Integer> c = new ArrayList<>(a); c.addAll(b); return c; });
+        assertEquals(100, ordered.size());
+        for(int i = 0; i < ordered.size(); i++){
+            assertEquals(i * 1000, ordered.get(i));
+        }
+        assertNull(st.parallelReduce((k, v) -> v, Integer::sum));
+        assertNull(ints.parallelReduce((k, v) -> null, Integer::sum));
+        assertThrows(InvalidParameterException.class, () -> st.parallelForEach(null));
+        assertThrows(InvalidParameterException.class, () -> st.parallelReduce(null, Integer::sum));
+    }
+
+    @Test
+    void splitAndJoin(){
+        for(String k : new String[] { "j", "e", "p", "c", "s", "a", "z", "m" }){
+            st.put(k, (int) k.charAt(0));
+        }
+        SymbolTable<String, Integer> greater = st.split("m");
+        assertEquals(List.of("a", "c", "e", "j"), st.keys());
+        assertEquals(List.of("m", "p", "s", "z"), greater.keys());
+        assertTrue(st.validate());
+        assertTrue(greater.validate());
+        assertEquals(2, greater.rank("s"));
+        assertEquals("p", greater.select(1));
+
+        SymbolTable<String, Integer> none = st.split("k");
+        assertTrue(none.isEmpty());
+        assertThrows(InvalidParameterException.class, () -> greater.join(st));
+        assertThrows(InvalidParameterException.class, () -> st.join(st));
+        assertThrows(InvalidParameterException.class, () -> st.join(null));
+        assertThrows(InvalidParameterException.class, () -> st.split(null));
+
+        st.join(greater);
+        assertTrue(greater.isEmpty());
+        assertEquals(List.of("a", "c", "e", "j", "m", "p", "s", "z"), st.keys());
+        assertEquals((int) 'm', st.get("m"));
+        assertTrue(st.validate());
+        assertTrue(st.check());
+    }
+
+    @Test
+    void randomSplitsAndJoinsStayBalanced(){
+        Random random = new Random(11);
+        for(int round = 0; round < 200; round++){
+            SymbolTable<Integer, Integer> ints = new SymbolTable<>();
+            int n = random.nextInt(2000);
+            for(int i = 0; i < n; i++){
+                ints.put(i * 2, i);
+            }
+            int pivot = random.nextInt(n * 2 + 3) - 1;
+            SymbolTable<Integer, Integer> greater = ints.split(pivot);
+            assertTrue(ints.validate());
+            assertTrue(greater.validate());
+            int below = Math.max(0, Math.min(n, (pivot + 1) / 2));
+            assertEquals(below, ints.size());
+            assertEquals(n - below, greater.size());
+            if(!greater.isEmpty()){
+                assertTrue(greater.min() >= pivot);
+            }
+            ints.join(greater);
+            assertTrue(ints.validate());
+            assertEquals(n, ints.size());
+            for(int i = 0; i < n; i++){
+                assertEquals(i * 2, ints.select(i));
+            }
+        }
+    }
+
+    @Test
+    void unionKeepsThisTablesValues(){
+        SymbolTable<Integer, String> evens = new SymbolTable<>();
+        SymbolTable<Integer, String> threes = new SymbolTable<>();
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        for(int i = 0; i < 3000; i += 3){
+            threes.put(i, "three");
+            expected.put(i, "three");
+        }
+        for(int i = 0; i < 1000; i += 2){
+            evens.put(i, "even");
+            expected.put(i, "even");
+        }
+        evens.union(threes);
+        assertTrue(threes.isEmpty());
+        assertTrue(evens.validate());
+        assertEquals(new LinkedList<>(expected.keySet()), evens.keys());
+        for(Map.Entry<Integer, String> e : expected.entrySet()){
+            assertEquals(e.getValue(), evens.get(e.getKey()));
+        }
+        assertEquals("even", evens.get(6));
+
+        SymbolTable<Integer, String> empty = new SymbolTable<>();
+        empty.union(evens);
+        assertEquals(expected.size(), empty.size());
+        assertTrue(empty.validate());
+        empty.union(new SymbolTable<>());
+        assertEquals(expected.size(), empty.size());
+        assertThrows(InvalidParameterException.class, () -> empty.union(empty));
+    }
 }